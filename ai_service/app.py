@@ -1,4 +1,5 @@
-from flask import Flask, request, jsonify
+from flask import Flask, Response, request, jsonify, stream_with_context
+import json
 import os
 import cohere
 
@@ -8,7 +9,8 @@ app = Flask(__name__)
 COHERE_API_KEY = os.getenv("COHERE_API_KEY")
 co = cohere.Client(COHERE_API_KEY)
 
-# Expanded allowed topics with variations
+# Expanded allowed topics with variations (the backend pre-filters with the same list,
+# src/main/resources/chat-topics.txt, so keep the two in sync)
 ALLOWED_TOPICS = [
     # Core wellness and mental health (with variations)
     "wellness", "wellbeing", "mental health", "mental wellbeing", "stress", "stressed", "depression", "depressed", "anxiety", "anxious", "mood", "happiness", "happy", "sadness", "sad", "motivation", "motivated", "self-care", "self care", "relaxation", "relax", "mindfulness", "burnout", "resilience", "therapy", "therapist", "counseling", "counselor", "support", "gratitude", "journaling", "journal", "meditation", "meditate", "exercise", "exercising", "fitness", "nutrition", "diet", "hydration", "rest", "recovery", "energy", "positivity", "positive", "emotional health", "psychological health", "behavioral health", "coping skills", "cope", "coping", "self-improvement", "improvement", "personal growth", "growth", "life balance", "work-life balance", "work life balance", "social connection", "relationships", "relationship", "support system", "productivity", "productive", "habit", "habits", "sleep", "sleep quality", "sleep hours", "physical activity", "activity", "screen time", "digital wellness", "water intake", "meals skipped", "meditation minutes", "energy level", "notes", "risk assessment", "recommendation", "insight", "streak", "tracking", "analytics", "score", "wellness score", "mood score", "stress level", "productivity score", "physical activity minutes", "social interaction", "social interaction hours", "screen time hours", "water intake glasses", "meals", "meditation", "energy", "created at", "updated at", "journal", "coach", "health", "wellbeing", "personal development", "focus", "concentration", "balance", "life", "work", "rest", "recovery", "motivation", "goal", "goal setting", "achievement", "success", "failure", "challenge", "overcome", "support group", "peer support", "counselor", "psychologist", "psychiatrist", "mental disorder", "diagnosis", "treatment", "prevention", "intervention", "resource", "tip", "advice", "guidance", "routine", "ritual", "habit formation", "behavior change", "positive psychology", "emotional intelligence", "self-awareness", "self-regulation", "mindset", "attitude", "optimism", "pessimism", "gratitude journal", "affirmation", "reflection", "check-in", "survey", "assessment", "screening", "symptom", "sign", "indicator", "trend", "pattern", "history", "log", "record", "entry", "update", "reminder", "notification", "alert", "encouragement", "reward", "celebration", "milestone", "progress", "improvement", "decline", "setback", "relapse", "recovery plan", "treatment plan", "care plan", "action plan", "goal plan", "wellness plan", "mental health plan", "crisis", "emergency", "urgent", "important", "priority", "high priority", "low priority", "urgent priority", "easy", "medium", "hard", "difficulty", "challenge level", "task", "task management", "task tracking", "habit tracking", "habit log", "habit formation", "habit streak", "habit consistency", "habit analytics", "habit insight", "habit recommendation", "habit improvement", "habit decline", "habit setback", "habit recovery", "habit plan", "habit goal", "habit action", "habit support", "habit encouragement", "habit reward", "habit celebration", "habit milestone", "habit progress", "hi", "hello"
@@ -22,26 +24,62 @@ def is_on_topic(message):
             return True
     return False
 
-@app.route('/chat', methods=['POST'])
-def chat():
-    data = request.json
-    message = data.get('message', '')
-    history = data.get('history', [])
-    if not message:
-        return jsonify({'reply': "Please enter a message."})
-    if not is_on_topic(message):
-        return jsonify({'reply': "Sorry, I can only answer questions about wellness, mental health, stress relief, and related topics."})
-    # Build conversation for Cohere
-    chat_history = ""
+OFF_TOPIC_REPLY = "Sorry, I can only answer questions about wellness, mental health, stress relief, and related topics."
+
+
+def build_chat_prompt(message, history, summary=''):
+    # Build conversation for Cohere; the backend sends a bounded window of recent
+    # turns plus a short summary of anything older
+    chat_history = f"Earlier in this conversation:\n{summary}\n" if summary else ""
     for msg in history:
         role = 'User' if msg.get('sender') == 'user' else 'Coach'
         chat_history += f"{role}: {msg.get('text', '')}\n"
-    prompt = (
+    return (
         "You are FocusWell, a supportive, expert wellness and mental health coach. "
         "Be concise, positive, actionable, and only answer questions about wellness, mental health, stress, depression, or greetings. "
         "If the question is not about these topics, politely refuse.\n"
         f"{chat_history}User: {message}\nCoach:"
     )
+
+
+def format_reply(reply):
+    # Format reply as markdown: add line breaks and preserve bullet points
+    return reply.replace('\n- ', '\n\n- ').replace('\n', '\n\n')
+
+
+def format_stream(chunks):
+    # format_reply(''.join(chunks).strip()), emitted as the chunks arrive: whitespace
+    # at the end is held back until more text follows it, and so is a newline until
+    # the two characters after it are known, so "\n- " split across chunks still matches
+    pending = ''
+    started = False
+    for text in chunks:
+        pending += text
+        if not started:
+            pending = pending.lstrip()
+            started = bool(pending)
+        cut = len(pending.rstrip())
+        if cut >= 2 and pending[cut - 2] == '\n':
+            cut -= 2
+        if cut:
+            yield format_reply(pending[:cut])
+            pending = pending[cut:]
+    tail = pending.rstrip()
+    if tail:
+        yield format_reply(tail)
+
+
+@app.route('/chat', methods=['POST'])
+def chat():
+    data = request.json
+    message = data.get('message', '')
+    history = data.get('history', [])
+    summary = data.get('summary', '')
+    if not message:
+        return jsonify({'reply': "Please enter a message."})
+    if not is_on_topic(message):
+        return jsonify({'reply': OFF_TOPIC_REPLY})
+    prompt = build_chat_prompt(message, history, summary)
     try:
         response = co.generate(
             model="command-r-plus",
@@ -49,25 +87,69 @@ def chat():
             max_tokens=120,
             temperature=0.7
         )
-        reply = response.generations[0].text.strip()
-        # Format reply as markdown: add line breaks and preserve bullet points
-        reply = reply.replace('\n- ', '\n\n- ').replace('\n', '\n\n')
+        reply = format_reply(response.generations[0].text.strip())
     except Exception as e:
         print(f"Cohere error: {e}")
         reply = "Sorry, I couldn't process your request."
     return jsonify({"reply": reply})
 
 
+@app.route('/chat/stream', methods=['POST'])
+def chat_stream():
+    # Same reply as /chat, sent as NDJSON lines {"delta": ...} and a final {"done": true}
+    data = request.json or {}
+    message = data.get('message', '')
+    history = data.get('history', [])
+    summary = data.get('summary', '')
+
+    def ndjson(obj):
+        return json.dumps(obj) + "\n"
+
+    def generate():
+        if not message:
+            yield ndjson({'delta': "Please enter a message."})
+        elif not is_on_topic(message):
+            yield ndjson({'delta': OFF_TOPIC_REPLY})
+        else:
+            def texts():
+                for event in co.generate_stream(
+                    model="command-r-plus",
+                    prompt=build_chat_prompt(message, history, summary),
+                    max_tokens=120,
+                    temperature=0.7
+                ):
+                    text = getattr(event, 'text', None)
+                    if text and not getattr(event, 'is_finished', False):
+                        yield text
+
+            try:
+                for delta in format_stream(texts()):
+                    yield ndjson({'delta': delta})
+            except Exception as e:
+                print(f"Cohere error: {e}")
+                yield ndjson({'delta': "Sorry, I couldn't process your request."})
+        yield ndjson({'done': True})
+
+    return Response(stream_with_context(generate()), mimetype='application/x-ndjson')
+
+
 @app.route('/analyze', methods=['POST'])
 def analyze():
     print("Analyze endpoint hit")
-    data = request.json
-    wellness_data = data.get('wellnessData', [])
-    tasks = data.get('tasks', [])
-    habit_logs = data.get('habitLogs', [])
+    data = request.json or {}
+    if 'wellnessData' in data:
+        # Legacy payload: full entity lists
+        wellness_data = data.get('wellnessData', [])
+        notes = " ".join([d.get('notes', '') for d in wellness_data if d.get('notes')])
+        mood_scores = [d.get('moodScore') for d in wellness_data if d.get('moodScore') is not None]
+        avg_mood = sum(mood_scores) / len(mood_scores) if mood_scores else None
+        user_summary = {'wellnessData': wellness_data, 'tasks': data.get('tasks', []), 'habitLogs': data.get('habitLogs', [])}
+    else:
+        # Compact payload: recent notes plus precomputed aggregates
+        notes = " ".join([n.get('text', '') for n in data.get('notes', []) if n.get('text')])
+        avg_mood = data.get('avgMoodScore')
+        user_summary = {k: v for k, v in data.items() if k != 'notes'}
 
-    # Extract notes/journals for sentiment analysis
-    notes = " ".join([d.get('notes', '') for d in wellness_data if d.get('notes')])
     prompt = (
         "You are a wellness coach AI. Analyze the following user journal notes for mood, stress, and overall sentiment. "
         "Summarize the user's emotional state in 1-2 sentences and suggest one actionable tip for improvement.\n\n"
@@ -89,7 +171,7 @@ def analyze():
     rec_prompt = (
         "You are a wellness and productivity AI coach. Based on the following user data (habits, mood, sleep, tasks, etc.), "
         "generate 2-3 personalized, science-backed recommendations to improve their well-being.\n\n"
-        f"User data: {str({'wellnessData': wellness_data, 'tasks': tasks, 'habitLogs': habit_logs})}\n"
+        f"User data: {json.dumps(user_summary, default=str)}\n"
     )
     try:
         rec_response = co.generate(
@@ -104,8 +186,7 @@ def analyze():
         recommendations = "- Maintain 7+ hours sleep.\n- Complete one small task daily.\n- Try a short walk for stress relief."
 
     # Example: Calculate a simple wellness score (average of moodScore if available)
-    mood_scores = [d.get('moodScore') for d in wellness_data if d.get('moodScore') is not None]
-    wellness_score = round(sum(mood_scores) / len(mood_scores), 2) if mood_scores else 75
+    wellness_score = round(avg_mood, 2) if avg_mood is not None else 75
 
     # Example: Simple insights
     insights = [
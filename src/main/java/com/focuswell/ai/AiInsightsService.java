@@ -0,0 +1,132 @@
+package com.focuswell.ai;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.focuswell.cache.RequestCoalescer;
+import com.focuswell.cache.TtlCache;
+import com.focuswell.cache.UserDataVersions;
+import com.focuswell.model.User;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Per-user cache of /analyze responses. Each entry records the
+ * {@link UserDataVersions} stamp and the day it was computed for; it is served as a
+ * hit only while both still match. With stale-while-revalidate on, an outdated
+ * entry is returned at once and refreshed in the background. Concurrent misses for
+ * one user share a single upstream call, and fallback bodies are never cached.
+ */
+@Service
+@Slf4j
+public class AiInsightsService {
+
+    public enum CacheResult {
+        HIT, STALE, MISS
+    }
+
+    public record Insights(Map<String, Object> body, CacheResult cache) {
+    }
+
+    public enum PrecomputeResult {
+        STORED, CURRENT, FAILED
+    }
+
+    private record CachedInsights(long version, LocalDate day, Map<String, Object> body) {
+    }
+
+    private final InsightsRequestFactory requestFactory;
+    private final AiServiceClient aiServiceClient;
+    private final UserDataVersions dataVersions;
+    private final TtlCache<Long, CachedInsights> cache;
+    private final RequestCoalescer coalescer;
+    private final boolean staleWhileRevalidate;
+    private final Counter hits;
+    private final Counter staleHits;
+    private final Counter misses;
+
+    public AiInsightsService(InsightsRequestFactory requestFactory, AiServiceClient aiServiceClient,
+            UserDataVersions dataVersions, RequestCoalescer coalescer, MeterRegistry meterRegistry,
+            @Value("${ai.insights.cache.max-size:10000}") int maxSize,
+            @Value("${ai.insights.cache.ttl:PT24H}") Duration ttl,
+            @Value("${ai.insights.cache.stale-while-revalidate:true}") boolean staleWhileRevalidate) {
+        this.requestFactory = requestFactory;
+        this.aiServiceClient = aiServiceClient;
+        this.dataVersions = dataVersions;
+        this.coalescer = coalescer;
+        this.cache = new TtlCache<>(maxSize, ttl);
+        this.staleWhileRevalidate = staleWhileRevalidate;
+        this.hits = meterRegistry.counter("ai.insights.cache", "result", "hit");
+        this.staleHits = meterRegistry.counter("ai.insights.cache", "result", "stale");
+        this.misses = meterRegistry.counter("ai.insights.cache", "result", "miss");
+        Gauge.builder("cache.size", cache, TtlCache::size).tag("cache", "ai.insights").register(meterRegistry);
+    }
+
+    public CompletableFuture<Insights> getInsights(User user) {
+        Long userId = user.getId();
+        long version = dataVersions.current(userId);
+        LocalDate today = LocalDate.now();
+
+        CachedInsights cached = cache.getIfPresent(userId);
+        if (cached != null && cached.version() == version && cached.day().equals(today)) {
+            hits.increment();
+            return CompletableFuture.completedFuture(new Insights(cached.body(), CacheResult.HIT));
+        }
+        if (cached != null && staleWhileRevalidate) {
+            staleHits.increment();
+            refresh(user, version, today);
+            return CompletableFuture.completedFuture(new Insights(cached.body(), CacheResult.STALE));
+        }
+        misses.increment();
+        return refresh(user, version, today).thenApply(body -> new Insights(body, CacheResult.MISS));
+    }
+
+    // For batch warm-up: fills the cache unless it already holds today's insights for the current data
+    public CompletableFuture<PrecomputeResult> precompute(User user) {
+        Long userId = user.getId();
+        long version = dataVersions.current(userId);
+        LocalDate today = LocalDate.now();
+
+        CachedInsights cached = cache.getIfPresent(userId);
+        if (cached != null && cached.version() == version && cached.day().equals(today)) {
+            return CompletableFuture.completedFuture(PrecomputeResult.CURRENT);
+        }
+        return refresh(user, version, today).handle((body, error) ->
+                error == null && !Boolean.TRUE.equals(body.get("fallback"))
+                        ? PrecomputeResult.STORED
+                        : PrecomputeResult.FAILED);
+    }
+
+    // Joins a running refresh for the same version and day, otherwise starts one
+    private CompletableFuture<Map<String, Object>> refresh(User user, long version, LocalDate day) {
+        Long userId = user.getId();
+        RequestCoalescer.Key key = new RequestCoalescer.Key("ai.insights", userId, version, List.of(day));
+        return coalescer.executeAsync(key, () ->
+                // The payload is built on this thread, inside its own read-only transaction
+                aiServiceClient.analyze(requestFactory.build(user)).thenApply(body -> {
+                    if (!Boolean.TRUE.equals(body.get("fallback"))) {
+                        store(userId, new CachedInsights(version, day, body));
+                    }
+                    return body;
+                }));
+    }
+
+    // Never replace a newer entry with one computed from older data
+    private void store(Long userId, CachedInsights insights) {
+        CachedInsights current = cache.getIfPresent(userId);
+        if (current == null || current.version() <= insights.version()) {
+            cache.put(userId, insights);
+        } else {
+            log.debug("Discarding insights for user {} at version {}", userId, insights.version());
+        }
+    }
+}
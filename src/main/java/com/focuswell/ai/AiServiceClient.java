@@ -0,0 +1,375 @@
+package com.focuswell.ai;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Flow;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Non-blocking client for the Python ai_service. One pooled {@link HttpClient} is
+ * shared by all calls; a semaphore bulkhead caps concurrent calls and a circuit
+ * breaker stops calling a failing upstream. Rejected or failed calls complete with
+ * a fallback body in the same shape as the upstream response, never exceptionally;
+ * only {@link #chatStream} reports failure, so the caller can fall back to {@link #chat}.
+ * A stream that goes quiet for longer than the idle timeout counts as failed.
+ */
+@Component
+@Slf4j
+public class AiServiceClient {
+
+    private static final TypeReference<Map<String, Object>> MAP_TYPE = new TypeReference<>() {
+    };
+
+    private final String baseUrl;
+    private final ObjectMapper objectMapper;
+    private final HttpClient httpClient;
+    private final Duration readTimeout;
+    private final long streamIdleNanos;
+    private final ScheduledThreadPoolExecutor watchdog;
+    private final int maxConcurrent;
+    private final Semaphore bulkhead;
+    private final CircuitBreaker breaker;
+
+    public AiServiceClient(@Value("${AI_SERVICE_URL}") String baseUrl,
+            ObjectMapper objectMapper,
+            @Value("${ai.client.connect-timeout:PT3S}") Duration connectTimeout,
+            @Value("${ai.client.read-timeout:PT30S}") Duration readTimeout,
+            @Value("${ai.client.stream-idle-timeout:PT15S}") Duration streamIdleTimeout,
+            @Value("${ai.client.max-concurrent:16}") int maxConcurrent,
+            @Value("${ai.client.breaker.failure-threshold:5}") int failureThreshold,
+            @Value("${ai.client.breaker.open-duration:PT30S}") Duration openDuration) {
+        this.baseUrl = baseUrl.endsWith("/") ? baseUrl.substring(0, baseUrl.length() - 1) : baseUrl;
+        this.objectMapper = objectMapper;
+        this.readTimeout = readTimeout;
+        this.streamIdleNanos = streamIdleTimeout.toNanos();
+        this.watchdog = new ScheduledThreadPoolExecutor(1, runnable -> {
+            Thread thread = new Thread(runnable, "ai-stream-watchdog");
+            thread.setDaemon(true);
+            return thread;
+        });
+        // Streams that finish normally cancel their check; do not keep it queued until due
+        this.watchdog.setRemoveOnCancelPolicy(true);
+        this.httpClient = HttpClient.newBuilder()
+                .connectTimeout(connectTimeout)
+                .version(HttpClient.Version.HTTP_1_1)
+                .build();
+        this.maxConcurrent = maxConcurrent;
+        this.bulkhead = new Semaphore(maxConcurrent);
+        this.breaker = new CircuitBreaker(failureThreshold, openDuration);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        watchdog.shutdownNow();
+    }
+
+    public CompletableFuture<Map<String, Object>> analyze(Object payload) {
+        return post("/analyze", payload, AiServiceClient::analyzeFallback);
+    }
+
+    public CompletableFuture<Map<String, Object>> chat(Object payload) {
+        return post("/chat", payload, AiServiceClient::chatFallback);
+    }
+
+    /**
+     * Relays /chat/stream, passing each text chunk to {@code onChunk} on an HTTP client
+     * thread as it arrives. Completes exceptionally if the call is rejected or fails, or
+     * with a {@link TimeoutException} if no line arrives within the idle timeout;
+     * cancelling the returned future stops reading from the upstream.
+     */
+    public CompletableFuture<Void> chatStream(Object payload, Consumer<String> onChunk) {
+        byte[] body = serialize(payload);
+
+        if (!bulkhead.tryAcquire()) {
+            log.warn("AI stream rejected: {} calls already in flight", maxConcurrent);
+            return CompletableFuture.failedFuture(new RejectedExecutionException("AI service busy"));
+        }
+        if (!breaker.tryAcquire()) {
+            bulkhead.release();
+            return CompletableFuture.failedFuture(new RejectedExecutionException("AI service circuit open"));
+        }
+
+        CompletableFuture<Void> done = new CompletableFuture<>();
+        ChunkSubscriber subscriber = new ChunkSubscriber(onChunk, done);
+        done.whenComplete((ignored, error) -> {
+            subscriber.stopWatching();
+            bulkhead.release();
+            if (error instanceof CancellationException) {
+                // The browser went away; that says nothing about the upstream
+                subscriber.cancel();
+                breaker.onIgnored();
+            } else if (error == null) {
+                breaker.onSuccess();
+            } else {
+                record(error);
+                log.warn("AI stream failed ({}), breaker {}: {}", error.getClass().getSimpleName(),
+                        breaker.getState(), error.getMessage());
+            }
+        });
+
+        try {
+            // The request timeout bounds the wait for response headers, not the whole stream
+            HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/chat/stream"))
+                    .timeout(readTimeout)
+                    .header("Content-Type", "application/json")
+                    .header("Accept", "application/x-ndjson")
+                    .POST(HttpRequest.BodyPublishers.ofByteArray(body))
+                    .build();
+            httpClient.sendAsync(request, info -> info.statusCode() / 100 == 2
+                    ? HttpResponse.BodySubscribers.fromLineSubscriber(subscriber)
+                    : HttpResponse.BodySubscribers.replacing(null))
+                    .whenComplete((response, error) -> {
+                        if (error != null) {
+                            done.completeExceptionally(error instanceof CompletionException && error.getCause() != null
+                                    ? error.getCause()
+                                    : error);
+                        } else if (response.statusCode() / 100 != 2) {
+                            done.completeExceptionally(new HttpStatusException(response.statusCode()));
+                        }
+                    });
+        } catch (RuntimeException e) {
+            done.completeExceptionally(e);
+        }
+        return done;
+    }
+
+    public CircuitBreaker.State getBreakerState() {
+        return breaker.getState();
+    }
+
+    private CompletableFuture<Map<String, Object>> post(String path, Object payload,
+            Supplier<Map<String, Object>> fallback) {
+        byte[] body = serialize(payload);
+
+        if (!bulkhead.tryAcquire()) {
+            log.warn("AI call to {} rejected: {} calls already in flight", path, maxConcurrent);
+            return CompletableFuture.completedFuture(fallback.get());
+        }
+        if (!breaker.tryAcquire()) {
+            bulkhead.release();
+            log.debug("AI call to {} short-circuited: breaker {}", path, breaker.getState());
+            return CompletableFuture.completedFuture(fallback.get());
+        }
+
+        CompletableFuture<HttpResponse<byte[]>> response;
+        try {
+            HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                    .timeout(readTimeout)
+                    .header("Content-Type", "application/json")
+                    .header("Accept", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofByteArray(body))
+                    .build();
+            response = httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofByteArray());
+        } catch (RuntimeException e) {
+            response = CompletableFuture.failedFuture(e);
+        }
+
+        return response
+                .thenApply(this::readBody)
+                .handle((result, error) -> {
+                    bulkhead.release();
+                    if (error == null) {
+                        breaker.onSuccess();
+                        return result;
+                    }
+                    Throwable cause = error instanceof CompletionException && error.getCause() != null
+                            ? error.getCause()
+                            : error;
+                    record(cause);
+                    log.warn("AI call to {} failed ({}), breaker {}: {}", path,
+                            cause.getClass().getSimpleName(), breaker.getState(), cause.getMessage());
+                    return fallback.get();
+                });
+    }
+
+    // Serialize on the caller's thread, where lazy entity state can still be read
+    private byte[] serialize(Object payload) {
+        try {
+            return objectMapper.writeValueAsBytes(payload);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Could not serialize AI request", e);
+        }
+    }
+
+    // Only an unreachable, timed-out or 5xx-answering service counts against the breaker;
+    // a 4xx or an unreadable body is our request's problem, not the service's health
+    private void record(Throwable error) {
+        boolean unhealthy = error instanceof HttpStatusException http
+                ? http.getStatus() >= 500
+                : (error instanceof IOException && !(error instanceof JsonProcessingException))
+                        || error instanceof TimeoutException;
+        if (unhealthy) {
+            breaker.onFailure();
+        } else {
+            breaker.onIgnored();
+        }
+    }
+
+    private Map<String, Object> readBody(HttpResponse<byte[]> response) {
+        if (response.statusCode() / 100 != 2) {
+            throw new HttpStatusException(response.statusCode());
+        }
+        try {
+            return objectMapper.readValue(response.body(), MAP_TYPE);
+        } catch (IOException e) {
+            throw new CompletionException(e);
+        }
+    }
+
+    static Map<String, Object> analyzeFallback() {
+        return Map.of(
+                "insights", List.of(),
+                "recommendations", "- Maintain 7+ hours sleep.\n- Complete one small task daily.\n- Try a short walk for stress relief.",
+                "sentimentSummary", "AI insights are temporarily unavailable. Please try again later.",
+                "fallback", true);
+    }
+
+    static Map<String, Object> chatFallback() {
+        return Map.of(
+                "reply", "Sorry, the coach is unavailable right now. Please try again in a moment.",
+                "fallback", true);
+    }
+
+    static class HttpStatusException extends RuntimeException {
+        private final int status;
+
+        HttpStatusException(int status) {
+            super("AI service returned HTTP " + status);
+            this.status = status;
+        }
+
+        int getStatus() {
+            return status;
+        }
+    }
+
+    // Reads NDJSON lines of the form {"delta": "..."}, ending with {"done": true}
+    private class ChunkSubscriber implements Flow.Subscriber<String> {
+        private final Consumer<String> onChunk;
+        private final CompletableFuture<Void> done;
+        private volatile Flow.Subscription subscription;
+        private volatile long lastLineAt;
+        private volatile ScheduledFuture<?> idleCheck;
+
+        ChunkSubscriber(Consumer<String> onChunk, CompletableFuture<Void> done) {
+            this.onChunk = onChunk;
+            this.done = done;
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+            if (done.isDone()) {
+                subscription.cancel();
+            } else {
+                lastLineAt = System.nanoTime();
+                scheduleIdleCheck(streamIdleNanos);
+                subscription.request(Long.MAX_VALUE);
+            }
+        }
+
+        @Override
+        public void onNext(String line) {
+            lastLineAt = System.nanoTime();
+            if (line.isBlank() || done.isDone()) {
+                return;
+            }
+            JsonNode node;
+            try {
+                node = objectMapper.readTree(line);
+            } catch (IOException e) {
+                cancel();
+                done.completeExceptionally(e);
+                return;
+            }
+            if (node.path("done").asBoolean(false)) {
+                done.complete(null);
+            } else if (node.hasNonNull("delta")) {
+                try {
+                    onChunk.accept(node.get("delta").asText());
+                } catch (RuntimeException e) {
+                    // The consumer could not take the chunk, usually because the browser disconnected
+                    done.cancel(false);
+                }
+            }
+        }
+
+        @Override
+        public void onError(Throwable error) {
+            done.completeExceptionally(error);
+        }
+
+        @Override
+        public void onComplete() {
+            done.complete(null);
+        }
+
+        void cancel() {
+            Flow.Subscription current = subscription;
+            if (current != null) {
+                current.cancel();
+            }
+        }
+
+        // One pending check per stream; it re-arms itself for the time left rather than
+        // being rescheduled on every line
+        private void scheduleIdleCheck(long delayNanos) {
+            try {
+                idleCheck = watchdog.schedule(this::checkIdle, delayNanos, TimeUnit.NANOSECONDS);
+            } catch (RejectedExecutionException e) {
+                // Shutting down
+            }
+            if (done.isDone()) {
+                stopWatching();
+            }
+        }
+
+        private void checkIdle() {
+            if (done.isDone()) {
+                return;
+            }
+            long idle = System.nanoTime() - lastLineAt;
+            if (idle < streamIdleNanos) {
+                scheduleIdleCheck(streamIdleNanos - idle);
+                return;
+            }
+            cancel();
+            done.completeExceptionally(new TimeoutException(
+                    "AI stream idle for " + TimeUnit.NANOSECONDS.toMillis(idle) + " ms"));
+        }
+
+        void stopWatching() {
+            ScheduledFuture<?> current = idleCheck;
+            if (current != null) {
+                current.cancel(false);
+            }
+        }
+    }
+}
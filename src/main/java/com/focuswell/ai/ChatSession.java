@@ -0,0 +1,97 @@
+package com.focuswell.ai;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Conversation context kept for one chat session. Recent turns are held in a ring
+ * buffer bounded both by turn count and by an estimated token budget; turns pushed
+ * out of the buffer are folded into a short rolling summary, so the context sent
+ * upstream stays roughly constant in size however long the conversation runs.
+ */
+public class ChatSession {
+
+    public static final String USER = "user";
+    public static final String AI = "ai";
+
+    // Characters kept from each evicted turn in the summary
+    private static final int SUMMARY_SNIPPET_CHARS = 120;
+
+    private final String id;
+    private final int maxTurns;
+    private final int tokenBudget;
+    private final int summaryMaxChars;
+    private final Deque<Turn> turns = new ArrayDeque<>();
+    private final Deque<String> summaryLines = new ArrayDeque<>();
+    private int tokens;
+    private int summaryChars;
+
+    private record Turn(String sender, String text, int tokens) {
+    }
+
+    public ChatSession(String id, int maxTurns, int tokenBudget, int summaryMaxChars) {
+        this.id = id;
+        this.maxTurns = Math.max(1, maxTurns);
+        this.tokenBudget = tokenBudget;
+        this.summaryMaxChars = summaryMaxChars;
+    }
+
+    // Null for sessions built from a client-supplied history that are not stored
+    public String getId() {
+        return id;
+    }
+
+    public synchronized void append(String sender, String text) {
+        if (text == null || text.isBlank()) {
+            return;
+        }
+        Turn turn = new Turn(sender, text, estimateTokens(text));
+        turns.addLast(turn);
+        tokens += turn.tokens();
+        // The newest turn always stays, even if it alone exceeds the budget
+        while (turns.size() > 1 && (turns.size() > maxTurns || tokens > tokenBudget)) {
+            Turn evicted = turns.removeFirst();
+            tokens -= evicted.tokens();
+            summarize(evicted);
+        }
+    }
+
+    // Buffered turns, oldest first, in the {sender, text} shape the AI service expects
+    public synchronized List<Map<String, String>> getHistory() {
+        List<Map<String, String>> history = new ArrayList<>(turns.size());
+        for (Turn turn : turns) {
+            history.add(Map.of("sender", turn.sender(), "text", turn.text()));
+        }
+        return history;
+    }
+
+    public synchronized String getSummary() {
+        return String.join("\n", summaryLines);
+    }
+
+    public synchronized int getTokenEstimate() {
+        return tokens;
+    }
+
+    // Keeps the start of each evicted turn; the oldest lines go once the summary is full
+    private void summarize(Turn turn) {
+        String text = turn.text().replaceAll("\\s+", " ").trim();
+        if (text.length() > SUMMARY_SNIPPET_CHARS) {
+            text = text.substring(0, SUMMARY_SNIPPET_CHARS) + "...";
+        }
+        String line = (USER.equals(turn.sender()) ? "User: " : "Coach: ") + text;
+        summaryLines.addLast(line);
+        summaryChars += line.length() + 1;
+        while (summaryLines.size() > 1 && summaryChars > summaryMaxChars) {
+            summaryChars -= summaryLines.removeFirst().length() + 1;
+        }
+    }
+
+    // Rough estimate for English text (about four characters per token)
+    static int estimateTokens(String text) {
+        return (text.length() + 3) / 4;
+    }
+}
@@ -0,0 +1,84 @@
+package com.focuswell.ai;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.focuswell.cache.TtlCache;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * In-memory chat sessions, scoped to the user that owns them. Sessions expire after
+ * a period without messages, and the least recently used go first once the store is
+ * full; an unknown or expired id simply starts a fresh session under that id.
+ */
+@Component
+public class ChatSessionStore {
+
+    private record SessionKey(Long userId, String sessionId) {
+    }
+
+    private final TtlCache<SessionKey, ChatSession> sessions;
+    private final int maxTurns;
+    private final int tokenBudget;
+    private final int summaryMaxChars;
+
+    public ChatSessionStore(MeterRegistry meterRegistry,
+            @Value("${ai.chat.session.max-sessions:10000}") int maxSessions,
+            @Value("${ai.chat.session.ttl:PT2H}") Duration ttl,
+            @Value("${ai.chat.session.max-turns:20}") int maxTurns,
+            @Value("${ai.chat.session.token-budget:1000}") int tokenBudget,
+            @Value("${ai.chat.session.summary-max-chars:600}") int summaryMaxChars) {
+        this.sessions = new TtlCache<>(maxSessions, ttl);
+        this.maxTurns = maxTurns;
+        this.tokenBudget = tokenBudget;
+        this.summaryMaxChars = summaryMaxChars;
+        Gauge.builder("cache.size", sessions, TtlCache::size).tag("cache", "chat.sessions").register(meterRegistry);
+    }
+
+    /**
+     * Session for a chat request: the stored one named by {@code sessionId}, a
+     * throwaway one built from {@code history} for clients that still send it, or
+     * else a new stored session.
+     */
+    public ChatSession resolve(Long userId, String sessionId, List<Map<String, Object>> history) {
+        if (sessionId != null && !sessionId.isBlank()) {
+            return getOrCreate(userId, sessionId);
+        }
+        if (history != null) {
+            ChatSession session = newSession(null);
+            for (Map<String, Object> turn : history) {
+                String sender = ChatSession.USER.equals(turn.get("sender")) ? ChatSession.USER : ChatSession.AI;
+                Object text = turn.get("text");
+                session.append(sender, text == null ? null : text.toString());
+            }
+            return session;
+        }
+        return getOrCreate(userId, UUID.randomUUID().toString());
+    }
+
+    // Writing the session back on every message keeps its expiry sliding
+    public void touch(Long userId, ChatSession session) {
+        if (session.getId() != null) {
+            sessions.put(new SessionKey(userId, session.getId()), session);
+        }
+    }
+
+    public void remove(Long userId, String sessionId) {
+        sessions.invalidate(new SessionKey(userId, sessionId));
+    }
+
+    private ChatSession getOrCreate(Long userId, String sessionId) {
+        return sessions.get(new SessionKey(userId, sessionId), key -> newSession(key.sessionId()));
+    }
+
+    private ChatSession newSession(String id) {
+        return new ChatSession(id, maxTurns, tokenBudget, summaryMaxChars);
+    }
+}
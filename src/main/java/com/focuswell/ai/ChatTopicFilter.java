@@ -0,0 +1,88 @@
+package com.focuswell.ai;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Rejects off-topic chat messages before they reach the AI service, using the same
+ * rule as its is_on_topic check: a message passes if it contains any allowed topic
+ * phrase. Phrases are read from {@code ai.chat.topic-filter.topics}, one per line,
+ * with {@code #} comments; startup fails if the filter is enabled and none are found.
+ */
+@Component
+@Slf4j
+public class ChatTopicFilter {
+
+    public static final String OFF_TOPIC_REPLY =
+            "Sorry, I can only answer questions about wellness, mental health, stress relief, and related topics.";
+
+    private final boolean enabled;
+    private final TopicMatcher matcher;
+    private final Counter passed;
+    private final Counter rejected;
+
+    public ChatTopicFilter(MeterRegistry meterRegistry,
+            @Value("${ai.chat.topic-filter.enabled:true}") boolean enabled,
+            @Value("${ai.chat.topic-filter.topics:classpath:chat-topics.txt}") Resource topics) {
+        this.enabled = enabled;
+        List<String> phrases = enabled ? readTopics(topics) : List.of();
+        if (enabled && phrases.isEmpty()) {
+            // An empty matcher matches nothing, which would quietly refuse every chat message
+            throw new IllegalStateException("Chat topic filter is enabled but " + topics
+                    + " has no topics; add some or set ai.chat.topic-filter.enabled=false");
+        }
+        this.matcher = TopicMatcher.compile(phrases);
+        this.passed = meterRegistry.counter("ai.chat.topic-filter", "result", "pass");
+        this.rejected = meterRegistry.counter("ai.chat.topic-filter", "result", "reject");
+        if (enabled) {
+            log.info("Chat topic filter compiled {} topics into {} states", matcher.getPatternCount(),
+                    matcher.getStateCount());
+        }
+    }
+
+    // Blank messages pass through; the AI service answers those itself
+    public boolean isOnTopic(String message) {
+        if (!enabled || message == null || message.isBlank()) {
+            return true;
+        }
+        boolean onTopic = matcher.containsAny(message);
+        (onTopic ? passed : rejected).increment();
+        return onTopic;
+    }
+
+    // The /chat response the AI service would have sent for an off-topic message
+    public Map<String, Object> offTopicReply() {
+        return Map.of("reply", OFF_TOPIC_REPLY, "offTopic", true);
+    }
+
+    static List<String> readTopics(Resource resource) {
+        List<String> topics = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(resource.getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                line = line.strip();
+                if (!line.isEmpty() && !line.startsWith("#")) {
+                    topics.add(line);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read chat topics from " + resource, e);
+        }
+        return topics;
+    }
+}
@@ -0,0 +1,168 @@
+package com.focuswell.ai;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.focuswell.ai.AiInsightsService.PrecomputeResult;
+import com.focuswell.repository.WellnessDataRepository;
+import com.focuswell.service.UserService;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Nightly warm-up of the insights cache for users whose wellness data changed
+ * recently, so daytime /api/ai/insights requests are served from cache. At most
+ * {@code concurrency} AI calls run at once and call starts are spaced by
+ * {@code min-interval}, leaving the rest of the client's capacity to interactive use.
+ */
+@Component
+@Slf4j
+public class InsightsPrecomputeJob {
+
+    private static final int PAGE_SIZE = 200;
+
+    private final WellnessDataRepository wellnessDataRepository;
+    private final UserService userService;
+    private final AiInsightsService aiInsightsService;
+    private final boolean enabled;
+    private final Duration lookback;
+    private final int concurrency;
+    private final long minIntervalNanos;
+    private final Semaphore permits;
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    // Progress of the current (or last) run, and throughput of the last completed one
+    private final AtomicLong candidates = new AtomicLong();
+    private final AtomicLong completed = new AtomicLong();
+    private volatile double usersPerSecond;
+
+    private final Map<PrecomputeResult, Counter> results = new EnumMap<>(PrecomputeResult.class);
+    private final Timer runTimer;
+
+    public InsightsPrecomputeJob(WellnessDataRepository wellnessDataRepository, UserService userService,
+            AiInsightsService aiInsightsService, MeterRegistry meterRegistry,
+            @Value("${ai.insights.precompute.enabled:true}") boolean enabled,
+            @Value("${ai.insights.precompute.lookback:PT24H}") Duration lookback,
+            @Value("${ai.insights.precompute.concurrency:4}") int concurrency,
+            @Value("${ai.insights.precompute.min-interval:PT0.25S}") Duration minInterval) {
+        this.wellnessDataRepository = wellnessDataRepository;
+        this.userService = userService;
+        this.aiInsightsService = aiInsightsService;
+        this.enabled = enabled;
+        this.lookback = lookback;
+        this.concurrency = Math.max(1, concurrency);
+        this.minIntervalNanos = minInterval.toNanos();
+        this.permits = new Semaphore(this.concurrency);
+
+        for (PrecomputeResult result : PrecomputeResult.values()) {
+            results.put(result, meterRegistry.counter("ai.insights.precompute.users",
+                    "result", result.name().toLowerCase()));
+        }
+        this.runTimer = meterRegistry.timer("ai.insights.precompute.run");
+        Gauge.builder("ai.insights.precompute.candidates", candidates, AtomicLong::get).register(meterRegistry);
+        Gauge.builder("ai.insights.precompute.completed", completed, AtomicLong::get).register(meterRegistry);
+        Gauge.builder("ai.insights.precompute.throughput", this, job -> job.usersPerSecond)
+                .baseUnit("users/s").register(meterRegistry);
+        Gauge.builder("ai.insights.precompute.running", running, r -> r.get() ? 1 : 0).register(meterRegistry);
+    }
+
+    @Scheduled(cron = "${ai.insights.precompute.cron:0 0 3 * * *}")
+    public void scheduledRun() {
+        if (enabled) {
+            run();
+        }
+    }
+
+    // Number of users processed; 0 if another run is still in progress
+    public int run() {
+        if (!running.compareAndSet(false, true)) {
+            log.warn("Insights precompute already running, skipping");
+            return 0;
+        }
+        try {
+            return runTimer.record(this::precomputeAll);
+        } finally {
+            running.set(false);
+        }
+    }
+
+    private int precomputeAll() {
+        LocalDateTime since = LocalDateTime.now().minus(lookback);
+        candidates.set(wellnessDataRepository.countUsersUpdatedSince(since));
+        completed.set(0);
+        Map<PrecomputeResult, AtomicInteger> counts = new EnumMap<>(PrecomputeResult.class);
+        for (PrecomputeResult result : PrecomputeResult.values()) {
+            counts.put(result, new AtomicInteger());
+        }
+
+        long start = System.nanoTime();
+        long nextCall = start;
+        int processed = 0;
+        Long afterId = 0L;
+        while (true) {
+            List<Long> userIds = wellnessDataRepository.findUserIdsUpdatedSince(since, afterId,
+                    PageRequest.of(0, PAGE_SIZE));
+            if (userIds.isEmpty()) {
+                break;
+            }
+            for (Long userId : userIds) {
+                permits.acquireUninterruptibly();
+                long wait = nextCall - System.nanoTime();
+                if (wait > 0) {
+                    LockSupport.parkNanos(wait);
+                }
+
+                CompletableFuture<PrecomputeResult> result;
+                try {
+                    result = aiInsightsService.precompute(userService.getReference(userId));
+                } catch (RuntimeException e) {
+                    log.warn("Insights precompute failed for user {}: {}", userId, e.getMessage());
+                    result = CompletableFuture.completedFuture(PrecomputeResult.FAILED);
+                }
+                // Only pace after a real upstream call; current cache entries cost nothing
+                if (!result.isDone()) {
+                    nextCall = System.nanoTime() + minIntervalNanos;
+                }
+                result.whenComplete((outcome, error) -> {
+                    PrecomputeResult recorded = outcome != null ? outcome : PrecomputeResult.FAILED;
+                    results.get(recorded).increment();
+                    counts.get(recorded).incrementAndGet();
+                    completed.incrementAndGet();
+                    permits.release();
+                });
+                processed++;
+            }
+            afterId = userIds.get(userIds.size() - 1);
+        }
+
+        // Wait for the calls still in flight
+        permits.acquireUninterruptibly(concurrency);
+        permits.release(concurrency);
+
+        double seconds = Math.max((System.nanoTime() - start) / 1e9, 1e-3);
+        usersPerSecond = processed / seconds;
+        log.info("Precomputed insights for {} users in {}s ({} users/s): stored={}, current={}, failed={}",
+                processed, String.format("%.1f", seconds), String.format("%.2f", usersPerSecond),
+                counts.get(PrecomputeResult.STORED), counts.get(PrecomputeResult.CURRENT),
+                counts.get(PrecomputeResult.FAILED));
+        return processed;
+    }
+}
@@ -0,0 +1,146 @@
+package com.focuswell.ai;
+
+import java.time.LocalDate;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+
+import com.focuswell.dto.InsightsRequest;
+import com.focuswell.model.WellnessData;
+import com.focuswell.service.DailyBucketAggregator.RollupSeries;
+
+/**
+ * Accumulates an {@link InsightsRequest} from wellness rows fed one at a time in
+ * ascending date order. Only running sums and the last {@code maxNotes} notes are
+ * kept, so memory does not grow with the number of rows.
+ */
+public class InsightsRequestBuilder {
+
+    private final LocalDate start;
+    private final LocalDate end;
+    private final LocalDate laterHalfStart;
+    private final int maxNotes;
+    private final int maxNoteChars;
+
+    private final Deque<InsightsRequest.Note> notes = new ArrayDeque<>();
+    private int daysTracked;
+    private final Mean mood = new Mean();
+    private final Mean stress = new Mean();
+    private final Mean sleepHours = new Mean();
+    private final Mean sleepQuality = new Mean();
+    private final Mean productivity = new Mean();
+    private final Mean energy = new Mean();
+    private final Mean wellness = new Mean();
+    private final Mean earlyMood = new Mean();
+    private final Mean lateMood = new Mean();
+    private final Mean earlyWellness = new Mean();
+    private final Mean lateWellness = new Mean();
+    private RollupSeries rollups;
+    private long activeHabits;
+
+    public InsightsRequestBuilder(LocalDate start, LocalDate end, int maxNotes, int maxNoteChars) {
+        this.start = start;
+        this.end = end;
+        this.laterHalfStart = start.plusDays((end.toEpochDay() - start.toEpochDay() + 1) / 2);
+        this.maxNotes = maxNotes;
+        this.maxNoteChars = maxNoteChars;
+    }
+
+    public void accept(WellnessData data) {
+        daysTracked++;
+        Double score = data.getWellnessScore();
+        mood.add(data.getMoodScore());
+        stress.add(data.getStressLevel());
+        sleepHours.add(data.getSleepHours());
+        sleepQuality.add(data.getSleepQuality());
+        productivity.add(data.getProductivityScore());
+        energy.add(data.getEnergyLevel());
+        wellness.add(score);
+
+        boolean later = !data.getDate().isBefore(laterHalfStart);
+        (later ? lateMood : earlyMood).add(data.getMoodScore());
+        (later ? lateWellness : earlyWellness).add(score);
+
+        String text = data.getNotes();
+        if (text != null && !text.isBlank() && maxNotes > 0) {
+            InsightsRequest.Note note = new InsightsRequest.Note();
+            note.setDate(data.getDate());
+            text = text.strip();
+            note.setText(text.length() > maxNoteChars ? text.substring(0, maxNoteChars) : text);
+            notes.addLast(note);
+            if (notes.size() > maxNotes) {
+                notes.removeFirst();
+            }
+        }
+    }
+
+    public InsightsRequestBuilder rollups(RollupSeries rollups) {
+        this.rollups = rollups;
+        return this;
+    }
+
+    public InsightsRequestBuilder activeHabits(long activeHabits) {
+        this.activeHabits = activeHabits;
+        return this;
+    }
+
+    public InsightsRequest build() {
+        InsightsRequest request = new InsightsRequest();
+        request.setWindowStart(start);
+        request.setWindowEnd(end);
+
+        List<InsightsRequest.Note> newestFirst = new ArrayList<>(notes.size());
+        for (Iterator<InsightsRequest.Note> it = notes.descendingIterator(); it.hasNext();) {
+            newestFirst.add(it.next());
+        }
+        request.setNotes(newestFirst);
+
+        request.setDaysTracked(daysTracked);
+        request.setAvgMoodScore(mood.value());
+        request.setAvgStressLevel(stress.value());
+        request.setAvgSleepHours(sleepHours.value());
+        request.setAvgSleepQuality(sleepQuality.value());
+        request.setAvgProductivityScore(productivity.value());
+        request.setAvgEnergyLevel(energy.value());
+        request.setAvgWellnessScore(wellness.value());
+        request.setMoodTrend(difference(lateMood, earlyMood));
+        request.setWellnessScoreTrend(difference(lateWellness, earlyWellness));
+
+        if (rollups != null) {
+            request.setTasksDue(rollups.getTasksDue());
+            request.setTasksDueCompleted(rollups.getTasksDueCompleted());
+            request.setTaskCompletionsPerDay(rollups.getCompletionsPerDay().toDateMap());
+            request.setHabitLogsPerDay(rollups.getHabitLogsPerDay().toDateMap());
+        }
+        request.setActiveHabits(activeHabits);
+        return request;
+    }
+
+    private static Double difference(Mean later, Mean earlier) {
+        Double a = later.value();
+        Double b = earlier.value();
+        return a == null || b == null ? null : round(a - b);
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 100.0) / 100.0;
+    }
+
+    private static final class Mean {
+        private double sum;
+        private int count;
+
+        void add(Number value) {
+            if (value != null) {
+                sum += value.doubleValue();
+                count++;
+            }
+        }
+
+        Double value() {
+            return count == 0 ? null : round(sum / count);
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.focuswell.ai;
+
+import java.time.LocalDate;
+import java.util.stream.Stream;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.focuswell.dto.InsightsRequest;
+import com.focuswell.model.User;
+import com.focuswell.model.WellnessData;
+import com.focuswell.repository.WellnessDataRepository;
+import com.focuswell.service.DailyBucketAggregator;
+
+/**
+ * Builds the /analyze payload for a user from a window of recent data: wellness
+ * rows are streamed through {@link InsightsRequestBuilder}, and task and habit
+ * activity comes from the daily rollups.
+ */
+@Component
+public class InsightsRequestFactory {
+
+    private final WellnessDataRepository wellnessDataRepository;
+    private final DailyBucketAggregator bucketAggregator;
+    private final int windowDays;
+    private final int maxNotes;
+    private final int maxNoteChars;
+
+    public InsightsRequestFactory(WellnessDataRepository wellnessDataRepository,
+            DailyBucketAggregator bucketAggregator,
+            @Value("${ai.insights.window-days:30}") int windowDays,
+            @Value("${ai.insights.max-notes:20}") int maxNotes,
+            @Value("${ai.insights.max-note-chars:500}") int maxNoteChars) {
+        this.wellnessDataRepository = wellnessDataRepository;
+        this.bucketAggregator = bucketAggregator;
+        this.windowDays = Math.max(1, windowDays);
+        this.maxNotes = maxNotes;
+        this.maxNoteChars = maxNoteChars;
+    }
+
+    @Transactional(readOnly = true)
+    public InsightsRequest build(User user) {
+        LocalDate end = LocalDate.now();
+        LocalDate start = end.minusDays(windowDays - 1L);
+
+        InsightsRequestBuilder builder = new InsightsRequestBuilder(start, end, maxNotes, maxNoteChars);
+        try (Stream<WellnessData> rows = wellnessDataRepository.streamByUserAndDateBetweenOrderByDateAsc(
+                user, start, end)) {
+            rows.forEach(builder::accept);
+        }
+        return builder
+                .rollups(bucketAggregator.rollups(user, start, end))
+                .activeHabits(bucketAggregator.activeHabits(user, start, end))
+                .build();
+    }
+}
@@ -0,0 +1,154 @@
+package com.focuswell.ai;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * Case-insensitive multi-substring matcher compiled into an Aho-Corasick automaton.
+ * Construction builds a full transition table over the characters that occur in the
+ * patterns, so {@link #containsAny(CharSequence)} is a single pass over the text with
+ * one array lookup per character, however many patterns there are. Instances are
+ * immutable and safe to share.
+ */
+public final class TopicMatcher {
+
+    // Alphabet index for characters that occur in no pattern
+    private static final int OTHER = 0;
+
+    private final int[] alphabet;
+    private final int alphabetSize;
+    private final int[] transitions;
+    private final boolean[] accepting;
+    private final int patternCount;
+
+    private TopicMatcher(int[] alphabet, int alphabetSize, int[] transitions, boolean[] accepting,
+            int patternCount) {
+        this.alphabet = alphabet;
+        this.alphabetSize = alphabetSize;
+        this.transitions = transitions;
+        this.accepting = accepting;
+        this.patternCount = patternCount;
+    }
+
+    public static TopicMatcher compile(Collection<String> patterns) {
+        List<String> keys = new ArrayList<>();
+        char maxChar = 0;
+        for (String pattern : patterns) {
+            if (pattern == null || pattern.isEmpty()) {
+                continue;
+            }
+            String key = lower(pattern);
+            keys.add(key);
+            for (int i = 0; i < key.length(); i++) {
+                maxChar = (char) Math.max(maxChar, key.charAt(i));
+            }
+        }
+
+        int[] alphabet = new int[maxChar + 1];
+        int alphabetSize = 1;
+        for (String key : keys) {
+            for (int i = 0; i < key.length(); i++) {
+                if (alphabet[key.charAt(i)] == OTHER) {
+                    alphabet[key.charAt(i)] = alphabetSize++;
+                }
+            }
+        }
+
+        // Trie; -1 marks a missing edge until failure links fill it in
+        List<int[]> trie = new ArrayList<>();
+        List<Boolean> terminal = new ArrayList<>();
+        trie.add(newRow(alphabetSize));
+        terminal.add(false);
+        for (String key : keys) {
+            int state = 0;
+            for (int i = 0; i < key.length(); i++) {
+                int c = alphabet[key.charAt(i)];
+                if (trie.get(state)[c] < 0) {
+                    trie.get(state)[c] = trie.size();
+                    trie.add(newRow(alphabetSize));
+                    terminal.add(false);
+                }
+                state = trie.get(state)[c];
+            }
+            terminal.set(state, true);
+        }
+
+        // Breadth-first pass turns the trie into a DFA: a missing edge follows the
+        // failure link, and a state accepts if any suffix of it is a pattern
+        int states = trie.size();
+        int[] transitions = new int[states * alphabetSize];
+        boolean[] accepting = new boolean[states];
+        int[] fail = new int[states];
+        Deque<Integer> queue = new ArrayDeque<>();
+        accepting[0] = terminal.get(0);
+        for (int c = 0; c < alphabetSize; c++) {
+            int next = trie.get(0)[c];
+            if (next < 0) {
+                transitions[c] = 0;
+            } else {
+                transitions[c] = next;
+                fail[next] = 0;
+                queue.add(next);
+            }
+        }
+        while (!queue.isEmpty()) {
+            int state = queue.poll();
+            accepting[state] = terminal.get(state) || accepting[fail[state]];
+            for (int c = 0; c < alphabetSize; c++) {
+                int next = trie.get(state)[c];
+                if (next < 0) {
+                    transitions[state * alphabetSize + c] = transitions[fail[state] * alphabetSize + c];
+                } else {
+                    transitions[state * alphabetSize + c] = next;
+                    fail[next] = transitions[fail[state] * alphabetSize + c];
+                    queue.add(next);
+                }
+            }
+        }
+        return new TopicMatcher(alphabet, alphabetSize, transitions, accepting, keys.size());
+    }
+
+    // True if any pattern occurs in the text, ignoring case
+    public boolean containsAny(CharSequence text) {
+        if (text == null || patternCount == 0) {
+            return false;
+        }
+        int state = 0;
+        for (int i = 0; i < text.length(); i++) {
+            char ch = Character.toLowerCase(text.charAt(i));
+            int c = ch < alphabet.length ? alphabet[ch] : OTHER;
+            state = transitions[state * alphabetSize + c];
+            if (accepting[state]) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public int getPatternCount() {
+        return patternCount;
+    }
+
+    public int getStateCount() {
+        return accepting.length;
+    }
+
+    private static int[] newRow(int size) {
+        int[] row = new int[size];
+        Arrays.fill(row, -1);
+        return row;
+    }
+
+    // Per-character lowering, the same folding containsAny applies to the text
+    private static String lower(String value) {
+        StringBuilder lowered = new StringBuilder(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            lowered.append(Character.toLowerCase(value.charAt(i)));
+        }
+        return lowered.toString();
+    }
+}
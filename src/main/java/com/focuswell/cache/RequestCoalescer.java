@@ -0,0 +1,129 @@
+package com.focuswell.cache;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Single-flight execution of identical concurrent requests: while a computation for a
+ * key is running, later callers with the same key wait for it and share its result
+ * (or exception) instead of starting their own. Nothing is kept once it completes,
+ * so this is not a cache. Keys carry the user's {@link UserDataVersions} stamp, so a
+ * request made after a write never joins a computation that started before it.
+ * A follower waits at most {@code requests.coalescing.follower-timeout} for the leader
+ * and then runs the computation itself, so one hung leader cannot stall every caller.
+ */
+@Component
+public class RequestCoalescer {
+
+    public record Key(String endpoint, Long userId, long dataVersion, List<Object> params) {
+    }
+
+    private final UserDataVersions dataVersions;
+    private final MeterRegistry meterRegistry;
+    private final long followerTimeoutNanos;
+    private final Map<Key, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+
+    public RequestCoalescer(UserDataVersions dataVersions, MeterRegistry meterRegistry,
+            @Value("${requests.coalescing.follower-timeout:PT10S}") Duration followerTimeout) {
+        this.dataVersions = dataVersions;
+        this.meterRegistry = meterRegistry;
+        this.followerTimeoutNanos = followerTimeout.toNanos();
+        Gauge.builder("requests.coalescing.in-flight", inFlight, Map::size).register(meterRegistry);
+    }
+
+    public Key key(String endpoint, Long userId, Object... params) {
+        return new Key(endpoint, userId, dataVersions.current(userId), Arrays.asList(params));
+    }
+
+    // Runs on the calling thread when it leads; followers block until the leader finishes,
+    // or until the follower timeout, after which they compute on their own
+    @SuppressWarnings("unchecked")
+    public <T> T execute(Key key, Supplier<T> computation) {
+        CompletableFuture<Object> result = new CompletableFuture<>();
+        CompletableFuture<Object> running = inFlight.putIfAbsent(key, result);
+        if (running != null) {
+            counter(key, "collapsed").increment();
+            try {
+                return (T) running.get(followerTimeoutNanos, TimeUnit.NANOSECONDS);
+            } catch (ExecutionException e) {
+                throw unwrap(e.getCause());
+            } catch (TimeoutException e) {
+                counter(key, "follower-timeout").increment();
+                return computation.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while waiting for " + key.endpoint(), e);
+            }
+        }
+        counter(key, "computed").increment();
+        try {
+            T value = computation.get();
+            result.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            result.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, result);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> CompletableFuture<T> executeAsync(Key key, Supplier<CompletableFuture<T>> computation) {
+        CompletableFuture<Object> result = new CompletableFuture<>();
+        CompletableFuture<Object> running = inFlight.putIfAbsent(key, result);
+        if (running != null) {
+            counter(key, "collapsed").increment();
+            return (CompletableFuture<T>) running;
+        }
+        counter(key, "computed").increment();
+        CompletableFuture<T> started;
+        try {
+            started = computation.get();
+        } catch (RuntimeException e) {
+            started = CompletableFuture.failedFuture(e);
+        }
+        started.whenComplete((value, error) -> {
+            // Remove before completing, so a caller woken by the result cannot join it again
+            inFlight.remove(key, result);
+            if (error != null) {
+                result.completeExceptionally(error instanceof CompletionException && error.getCause() != null
+                        ? error.getCause()
+                        : error);
+            } else {
+                result.complete(value);
+            }
+        });
+        return (CompletableFuture<T>) result;
+    }
+
+    private Counter counter(Key key, String result) {
+        return meterRegistry.counter("requests.coalescing", "endpoint", key.endpoint(), "result", result);
+    }
+
+    private static RuntimeException unwrap(Throwable cause) {
+        if (cause instanceof RuntimeException runtime) {
+            return runtime;
+        }
+        if (cause instanceof Error error) {
+            throw error;
+        }
+        return new CompletionException(cause);
+    }
+}
@@ -0,0 +1,80 @@
+package com.focuswell.cache;
+
+import java.time.Duration;
+import java.util.Optional;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.focuswell.model.User;
+import com.focuswell.repository.UserRepository;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Read-through cache of {@link UserSnapshot}s keyed by id and by username. Snapshots
+ * are immutable, so sharing them between requests is safe; call {@link #evict(User)}
+ * after every write to a user.
+ */
+@Component
+public class UserCache {
+
+    private final UserRepository userRepository;
+    private final TtlCache<Long, UserSnapshot> byId;
+    private final TtlCache<String, UserSnapshot> byUsername;
+
+    public UserCache(UserRepository userRepository, MeterRegistry meterRegistry,
+            @Value("${user.cache.max-size:10000}") int maxSize,
+            @Value("${user.cache.ttl:PT5M}") Duration ttl) {
+        this.userRepository = userRepository;
+        this.byId = new TtlCache<>(maxSize, ttl);
+        this.byUsername = new TtlCache<>(maxSize, ttl);
+        bindMetrics(meterRegistry, "users.byId", byId);
+        bindMetrics(meterRegistry, "users.byUsername", byUsername);
+    }
+
+    public Optional<UserSnapshot> findById(Long id) {
+        UserSnapshot user = byId.getIfPresent(id);
+        if (user == null) {
+            user = userRepository.findById(id).map(this::store).orElse(null);
+        }
+        return Optional.ofNullable(user);
+    }
+
+    public Optional<UserSnapshot> findByUsername(String username) {
+        UserSnapshot user = byUsername.getIfPresent(username);
+        if (user == null) {
+            user = userRepository.findByUsername(username).map(this::store).orElse(null);
+        }
+        return Optional.ofNullable(user);
+    }
+
+    public void evict(User user) {
+        if (user.getId() != null) {
+            byId.invalidate(user.getId());
+        }
+        if (user.getUsername() != null) {
+            byUsername.invalidate(user.getUsername());
+        }
+    }
+
+    private UserSnapshot store(User user) {
+        UserSnapshot snapshot = UserSnapshot.of(user);
+        byId.put(snapshot.id(), snapshot);
+        byUsername.put(snapshot.username(), snapshot);
+        return snapshot;
+    }
+
+    private static void bindMetrics(MeterRegistry registry, String name, TtlCache<?, ?> cache) {
+        FunctionCounter.builder("cache.gets", cache, TtlCache::hitCount)
+                .tag("cache", name).tag("result", "hit").register(registry);
+        FunctionCounter.builder("cache.gets", cache, TtlCache::missCount)
+                .tag("cache", name).tag("result", "miss").register(registry);
+        FunctionCounter.builder("cache.evictions", cache, TtlCache::evictionCount)
+                .tag("cache", name).register(registry);
+        Gauge.builder("cache.size", cache, TtlCache::size)
+                .tag("cache", name).register(registry);
+    }
+}
@@ -0,0 +1,48 @@
+package com.focuswell.cache;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Per-user data-version stamps for caches of derived results. Writers call
+ * {@link #bump(Long)}; a cached value is current only while the version it was
+ * computed from still matches. Versions live in memory and start at 0 on boot,
+ * which is safe because the caches keyed by them are in memory too.
+ */
+@Component
+public class UserDataVersions {
+
+    private final Map<Long, AtomicLong> versions = new ConcurrentHashMap<>();
+
+    public long current(Long userId) {
+        AtomicLong version = versions.get(userId);
+        return version != null ? version.get() : 0L;
+    }
+
+    // Inside a transaction the bump happens after commit, so no reader can compute
+    // from the old data and store it under the new version
+    public void bump(Long userId) {
+        if (userId == null) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    increment(userId);
+                }
+            });
+        } else {
+            increment(userId);
+        }
+    }
+
+    private void increment(Long userId) {
+        versions.computeIfAbsent(userId, id -> new AtomicLong()).incrementAndGet();
+    }
+}
@@ -0,0 +1,23 @@
+package com.focuswell.cache;
+
+import java.util.List;
+
+import com.focuswell.model.User;
+
+/**
+ * Immutable view of the fields requests look a user up for. It is what {@link UserCache}
+ * shares between threads; load the {@link User} entity for anything else.
+ */
+public record UserSnapshot(Long id, String username, List<String> roles, boolean active) {
+
+    // Accounts have no stored roles; every one is a plain user
+    private static final List<String> DEFAULT_ROLES = List.of("ROLE_USER");
+
+    public UserSnapshot {
+        roles = List.copyOf(roles);
+    }
+
+    public static UserSnapshot of(User user) {
+        return new UserSnapshot(user.getId(), user.getUsername(), DEFAULT_ROLES, user.isActive());
+    }
+}
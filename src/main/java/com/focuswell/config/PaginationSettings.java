@@ -0,0 +1,26 @@
+package com.focuswell.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+// Page sizes for the cursor-paginated history endpoints
+@Component
+public class PaginationSettings {
+
+  private final int defaultSize;
+  private final int maxSize;
+
+  public PaginationSettings(@Value("${pagination.default-size:50}") int defaultSize,
+      @Value("${pagination.max-size:500}") int maxSize) {
+    this.maxSize = Math.max(1, maxSize);
+    this.defaultSize = Math.min(Math.max(1, defaultSize), this.maxSize);
+  }
+
+  // The requested size clamped to [1, max-size], or the default when none was given
+  public int pageSize(Integer requested) {
+    if (requested == null) {
+      return defaultSize;
+    }
+    return Math.min(Math.max(1, requested), maxSize);
+  }
+}
@@ -0,0 +1,156 @@
+package com.focuswell.config;
+
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Makes sure wellness_data has its unique (user_id, date) key before the application
+ * serves requests; the bulk import's ON DUPLICATE KEY UPDATE and the stats streak rely
+ * on it, and ddl-auto only logs a warning when it cannot add it. A missing key is added
+ * when no duplicate rows exist. If some do, startup fails with a report of them, unless
+ * {@code wellness.unique-key.migrate-duplicates} is on: then every row but the newest of
+ * each (user, date) is copied to wellness_data_duplicates, logged by id, and deleted
+ * before the key is added.
+ */
+@Component
+@Slf4j
+public class WellnessUniqueKeyMigration implements InitializingBean {
+
+  private static final String TABLE = "wellness_data";
+  private static final String BACKUP_TABLE = "wellness_data_duplicates";
+  private static final Set<String> KEY_COLUMNS = Set.of("user_id", "date");
+  private static final int BATCH = 500;
+  private static final int MAX_REPORTED = 50;
+
+  // Rows with a newer row for the same (user, date): the ones a migration removes
+  private static final String SUPERSEDED_SQL = "SELECT w.id, w.user_id, w.date FROM wellness_data w WHERE EXISTS "
+      + "(SELECT 1 FROM wellness_data newer WHERE newer.user_id = w.user_id AND newer.date = w.date "
+      + "AND newer.id > w.id) ORDER BY w.user_id, w.date, w.id";
+
+  private final JdbcTemplate jdbcTemplate;
+  private final TransactionTemplate transactionTemplate;
+  private final boolean migrateDuplicates;
+
+  // The factory is injected only so this runs after Hibernate has updated the schema
+  public WellnessUniqueKeyMigration(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate,
+      EntityManagerFactory entityManagerFactory,
+      @Value("${wellness.unique-key.migrate-duplicates:false}") boolean migrateDuplicates) {
+    this.jdbcTemplate = jdbcTemplate;
+    this.transactionTemplate = transactionTemplate;
+    this.migrateDuplicates = migrateDuplicates;
+  }
+
+  private record Superseded(long id, long userId, Object date) {
+  }
+
+  @Override
+  public void afterPropertiesSet() {
+    if (hasUniqueKey()) {
+      return;
+    }
+    List<Superseded> superseded = jdbcTemplate.query(SUPERSEDED_SQL,
+        (rs, i) -> new Superseded(rs.getLong(1), rs.getLong(2), rs.getObject(3)));
+    if (!superseded.isEmpty()) {
+      if (!migrateDuplicates) {
+        throw new IllegalStateException(report(superseded));
+      }
+      migrate(superseded);
+    }
+    jdbcTemplate.execute("ALTER TABLE wellness_data ADD CONSTRAINT uk_wellness_user_date UNIQUE (user_id, date)");
+    if (!hasUniqueKey()) {
+      throw new IllegalStateException("Could not add the unique (user_id, date) key to wellness_data");
+    }
+    log.info("Added the unique (user_id, date) key to wellness_data");
+  }
+
+  boolean hasUniqueKey() {
+    return Boolean.TRUE.equals(jdbcTemplate.execute((Connection connection) -> {
+      DatabaseMetaData meta = connection.getMetaData();
+      String table = meta.storesUpperCaseIdentifiers() ? TABLE.toUpperCase() : TABLE;
+      Map<String, Set<String>> uniqueIndexes = new HashMap<>();
+      try (ResultSet rs = meta.getIndexInfo(connection.getCatalog(), connection.getSchema(), table, true, false)) {
+        while (rs.next()) {
+          String index = rs.getString("INDEX_NAME");
+          String column = rs.getString("COLUMN_NAME");
+          if (index != null && column != null) {
+            uniqueIndexes.computeIfAbsent(index, name -> new HashSet<>()).add(column.toLowerCase());
+          }
+        }
+      }
+      return uniqueIndexes.containsValue(KEY_COLUMNS);
+    }));
+  }
+
+  private static String report(List<Superseded> superseded) {
+    StringBuilder report = new StringBuilder("wellness_data has ").append(superseded.size())
+        .append(" rows that duplicate a newer row for the same (user_id, date), so its unique key cannot be ")
+        .append("added. Resolve them, or set wellness.unique-key.migrate-duplicates=true to back them up to ")
+        .append(BACKUP_TABLE).append(" and delete them. Superseded rows (id user_id date):");
+    for (Superseded row : superseded.subList(0, Math.min(MAX_REPORTED, superseded.size()))) {
+      report.append("\n  ").append(row.id()).append(' ').append(row.userId()).append(' ').append(row.date());
+    }
+    if (superseded.size() > MAX_REPORTED) {
+      report.append("\n  ... and ").append(superseded.size() - MAX_REPORTED).append(" more");
+    }
+    return report.toString();
+  }
+
+  // Copies the superseded rows to the backup table, then deletes them and points the
+  // rollup at the score of the row that was kept, all in one transaction
+  private void migrate(List<Superseded> superseded) {
+    List<Long> ids = new ArrayList<>(superseded.size());
+    Set<List<Object>> days = new HashSet<>();
+    for (Superseded row : superseded) {
+      ids.add(row.id());
+      days.add(List.of(row.userId(), row.date()));
+    }
+    if (!tableExists(BACKUP_TABLE)) {
+      jdbcTemplate.execute("CREATE TABLE " + BACKUP_TABLE + " AS SELECT * FROM wellness_data WHERE 1 = 0");
+    }
+    transactionTemplate.executeWithoutResult(status -> {
+      for (int from = 0; from < ids.size(); from += BATCH) {
+        List<Long> batch = ids.subList(from, Math.min(from + BATCH, ids.size()));
+        String in = String.join(", ", Collections.nCopies(batch.size(), "?"));
+        jdbcTemplate.update("INSERT INTO " + BACKUP_TABLE + " SELECT * FROM wellness_data WHERE id IN (" + in + ")",
+            batch.toArray());
+        jdbcTemplate.update("DELETE FROM wellness_data WHERE id IN (" + in + ")", batch.toArray());
+        log.warn("Moved duplicate wellness_data rows to {}: ids {}", BACKUP_TABLE, batch);
+      }
+      jdbcTemplate.batchUpdate("UPDATE daily_user_rollup r SET wellness_score = (SELECT w.wellness_score "
+          + "FROM wellness_data w WHERE w.user_id = r.user_id AND w.date = r.date) "
+          + "WHERE r.user_id = ? AND r.date = ?", days, days.size(), (ps, day) -> {
+            ps.setLong(1, (Long) day.get(0));
+            ps.setObject(2, day.get(1));
+          });
+    });
+    log.warn("Moved {} duplicate wellness_data rows across {} user days to {}", ids.size(), days.size(),
+        BACKUP_TABLE);
+  }
+
+  private boolean tableExists(String name) {
+    return Boolean.TRUE.equals(jdbcTemplate.execute((Connection connection) -> {
+      DatabaseMetaData meta = connection.getMetaData();
+      String table = meta.storesUpperCaseIdentifiers() ? name.toUpperCase() : name;
+      try (ResultSet rs = meta.getTables(connection.getCatalog(), connection.getSchema(), table, null)) {
+        return rs.next();
+      }
+    }));
+  }
+}
@@ -1,85 +1,186 @@
 package com.focuswell.controller;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Optional;
-import org.springframework.beans.factory.annotation.Value;
+import java.util.concurrent.CompletableFuture;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
-import org.springframework.web.client.RestTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
-import com.focuswell.model.HabitLog;
-import com.focuswell.model.Task;
+import com.focuswell.ai.AiInsightsService;
+import com.focuswell.ai.AiServiceClient;
+import com.focuswell.ai.ChatSession;
+import com.focuswell.ai.ChatSessionStore;
+import com.focuswell.ai.ChatTopicFilter;
 import com.focuswell.model.User;
-import com.focuswell.model.WellnessData;
-import com.focuswell.repository.HabitLogRepository;
 import com.focuswell.security.CustomUserDetails;
-import com.focuswell.service.TaskService;
 import com.focuswell.service.UserService;
-import com.focuswell.service.WellnessDataService;
 
 @RestController
 @RequestMapping("/api/ai")
 public class AiInsightsController {
 
   @Autowired
-  private WellnessDataService wellnessDataService;
+  private UserService userService;
   @Autowired
-  private TaskService taskService;
+  private AiInsightsService aiInsightsService;
   @Autowired
-  private UserService userService;
+  private AiServiceClient aiServiceClient;
   @Autowired
-  private HabitLogRepository habitLogRepository;
-  @Value("${AI_SERVICE_URL}")
-  private String aiServiceBase;
+  private ChatSessionStore chatSessionStore;
+  @Autowired
+  private ChatTopicFilter chatTopicFilter;
+  @Value("${ai.chat.stream-timeout:PT2M}")
+  private Duration streamTimeout;
 
+  // AI calls complete asynchronously so the servlet thread is released while waiting
   @PostMapping("/insights")
-  public ResponseEntity<?> getAiInsights(@AuthenticationPrincipal CustomUserDetails userDetails) {
-    Long userId = userDetails.getId();
-    User user = userService.findById(userId);
-
-    // 1. Gather user data
-    List<WellnessData> wellnessData = wellnessDataService.getAllWellnessData(userId);
-    List<Task> tasks = taskService.getAllTasks(user);
-    List<HabitLog> habitLogs = habitLogRepository.findByUser(user);
+  public CompletableFuture<ResponseEntity<Map<String, Object>>> getAiInsights(@AuthenticationPrincipal CustomUserDetails userDetails) {
+    User user = userService.getReference(userDetails.getId());
 
-    // 2. Build a JSON object to send to Python AI service
-    Map<String, Object> aiRequest = new HashMap<>();
-    aiRequest.put("wellnessData", wellnessData);
-    aiRequest.put("tasks", tasks);
-    aiRequest.put("habitLogs", habitLogs);
-
-    // 3. Send to Python AI service (configurable URL)
-    RestTemplate restTemplate = new RestTemplate();
-    //String aiServiceBase = Optional.ofNullable(System.getenv("AI_SERVICE_URL")).orElse("http://localhost:5001");
-    String aiServiceUrl = aiServiceBase + "/analyze";
-    Map<String, Object> aiResponse = restTemplate.postForObject(aiServiceUrl, aiRequest, Map.class);
-
-    // 4. Return AI insights to frontend
-    return ResponseEntity.ok(aiResponse);
+    // Served from cache until the user's data changes; failures return an uncached fallback body
+    return aiInsightsService.getInsights(user).thenApply(insights -> ResponseEntity.ok()
+        .header("X-Insights-Cache", insights.cache().name())
+        .body(insights.body()));
   }
 
+  // Clients send {message, sessionId}; context is kept server-side and the reply carries the
+  // sessionId to send next time. A client-supplied history is still accepted but not stored.
   @PostMapping("/chat")
-  public ResponseEntity<?> chatWithAi(@AuthenticationPrincipal CustomUserDetails userDetails,
+  public CompletableFuture<ResponseEntity<Map<String, Object>>> chatWithAi(
+      @AuthenticationPrincipal CustomUserDetails userDetails,
       @RequestBody Map<String, Object> payload) {
     String message = (String) payload.get("message");
+    ChatSession session = resolveSession(userDetails.getId(), payload);
+    // Off-topic messages are answered here, without a call to the AI service
+    CompletableFuture<Map<String, Object>> answer = chatTopicFilter.isOnTopic(message)
+        ? aiServiceClient.chat(chatRequest(message, session))
+        : CompletableFuture.completedFuture(chatTopicFilter.offTopicReply());
+    return answer.thenApply(reply -> {
+      Map<String, Object> body = new HashMap<>(reply);
+      if (!Boolean.TRUE.equals(reply.get("fallback")) && !reply.containsKey("offTopic")) {
+        recordTurn(userDetails.getId(), session, message, (String) reply.get("reply"));
+      }
+      if (session.getId() != null) {
+        body.put("sessionId", session.getId());
+      }
+      return ResponseEntity.ok(body);
+    });
+  }
+
+  @DeleteMapping("/chat/sessions/{sessionId}")
+  public ResponseEntity<Void> endChatSession(
+      @AuthenticationPrincipal CustomUserDetails userDetails,
+      @PathVariable String sessionId) {
+    chatSessionStore.remove(userDetails.getId(), sessionId);
+    return ResponseEntity.noContent().build();
+  }
+
+  // Same request as /chat, answered as SSE "chunk" events and a final "done" event. If the
+  // stream cannot start, the blocking /chat reply is sent as a single chunk instead.
+  @PostMapping(value = "/chat/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+  public SseEmitter streamChat(
+      @AuthenticationPrincipal CustomUserDetails userDetails,
+      @RequestBody Map<String, Object> payload) {
+    Long userId = userDetails.getId();
+    String message = (String) payload.get("message");
+    ChatSession session = resolveSession(userId, payload);
+    SseEmitter emitter = new SseEmitter(streamTimeout.toMillis());
+    if (!chatTopicFilter.isOnTopic(message)) {
+      finish(emitter, ChatTopicFilter.OFF_TOPIC_REPLY, false, session.getId());
+      return emitter;
+    }
+    Map<String, Object> aiRequest = chatRequest(message, session);
+    // Chunks arrive one at a time from the client's subscriber, so no locking is needed
+    StringBuilder reply = new StringBuilder();
+
+    CompletableFuture<Void> stream = aiServiceClient.chatStream(aiRequest, chunk -> {
+      reply.append(chunk);
+      send(emitter, "chunk", Map.of("text", chunk));
+    });
+    stream.whenComplete((ignored, error) -> {
+      if (error == null) {
+        recordTurn(userId, session, message, reply.toString());
+        finish(emitter, null, false, session.getId());
+      } else if (!stream.isCancelled() && reply.length() == 0) {
+        aiServiceClient.chat(aiRequest).thenAccept(fallbackReply -> {
+          boolean fallback = Boolean.TRUE.equals(fallbackReply.get("fallback"));
+          if (!fallback) {
+            recordTurn(userId, session, message, (String) fallbackReply.get("reply"));
+          }
+          finish(emitter, String.valueOf(fallbackReply.get("reply")), fallback, session.getId());
+        });
+      } else {
+        emitter.complete();
+      }
+    });
+
+    // Stop reading from the AI service once the browser is gone
+    emitter.onTimeout(() -> stream.cancel(false));
+    emitter.onError(e -> stream.cancel(false));
+    emitter.onCompletion(() -> stream.cancel(false));
+    return emitter;
+  }
+
+  private ChatSession resolveSession(Long userId, Map<String, Object> payload) {
+    Object sessionId = payload.get("sessionId");
     List<Map<String, Object>> history = (List<Map<String, Object>>) payload.get("history");
+    return chatSessionStore.resolve(userId, sessionId == null ? null : sessionId.toString(), history);
+  }
+
+  // The upstream gets the session's bounded window plus a summary of anything older
+  private static Map<String, Object> chatRequest(String message, ChatSession session) {
     Map<String, Object> aiRequest = new HashMap<>();
     aiRequest.put("message", message);
-    aiRequest.put("history", history);
-    RestTemplate restTemplate = new RestTemplate();
-    // String aiServiceBase = Optional.ofNullable(System.getenv("AI_SERVICE_URL")).orElse("http://localhost:5001");
-    String aiServiceUrl = aiServiceBase + "/chat";
-    Map<String, Object> aiResponse = restTemplate.postForObject(aiServiceUrl, aiRequest, Map.class);
-    return ResponseEntity.ok(aiResponse);
+    aiRequest.put("history", session.getHistory());
+    aiRequest.put("summary", session.getSummary());
+    return aiRequest;
+  }
+
+  private void recordTurn(Long userId, ChatSession session, String message, String reply) {
+    session.append(ChatSession.USER, message);
+    session.append(ChatSession.AI, reply);
+    chatSessionStore.touch(userId, session);
+  }
+
+  private static void finish(SseEmitter emitter, String text, boolean fallback, String sessionId) {
+    try {
+      if (text != null) {
+        send(emitter, "chunk", Map.of("text", text));
+      }
+      Map<String, Object> done = new HashMap<>();
+      done.put("fallback", fallback);
+      if (sessionId != null) {
+        done.put("sessionId", sessionId);
+      }
+      send(emitter, "done", done);
+      emitter.complete();
+    } catch (UncheckedIOException e) {
+      emitter.completeWithError(e);
+    }
+  }
+
+  private static void send(SseEmitter emitter, String event, Object data) {
+    try {
+      emitter.send(SseEmitter.event().name(event).data(data, MediaType.APPLICATION_JSON));
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
   }
 
   @GetMapping("/chat")
@@ -2,26 +2,24 @@ package com.focuswell.controller;
 
 import java.security.Principal;
 import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
 import java.util.HashMap;
-import java.util.HashSet;
-import java.util.List;
 import java.util.Map;
-import java.util.Set;
 
 import org.springframework.format.annotation.DateTimeFormat;
-import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
-import org.springframework.web.server.ResponseStatusException;
 
-import com.focuswell.model.HabitLog;
-import com.focuswell.model.Task;
+import com.focuswell.cache.RequestCoalescer;
+import com.focuswell.exception.InvalidDateRangeException;
 import com.focuswell.model.User;
-import com.focuswell.repository.HabitLogRepository;
-import com.focuswell.repository.TaskRepository;
-import com.focuswell.repository.UserRepository;
+import com.focuswell.service.DailyBucketAggregator;
+import com.focuswell.service.DailyBucketAggregator.RollupSeries;
+import com.focuswell.service.DailyBucketAggregator.TaskActivity;
+import com.focuswell.service.DailyBuckets;
+import com.focuswell.service.UserService;
 
 import lombok.RequiredArgsConstructor;
 
@@ -30,85 +28,53 @@ import lombok.RequiredArgsConstructor;
 @RequiredArgsConstructor
 public class AnalyticsController {
 
-    private final HabitLogRepository habitLogRepository;
-    private final TaskRepository taskRepository;
-    private final UserRepository userRepository;
+    // Longest window any endpoint buckets by day; longer requests get a 400
+    static final int MAX_RANGE_DAYS = 366;
+
+    private final DailyBucketAggregator bucketAggregator;
+    private final UserService userService;
+    // Dashboards open in several tabs, and retries, send identical requests at once
+    private final RequestCoalescer coalescer;
 
     @GetMapping("/summary")
     public Map<String, Object> getSummary(
             Principal principal,
             @RequestParam(defaultValue = "30") int days) {
-        String username = principal.getName();
-        User user = userRepository.findByUsername(username)
-                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "User not found"));
+        checkDays(days);
+        User user = userService.currentUser(principal);
+        return coalescer.execute(coalescer.key("analytics.summary", user.getId(), days),
+                () -> summary(user, days));
+    }
 
+    private Map<String, Object> summary(User user, int days) {
         LocalDate endDate = LocalDate.now();
         LocalDate startDate = endDate.minusDays(days - 1); // inclusive
 
-        // Get task statistics (use dueDate instead of createdAt)
-        List<Task> tasks = taskRepository.findByUserAndDueDateBetween(user, startDate, endDate);
-        long totalTasks = tasks.size();
-        long completedTasks = tasks.stream().filter(Task::isCompleted).count();
+        RollupSeries rollups = bucketAggregator.rollups(user, startDate, endDate);
 
         // Get habit statistics
-        List<HabitLog> habitLogs = habitLogRepository.findByUserAndLogDateBetween(user, startDate, endDate);
-        long totalHabitLogs = habitLogs.size();
-        long activeHabits = habitLogRepository.findByUserAndLogDateBetween(user, startDate, endDate)
-                .stream().map(log -> log.getHabit().getId()).distinct().count();
+        DailyBuckets logsByDay = rollups.getHabitLogsPerDay();
+        long activeHabits = bucketAggregator.activeHabits(user, startDate, endDate);
 
         // Consistency score: days with at least one habit log / total days
-        Map<LocalDate, Long> logsByDay = new java.util.HashMap<>();
-        for (HabitLog log : habitLogs) {
-            logsByDay.put(log.getLogDate(), logsByDay.getOrDefault(log.getLogDate(), 0L) + 1);
-        }
-        long daysWithHabits = logsByDay.size();
+        long daysWithHabits = logsByDay.daysWithAny();
         double consistencyScore = days > 0 ? (double) daysWithHabits / days : 0.0;
 
         // Best and worst day (by number of habit logs)
-        String bestDay = null;
-        String worstDay = null;
-        long max = 0;
-        long min = Long.MAX_VALUE;
-        for (Map.Entry<LocalDate, Long> entry : logsByDay.entrySet()) {
-            long count = entry.getValue();
-            if (count > max) {
-                max = count;
-                bestDay = entry.getKey().toString();
-            }
-            if (count < min) {
-                min = count;
-                worstDay = entry.getKey().toString();
-            }
-        }
-        if (min == Long.MAX_VALUE)
-            min = 0;
-
-        // Tasks this period (array of completed tasks per day)
-        List<Integer> tasksThisWeek = new java.util.ArrayList<>();
-        for (int i = days - 1; i >= 0; i--) {
-            LocalDate d = endDate.minusDays(i);
-            long count = tasks.stream().filter(
-                    t -> t.isCompleted() && t.getCompletedAt() != null && t.getCompletedAt().toLocalDate().equals(d))
-                    .count();
-            tasksThisWeek.add((int) count);
-        }
-        // Habits this period (array of habit logs per day)
-        List<Integer> habitsThisWeek = new java.util.ArrayList<>();
-        for (int i = days - 1; i >= 0; i--) {
-            LocalDate d = endDate.minusDays(i);
-            long count = habitLogs.stream().filter(log -> log.getLogDate().equals(d)).count();
-            habitsThisWeek.add((int) count);
-        }
+        int best = logsByDay.bestIndex();
+        int worst = logsByDay.worstIndex();
 
         Map<String, Object> result = new HashMap<>();
-        result.put("totalTasks", totalTasks);
-        result.put("completedTasks", completedTasks);
+        // Task statistics (use dueDate instead of createdAt)
+        result.put("totalTasks", rollups.getTasksDue());
+        result.put("completedTasks", rollups.getTasksDueCompleted());
         result.put("activeHabits", activeHabits);
         result.put("consistencyScore", consistencyScore);
-        result.put("bestDay", bestDay);
-        result.put("worstDay", worstDay);
-        result.put("tasksThisWeek", tasksThisWeek);
-        result.put("habitsThisWeek", habitsThisWeek);
+        result.put("bestDay", best >= 0 ? logsByDay.dateAt(best).toString() : null);
+        result.put("worstDay", worst >= 0 ? logsByDay.dateAt(worst).toString() : null);
+        // Completed tasks and habit logs per day, oldest first
+        result.put("tasksThisWeek", rollups.getCompletionsPerDay().toList());
+        result.put("habitsThisWeek", logsByDay.toList());
         result.put("period", "Last " + days + " days");
         return result;
     }
@@ -117,29 +83,22 @@ public class AnalyticsController {
     public Map<String, Object> getTaskCompletion(
             Principal principal,
             @RequestParam(defaultValue = "7") int days) {
-        String username = principal.getName();
-        User user = userRepository.findByUsername(username)
-                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "User not found"));
+        checkDays(days);
+        User user = userService.currentUser(principal);
+        return coalescer.execute(coalescer.key("analytics.task-completion", user.getId(), days),
+                () -> taskCompletion(user, days));
+    }
 
+    private Map<String, Object> taskCompletion(User user, int days) {
         LocalDate endDate = LocalDate.now();
         LocalDate startDate = endDate.minusDays(days);
 
-        List<Task> tasks = taskRepository.findByUserAndCreatedAtBetween(user, startDate.atStartOfDay(),
-                endDate.atTime(23, 59, 59));
-
-        Map<String, Long> completionByDay = new HashMap<>();
-        for (Task task : tasks) {
-            if (task.isCompleted() && task.getCompletedAt() != null) {
-                LocalDate completionDate = task.getCompletedAt().toLocalDate();
-                completionByDay.put(completionDate.toString(),
-                        completionByDay.getOrDefault(completionDate.toString(), 0L) + 1);
-            }
-        }
+        TaskActivity tasks = bucketAggregator.tasksCreatedBetween(user, startDate, endDate);
 
         return Map.of(
-                "completionByDay", completionByDay,
-                "totalTasks", tasks.size(),
-                "completedTasks", tasks.stream().filter(Task::isCompleted).count(),
+                "completionByDay", tasks.getCompletionsPerDay().toDateMap(),
+                "totalTasks", tasks.getTotalTasks(),
+                "completedTasks", tasks.getCompletedTasks(),
                 "period", days + " days");
     }
 
@@ -147,27 +106,24 @@ public class AnalyticsController {
     public Map<String, Object> getHabitConsistency(
             Principal principal,
             @RequestParam(defaultValue = "7") int days) {
-        String username = principal.getName();
-        User user = userRepository.findByUsername(username)
-                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "User not found"));
+        checkDays(days);
+        User user = userService.currentUser(principal);
+        return coalescer.execute(coalescer.key("analytics.habit-consistency", user.getId(), days),
+                () -> habitConsistency(user, days));
+    }
 
+    private Map<String, Object> habitConsistency(User user, int days) {
         LocalDate endDate = LocalDate.now();
         LocalDate startDate = endDate.minusDays(days);
 
-        List<HabitLog> logs = habitLogRepository.findByUserAndLogDateBetween(user, startDate, endDate);
-
-        Map<String, Long> consistencyByDay = new HashMap<>();
-        for (HabitLog log : logs) {
-            String dateStr = log.getLogDate().toString();
-            consistencyByDay.put(dateStr, consistencyByDay.getOrDefault(dateStr, 0L) + 1);
-        }
+        DailyBuckets logsByDay = bucketAggregator.rollups(user, startDate, endDate).getHabitLogsPerDay();
 
         long totalDays = days;
-        long daysWithHabits = consistencyByDay.size();
+        long daysWithHabits = logsByDay.daysWithAny();
         double consistencyRate = totalDays > 0 ? (double) daysWithHabits / totalDays : 0.0;
 
         return Map.of(
-                "consistencyByDay", consistencyByDay,
+                "consistencyByDay", logsByDay.toDateMap(),
                 "totalDays", totalDays,
                 "daysWithHabits", daysWithHabits,
                 "consistencyRate", String.format("%.2f", consistencyRate),
@@ -179,22 +135,21 @@ public class AnalyticsController {
             Principal principal,
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
-        String username = principal.getName();
-        User user = userRepository.findByUsername(username).orElseThrow();
-
-        List<HabitLog> logs = habitLogRepository.findByUserAndLogDateBetween(user, startDate, endDate);
+        checkRange(startDate, endDate);
+        User user = userService.currentUser(principal);
+        return coalescer.execute(coalescer.key("analytics.consistency", user.getId(), startDate, endDate),
+                () -> consistency(user, startDate, endDate));
+    }
 
-        // Use a Set to track distinct days
-        Set<LocalDate> loggedDays = new HashSet<>();
-        for (HabitLog log : logs) {
-            loggedDays.add(log.getLogDate());
-        }
+    private Map<String, Object> consistency(User user, LocalDate startDate, LocalDate endDate) {
+        DailyBuckets logsByDay = bucketAggregator.rollups(user, startDate, endDate).getHabitLogsPerDay();
 
-        long totalDays = startDate.until(endDate).getDays() + 1;
-        double consistency = (double) loggedDays.size() / totalDays;
+        long totalDays = logsByDay.size();
+        int daysWithHabits = logsByDay.daysWithAny();
+        double consistency = totalDays > 0 ? (double) daysWithHabits / totalDays : 0.0;
 
         return Map.of(
-                "daysWithHabits", loggedDays.size(),
+                "daysWithHabits", daysWithHabits,
                 "totalDays", totalDays,
                 "consistency", String.format("%.2f", consistency));
     }
@@ -204,37 +159,36 @@ public class AnalyticsController {
             Principal principal,
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
-        String username = principal.getName();
-        User user = userRepository.findByUsername(username).orElseThrow();
+        checkRange(startDate, endDate);
+        User user = userService.currentUser(principal);
+        return coalescer.execute(coalescer.key("analytics.best-worst-days", user.getId(), startDate, endDate),
+                () -> bestAndWorstDays(user, startDate, endDate));
+    }
 
-        List<HabitLog> logs = habitLogRepository.findByUserAndLogDateBetween(user, startDate, endDate);
+    private Map<String, Object> bestAndWorstDays(User user, LocalDate startDate, LocalDate endDate) {
+        DailyBuckets logsByDay = bucketAggregator.rollups(user, startDate, endDate).getHabitLogsPerDay();
+        int best = logsByDay.bestIndex();
+        int worst = logsByDay.worstIndex();
 
-        Map<LocalDate, Long> countByDate = new HashMap<>();
-        for (HabitLog log : logs) {
-            countByDate.put(log.getLogDate(), countByDate.getOrDefault(log.getLogDate(), 0L) + 1);
-        }
+        return Map.of(
+                "bestDay", best >= 0 ? logsByDay.dateAt(best).toString() : "No data",
+                "bestDayLogs", best >= 0 ? (long) logsByDay.get(best) : 0L,
+                "worstDay", worst >= 0 ? logsByDay.dateAt(worst).toString() : "No data",
+                "worstDayLogs", worst >= 0 ? (long) logsByDay.get(worst) : 0L);
+    }
 
-        String bestDay = null;
-        String worstDay = null;
-        long max = 0;
-        long min = Long.MAX_VALUE;
-
-        for (Map.Entry<LocalDate, Long> entry : countByDate.entrySet()) {
-            long count = entry.getValue();
-            if (count > max) {
-                max = count;
-                bestDay = entry.getKey().toString();
-            }
-            if (count < min) {
-                min = count;
-                worstDay = entry.getKey().toString();
-            }
+    private static void checkDays(int days) {
+        if (days < 1 || days > MAX_RANGE_DAYS) {
+            throw new InvalidDateRangeException("days must be between 1 and " + MAX_RANGE_DAYS);
         }
+    }
 
-        return Map.of(
-                "bestDay", bestDay != null ? bestDay : "No data",
-                "bestDayLogs", max,
-                "worstDay", worstDay != null ? worstDay : "No data",
-                "worstDayLogs", min == Long.MAX_VALUE ? 0 : min);
+    private static void checkRange(LocalDate startDate, LocalDate endDate) {
+        if (endDate.isBefore(startDate)) {
+            throw new InvalidDateRangeException("endDate must not be before startDate");
+        }
+        if (ChronoUnit.DAYS.between(startDate, endDate) + 1 > MAX_RANGE_DAYS) {
+            throw new InvalidDateRangeException("Date range must not exceed " + MAX_RANGE_DAYS + " days");
+        }
     }
 }
@@ -13,25 +13,23 @@ import org.springframework.web.bind.annotation.RestController;
 
 import com.focuswell.model.Habit;
 import com.focuswell.model.User;
-import com.focuswell.repository.UserRepository;
 import com.focuswell.service.HabitService;
+import com.focuswell.service.UserService;
 
 @RestController
 @RequestMapping("/api/habits")
 public class HabitController {
     private final HabitService habitService;
-    private final UserRepository userRepository; // add this
+    private final UserService userService;
 
-    public HabitController(HabitService habitService, UserRepository userRepository) {
+    public HabitController(HabitService habitService, UserService userService) {
         this.habitService = habitService;
-        this.userRepository = userRepository;
+        this.userService = userService;
     }
 
     @PostMapping
     public ResponseEntity<?> createHabit(@RequestBody Habit habit, Principal principal) {
-        String username = principal.getName();
-        User user = userRepository.findByUsername(username)
-                .orElseThrow(() -> new RuntimeException("User not found"));
+        User user = userService.currentUser(principal);
 
         habit.setUser(user);
         habitService.addHabit(habit);
@@ -41,8 +39,7 @@ public class HabitController {
 
     @GetMapping
     public ResponseEntity<List<Habit>> getHabits(Principal principal) {
-        User user = userRepository.findByUsername(principal.getName())
-                .orElseThrow(() -> new RuntimeException("User not found: " + principal.getName()));
+        User user = userService.currentUser(principal);
 
         return ResponseEntity.ok(habitService.getHabits(user)); // match the method signature
     }
@@ -10,33 +10,38 @@ import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import com.focuswell.config.PaginationSettings;
+import com.focuswell.dto.HabitOverview;
 import com.focuswell.model.Habit;
 import com.focuswell.model.HabitLog;
 import com.focuswell.model.User;
 import com.focuswell.repository.HabitRepository;
-import com.focuswell.repository.UserRepository;
 import com.focuswell.service.HabitLogService;
+import com.focuswell.service.UserService;
 
 @RestController
 @RequestMapping("/api/habits")
 public class HabitLogController {
     private final HabitLogService habitLogService;
     private final HabitRepository habitRepository;
-    private final UserRepository userRepository;
+    private final UserService userService;
+    private final PaginationSettings pagination;
 
     public HabitLogController(HabitLogService habitLogService, HabitRepository habitRepository,
-            UserRepository userRepository) {
+            UserService userService, PaginationSettings pagination) {
         this.habitLogService = habitLogService;
         this.habitRepository = habitRepository;
-        this.userRepository = userRepository;
+        this.userService = userService;
+        this.pagination = pagination;
     }
 
     @PostMapping("/{id}/log")
     public ResponseEntity<?> logHabit(@PathVariable Long id, Principal principal) {
         try {
-            HabitLog log = habitLogService.logHabit(id, principal.getName());
+            HabitLog log = habitLogService.logHabit(id, userService.currentUser(principal));
             return ResponseEntity.ok(log);
         } catch (RuntimeException e) {
             if (e.getMessage().equals("Habit already logged today")) {
@@ -46,29 +51,43 @@ public class HabitLogController {
         }
     }
 
+    @GetMapping("/overview")
+    public ResponseEntity<List<HabitOverview>> getOverview(Principal principal) {
+        return ResponseEntity.ok(habitLogService.getOverview(userService.currentUser(principal)));
+    }
+
     @GetMapping("/{id}/streak")
     public ResponseEntity<?> getStreak(@PathVariable Long id, Principal principal) {
-        Habit habit = validateOwnership(id, principal.getName());
+        Habit habit = validateOwnership(id, principal);
         int streak = habitLogService.getCurrentStreak(habit);
-        return ResponseEntity.ok(Map.of("currentStreak", streak));
+        return ResponseEntity.ok(Map.of("currentStreak", streak,
+                "longestStreak", habitLogService.getLongestStreak(habit)));
     }
 
     @GetMapping("/{id}/progress")
     public ResponseEntity<?> getWeeklyProgress(@PathVariable Long id, Principal principal) {
-        Habit habit = validateOwnership(id, principal.getName());
+        Habit habit = validateOwnership(id, principal);
         Map<String, Long> progress = habitLogService.getWeeklyProgress(habit);
         return ResponseEntity.ok(progress);
     }
 
+    // Newest first, paged via cursor; unpaged=true returns the whole list
     @GetMapping("/{id}/logs")
-    public ResponseEntity<List<HabitLog>> getHabitLogs(@PathVariable Long id, Principal principal) {
-        Habit habit = validateOwnership(id, principal.getName());
-        List<HabitLog> logs = habitLogService.getLogsForHabit(habit);
-        return ResponseEntity.ok(logs);
+    public ResponseEntity<?> getHabitLogs(@PathVariable Long id,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size,
+            @RequestParam(defaultValue = "false") boolean unpaged,
+            Principal principal) {
+        Habit habit = validateOwnership(id, principal);
+        if (unpaged) {
+            List<HabitLog> logs = habitLogService.getLogsForHabit(habit);
+            return ResponseEntity.ok(logs);
+        }
+        return ResponseEntity.ok(habitLogService.getLogsPage(habit, cursor, pagination.pageSize(size)));
     }
 
-    private Habit validateOwnership(Long habitId, String username) {
-        User user = (User) userRepository.findByUsername(username).orElseThrow();
+    private Habit validateOwnership(Long habitId, Principal principal) {
+        User user = userService.currentUser(principal);
         return habitRepository.findById(habitId)
                 .filter(h -> h.getUser().getId().equals(user.getId()))
                 .orElseThrow(() -> new RuntimeException("Habit not found or not yours"));
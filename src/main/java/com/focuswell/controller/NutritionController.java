@@ -20,6 +20,7 @@ import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.server.ResponseStatusException;
 
+import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.focuswell.config.FeatureFlags;
 import com.focuswell.model.Food;
@@ -32,10 +33,11 @@ import com.focuswell.repository.FoodRepository;
 import com.focuswell.repository.MealLogRepository;
 import com.focuswell.repository.MealPlanRepository;
 import com.focuswell.repository.RecipeRepository;
-import com.focuswell.repository.UserRepository;
 import com.focuswell.repository.WeightLogRepository;
+import com.focuswell.service.MealLogService;
 import com.focuswell.service.MealPlanService;
 import com.focuswell.service.NutritionService;
+import com.focuswell.service.UserService;
 
 import lombok.RequiredArgsConstructor;
 
@@ -45,7 +47,7 @@ import lombok.RequiredArgsConstructor;
 public class NutritionController {
 
   private final FeatureFlags featureFlags;
-  private final UserRepository userRepository;
+  private final UserService userService;
   private final NutritionService nutritionService;
 
   private final FoodRepository foodRepository;
@@ -54,6 +56,7 @@ public class NutritionController {
   private final WeightLogRepository weightLogRepository;
   private final MealPlanService mealPlanService;
   private final MealPlanRepository mealPlanRepository;
+  private final MealLogService mealLogService;
   private final ObjectMapper objectMapper = new ObjectMapper();
 
   private void ensureEnabled() {
@@ -63,9 +66,7 @@ public class NutritionController {
   }
 
   private User currentUser(Principal principal) {
-    String username = principal.getName();
-    return userRepository.findByUsername(username)
-        .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "User not found"));
+    return userService.currentUser(principal);
   }
 
   @GetMapping("/mealplan/day")
@@ -76,7 +77,7 @@ public class NutritionController {
     return mealPlanRepository.findByUserAndDate(user, date)
         .map(mp -> {
           try {
-            return objectMapper.readValue(mp.getPlanJson(), Map.class);
+            return objectMapper.readValue(mp.getPlanJson(), new TypeReference<Map<String, Object>>() {});
           } catch (Exception e) {
             throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Bad plan JSON");
           }
@@ -189,22 +190,6 @@ public class NutritionController {
     return plan;
   }
 
-  @GetMapping("/mealplan/day")
-  public Map<String, Object> getPlanForDay(Principal principal,
-      @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
-    ensureEnabled();
-    User user = currentUser(principal);
-    return mealPlanRepository.findByUserAndDate(user, date)
-        .map(mp -> {
-          try {
-            return objectMapper.readValue(mp.getPlanJson(), Map.class);
-          } catch (Exception e) {
-            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Bad plan JSON");
-          }
-        })
-        .orElse(Map.of("date", date.toString(), "meals", List.of(), "dayTotals", Map.of("calories", 0)));
-  }
-
   // ----- Foods (read + create simple) -----
   @GetMapping("/foods")
   public List<Food> searchFoods(@RequestParam(required = false, defaultValue = "") String q) {
@@ -231,26 +216,7 @@ public class NutritionController {
   @PostMapping("/meals")
   public MealLog logMeal(Principal principal, @RequestBody Map<String, Object> payload) {
     ensureEnabled();
-    User user = currentUser(principal);
-    MealLog log = new MealLog();
-    log.setUser(user);
-    log.setDate(LocalDate.parse((String) payload.get("date")));
-    log.setMealType((String) payload.get("mealType"));
-    String itemsJson = com.fasterxml.jackson.databind.json.JsonMapper.builder().build()
-        .createObjectNode().putPOJO("items", payload.get("items")).get("items").toString();
-    log.setItemsJson(itemsJson);
-    double total = 0.0;
-    if (payload.get("items") instanceof List<?> items) {
-      for (Object o : items) {
-        if (o instanceof Map<?, ?> m) {
-          Object c = m.get("calories");
-          if (c instanceof Number n)
-            total += n.doubleValue();
-        }
-      }
-    }
-    log.setTotalCalories(total);
-    return mealLogRepository.save(log);
+    return mealLogService.logMeal(currentUser(principal), payload);
   }
 
   @GetMapping("/meals/day")
@@ -271,7 +237,7 @@ public class NutritionController {
   @DeleteMapping("/meals/{id}")
   public void deleteMeal(Principal principal, @PathVariable Long id) {
     ensureEnabled();
-    mealLogRepository.deleteById(id);
+    mealLogService.deleteMeal(id);
   }
 
   // ----- Weight Logs -----
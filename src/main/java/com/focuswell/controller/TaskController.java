@@ -18,6 +18,7 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import com.focuswell.config.PaginationSettings;
 import com.focuswell.dto.TaskRequest;
 import com.focuswell.model.Priority;
 import com.focuswell.model.Task;
@@ -38,31 +39,39 @@ public class TaskController {
 
     private final TaskService taskService;
     private final UserService userService;
+    private final PaginationSettings pagination;
 
     @PostMapping
     public ResponseEntity<Task> createTask(
             @Valid @RequestBody TaskRequest request,
             @AuthenticationPrincipal CustomUserDetails userDetails) {
         log.info("Creating task: {}", request.getTitle());
-        User user = userService.findById(userDetails.getId());
+        User user = userService.getReference(userDetails.getId());
         Task createdTask = taskService.createTask(request, user);
         return ResponseEntity.status(HttpStatus.CREATED).body(createdTask);
     }
 
+    // Paged by due date via cursor; unpaged=true returns the whole list
     @GetMapping
-    public ResponseEntity<List<Task>> getAllTasks(
+    public ResponseEntity<?> getAllTasks(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size,
+            @RequestParam(defaultValue = "false") boolean unpaged,
             @AuthenticationPrincipal CustomUserDetails userDetails) {
         log.info("Fetching all tasks for user: {}", userDetails.getUsername());
-        User user = userService.findById(userDetails.getId());
-        List<Task> tasks = taskService.getAllTasks(user);
-        return ResponseEntity.ok(tasks);
+        User user = userService.getReference(userDetails.getId());
+        if (unpaged) {
+            List<Task> tasks = taskService.getAllTasks(user);
+            return ResponseEntity.ok(tasks);
+        }
+        return ResponseEntity.ok(taskService.getTasksPage(user, cursor, pagination.pageSize(size)));
     }
 
     @GetMapping("/today")
     public ResponseEntity<List<Task>> getTodayTasks(
             @AuthenticationPrincipal CustomUserDetails userDetails) {
         log.info("Fetching today's tasks for user: {}", userDetails.getUsername());
-        User user = userService.findById(userDetails.getId());
+        User user = userService.getReference(userDetails.getId());
         List<Task> tasks = taskService.getTodayTasks(user);
         return ResponseEntity.ok(tasks);
     }
@@ -71,7 +80,7 @@ public class TaskController {
     public ResponseEntity<List<Task>> getOverdueTasks(
             @AuthenticationPrincipal CustomUserDetails userDetails) {
         log.info("Fetching overdue tasks for user: {}", userDetails.getUsername());
-        User user = userService.findById(userDetails.getId());
+        User user = userService.getReference(userDetails.getId());
         List<Task> tasks = taskService.getOverdueTasks(user);
         return ResponseEntity.ok(tasks);
     }
@@ -81,7 +90,7 @@ public class TaskController {
             @RequestParam(defaultValue = "7") int days,
             @AuthenticationPrincipal CustomUserDetails userDetails) {
         log.info("Fetching upcoming tasks for user: {} for next {} days", userDetails.getUsername(), days);
-        User user = userService.findById(userDetails.getId());
+        User user = userService.getReference(userDetails.getId());
         List<Task> tasks = taskService.getUpcomingTasks(user, days);
         return ResponseEntity.ok(tasks);
     }
@@ -91,7 +100,7 @@ public class TaskController {
             @PathVariable String category,
             @AuthenticationPrincipal CustomUserDetails userDetails) {
         log.info("Fetching tasks by category: {} for user: {}", category, userDetails.getUsername());
-        User user = userService.findById(userDetails.getId());
+        User user = userService.getReference(userDetails.getId());
         List<Task> tasks = taskService.getTasksByCategory(user, category);
         return ResponseEntity.ok(tasks);
     }
@@ -101,20 +110,28 @@ public class TaskController {
             @PathVariable Priority priority,
             @AuthenticationPrincipal CustomUserDetails userDetails) {
         log.info("Fetching tasks by priority: {} for user: {}", priority, userDetails.getUsername());
-        User user = userService.findById(userDetails.getId());
+        User user = userService.getReference(userDetails.getId());
         List<Task> tasks = taskService.getTasksByPriority(user, priority);
         return ResponseEntity.ok(tasks);
     }
 
+    // Paged by due date via cursor; unpaged=true returns the whole list
     @GetMapping("/history")
-    public ResponseEntity<List<Task>> getTaskHistory(
+    public ResponseEntity<?> getTaskHistory(
             @RequestParam LocalDate start,
             @RequestParam LocalDate end,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size,
+            @RequestParam(defaultValue = "false") boolean unpaged,
             @AuthenticationPrincipal CustomUserDetails userDetails) {
         log.info("Fetching task history for user: {} from {} to {}", userDetails.getUsername(), start, end);
-        User user = userService.findById(userDetails.getId());
-        List<Task> tasks = taskService.getTaskHistory(user, start, end);
-        return ResponseEntity.ok(tasks);
+        User user = userService.getReference(userDetails.getId());
+        if (unpaged) {
+            List<Task> tasks = taskService.getTaskHistory(user, start, end);
+            return ResponseEntity.ok(tasks);
+        }
+        return ResponseEntity.ok(
+                taskService.getTaskHistoryPage(user, start, end, cursor, pagination.pageSize(size)));
     }
 
     @GetMapping("/{id}")
@@ -122,7 +139,7 @@ public class TaskController {
             @PathVariable Long id,
             @AuthenticationPrincipal CustomUserDetails userDetails) {
         log.info("Fetching task {} for user: {}", id, userDetails.getUsername());
-        User user = userService.findById(userDetails.getId());
+        User user = userService.getReference(userDetails.getId());
         // This would need a new method in TaskService
         return ResponseEntity.ok().build();
     }
@@ -133,7 +150,7 @@ public class TaskController {
             @Valid @RequestBody TaskRequest request,
             @AuthenticationPrincipal CustomUserDetails userDetails) {
         log.info("Updating task {} for user: {}", id, userDetails.getUsername());
-        User user = userService.findById(userDetails.getId());
+        User user = userService.getReference(userDetails.getId());
         Task updatedTask = taskService.updateTask(id, request, user);
         return ResponseEntity.ok(updatedTask);
     }
@@ -143,7 +160,7 @@ public class TaskController {
             @PathVariable Long id,
             @AuthenticationPrincipal CustomUserDetails userDetails) {
         log.info("Marking task {} as complete for user: {}", id, userDetails.getUsername());
-        User user = userService.findById(userDetails.getId());
+        User user = userService.getReference(userDetails.getId());
         Task task = taskService.markTaskComplete(id, user);
         return ResponseEntity.ok(task);
     }
@@ -153,7 +170,7 @@ public class TaskController {
             @PathVariable Long id,
             @AuthenticationPrincipal CustomUserDetails userDetails) {
         log.info("Marking task {} as incomplete for user: {}", id, userDetails.getUsername());
-        User user = userService.findById(userDetails.getId());
+        User user = userService.getReference(userDetails.getId());
         Task task = taskService.markTaskIncomplete(id, user);
         return ResponseEntity.ok(task);
     }
@@ -163,7 +180,7 @@ public class TaskController {
             @PathVariable Long id,
             @AuthenticationPrincipal CustomUserDetails userDetails) {
         log.info("Archiving task {} for user: {}", id, userDetails.getUsername());
-        User user = userService.findById(userDetails.getId());
+        User user = userService.getReference(userDetails.getId());
         Task task = taskService.archiveTask(id, user);
         return ResponseEntity.ok(task);
     }
@@ -173,7 +190,7 @@ public class TaskController {
             @PathVariable Long id,
             @AuthenticationPrincipal CustomUserDetails userDetails) {
         log.info("Deleting task {} for user: {}", id, userDetails.getUsername());
-        User user = userService.findById(userDetails.getId());
+        User user = userService.getReference(userDetails.getId());
         taskService.deleteTask(id, user);
         return ResponseEntity.ok(Map.of("message", "Task deleted successfully"));
     }
@@ -182,7 +199,7 @@ public class TaskController {
     public ResponseEntity<Map<String, Object>> getTaskAnalytics(
             @AuthenticationPrincipal CustomUserDetails userDetails) {
         log.info("Generating task analytics for user: {}", userDetails.getUsername());
-        User user = userService.findById(userDetails.getId());
+        User user = userService.getReference(userDetails.getId());
         Map<String, Object> analytics = taskService.getTaskAnalytics(user);
         return ResponseEntity.ok(analytics);
     }
@@ -191,7 +208,7 @@ public class TaskController {
     public ResponseEntity<List<String>> getTaskCategories(
             @AuthenticationPrincipal CustomUserDetails userDetails) {
         log.info("Fetching task categories for user: {}", userDetails.getUsername());
-        User user = userService.findById(userDetails.getId());
+        User user = userService.getReference(userDetails.getId());
         List<String> categories = taskService.getTaskCategories(user);
         return ResponseEntity.ok(categories);
     }
@@ -1,27 +1,35 @@
 package com.focuswell.controller;
 
+import java.time.LocalDate;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Optional;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import com.focuswell.cache.UserCache;
 import com.focuswell.model.User;
 import com.focuswell.repository.UserRepository;
 import com.focuswell.security.CustomUserDetailsService;
 import com.focuswell.security.CustomUserDetails;
 import com.focuswell.security.JwtUtil;
+import com.focuswell.security.TokenRevocationRegistry;
 import com.focuswell.dto.LoginRequest;
+import com.focuswell.service.AccountExportService;
 import com.focuswell.service.UserService;
 
 import lombok.RequiredArgsConstructor;
@@ -37,6 +45,9 @@ public class UserController {
     private final UserRepository userRepository;
     private final JwtUtil jwtUtil;
     private final PasswordEncoder passwordEncoder;
+    private final TokenRevocationRegistry tokenRevocations;
+    private final UserCache userCache;
+    private final AccountExportService accountExportService;
 
     @PostMapping("/register")
     public ResponseEntity<?> register(@RequestBody User user) {
@@ -52,6 +63,7 @@ public class UserController {
 
         user.setPassword(passwordEncoder.encode(user.getPassword()));
         User savedUser = userRepository.save(user);
+        userCache.evict(savedUser);
         return ResponseEntity.ok(savedUser);
     }
 
@@ -87,7 +99,8 @@ public class UserController {
             @RequestBody Map<String, String> payload,
             Authentication authentication) {
         String username = authentication.getName();
-        Optional<User> optionalUser = userService.findByUsername(username);
+        // Fresh copy: cached users are shared and must not be modified
+        Optional<User> optionalUser = userRepository.findByUsername(username);
         if (optionalUser.isEmpty()) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
                     .body(Map.of("message", "User not found"));
@@ -108,7 +121,29 @@ public class UserController {
 
         user.setPassword(passwordEncoder.encode(newPassword));
         userRepository.save(user);
-        return ResponseEntity.ok(Map.of("message", "Password updated successfully"));
+        userCache.evict(user);
+
+        // Existing tokens stop working; hand back a fresh one for this session
+        tokenRevocations.revokeAll(user.getId());
+        String token = jwtUtil.generateToken(new CustomUserDetails(user));
+        return ResponseEntity.ok(Map.of("message", "Password updated successfully", "token", token));
+    }
+
+    // Everything stored for the signed-in user, as a zip of NDJSON files written while it is read
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportAccount(
+            @AuthenticationPrincipal CustomUserDetails userDetails) {
+        User user = userService.getReference(userDetails.getId());
+        Optional<AccountExportService.Export> export = accountExportService.reserve(user);
+        if (export.isEmpty()) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).build();
+        }
+        String filename = "focuswell-export-" + user.getId() + "-" + LocalDate.now() + ".zip";
+        StreamingResponseBody body = export.get()::writeTo;
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + filename + "\"")
+                .contentType(MediaType.parseMediaType("application/zip"))
+                .body(body);
     }
 
     @GetMapping("/profile")
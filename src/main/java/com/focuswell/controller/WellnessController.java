@@ -1,5 +1,8 @@
 package com.focuswell.controller;
 
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
 import java.util.HashMap;
 import java.util.List;
@@ -8,23 +11,34 @@ import java.util.Optional;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import com.focuswell.cache.RequestCoalescer;
+import com.focuswell.config.PaginationSettings;
 import com.focuswell.dto.AnalyticsResponse;
 import com.focuswell.dto.WellnessDataRequest;
+import com.focuswell.dto.WellnessImportResult;
+import com.focuswell.dto.WellnessTrends;
 import com.focuswell.model.User;
 import com.focuswell.model.WellnessData;
 import com.focuswell.security.CustomUserDetails;
+import com.focuswell.service.ComprehensiveAnalyticsService;
 import com.focuswell.service.UserService;
 import com.focuswell.service.WellnessDataService;
+import com.focuswell.service.WellnessImportService;
+import com.focuswell.service.WellnessTrendEngine;
 
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 
 @RestController
@@ -37,13 +51,29 @@ public class WellnessController {
   @Autowired
   private UserService userService;
 
+  @Autowired
+  private WellnessImportService wellnessImportService;
+
+  @Autowired
+  private ComprehensiveAnalyticsService comprehensiveAnalyticsService;
+
+  @Autowired
+  private WellnessTrendEngine wellnessTrendEngine;
+
+  @Autowired
+  private PaginationSettings pagination;
+
+  // Shares one computation between identical concurrent stats requests
+  @Autowired
+  private RequestCoalescer coalescer;
+
   // Save or update wellness data
   @PostMapping("/data")
   public ResponseEntity<WellnessData> saveWellnessData(
       @Valid @RequestBody WellnessDataRequest request,
       @AuthenticationPrincipal CustomUserDetails userDetails) {
     try {
-      User user = userService.findById(userDetails.getId());
+      User user = userService.getReference(userDetails.getId());
       WellnessData savedData = wellnessDataService.saveWellnessData(user.getId(), request);
       return ResponseEntity.ok(savedData);
     } catch (Exception e) {
@@ -51,23 +81,49 @@ public class WellnessController {
     }
   }
 
+  // Bulk import: NDJSON (one wellness entry per line) or CSV with a header row.
+  // Rows are upserted by date; invalid rows are skipped and listed in the response.
+  @PostMapping(value = "/data/bulk", consumes = { "application/x-ndjson", "text/csv" })
+  public ResponseEntity<?> importWellnessData(
+      @AuthenticationPrincipal CustomUserDetails userDetails,
+      @RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType,
+      HttpServletRequest request) throws IOException {
+    WellnessImportService.Format format = MediaType.valueOf("text/csv").includes(contentType)
+        ? WellnessImportService.Format.CSV
+        : WellnessImportService.Format.NDJSON;
+    try {
+      WellnessImportResult result = wellnessImportService.importData(userDetails.getId(), format,
+          new InputStreamReader(request.getInputStream(), StandardCharsets.UTF_8));
+      return ResponseEntity.ok(result);
+    } catch (IllegalArgumentException e) {
+      return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+    }
+  }
+
   // Get wellness data for a specific date
   @GetMapping("/data")
   public ResponseEntity<WellnessData> getWellnessDataByDate(
       @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date,
       @AuthenticationPrincipal CustomUserDetails userDetails) {
-    User user = userService.findById(userDetails.getId());
+    User user = userService.getReference(userDetails.getId());
     Optional<WellnessData> data = wellnessDataService.getWellnessDataByDate(user.getId(), date);
     return data.map(ResponseEntity::ok)
         .orElse(ResponseEntity.notFound().build());
   }
 
-  // Get all wellness data for a user
+  // Get a user's wellness data newest first, one page per call; unpaged=true returns the whole list
   @GetMapping("/data/all")
-  public ResponseEntity<List<WellnessData>> getAllWellnessData(@AuthenticationPrincipal CustomUserDetails userDetails) {
-    User user = userService.findById(userDetails.getId());
-    List<WellnessData> data = wellnessDataService.getAllWellnessData(user.getId());
-    return ResponseEntity.ok(data);
+  public ResponseEntity<?> getAllWellnessData(@AuthenticationPrincipal CustomUserDetails userDetails,
+      @RequestParam(required = false) String cursor,
+      @RequestParam(required = false) Integer size,
+      @RequestParam(defaultValue = "false") boolean unpaged) {
+    User user = userService.getReference(userDetails.getId());
+    if (unpaged) {
+      List<WellnessData> data = wellnessDataService.getAllWellnessData(user.getId());
+      return ResponseEntity.ok(data);
+    }
+    return ResponseEntity.ok(
+        wellnessDataService.getWellnessDataPage(user.getId(), cursor, pagination.pageSize(size)));
   }
 
   // Get wellness data for a date range
@@ -76,7 +132,7 @@ public class WellnessController {
       @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
       @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
       @AuthenticationPrincipal CustomUserDetails userDetails) {
-    User user = userService.findById(userDetails.getId());
+    User user = userService.getReference(userDetails.getId());
     List<WellnessData> data = wellnessDataService.getWellnessDataByDateRange(user.getId(), startDate, endDate);
     return ResponseEntity.ok(data);
   }
@@ -86,7 +142,7 @@ public class WellnessController {
   public ResponseEntity<List<WellnessData>> getRecentWellnessData(
       @RequestParam(defaultValue = "7") int days,
       @AuthenticationPrincipal CustomUserDetails userDetails) {
-    User user = userService.findById(userDetails.getId());
+    User user = userService.getReference(userDetails.getId());
     List<WellnessData> data = wellnessDataService.getRecentWellnessData(user.getId(), days);
     return ResponseEntity.ok(data);
   }
@@ -95,7 +151,7 @@ public class WellnessController {
   @GetMapping("/data/complete")
   public ResponseEntity<List<WellnessData>> getCompleteWellnessData(
       @AuthenticationPrincipal CustomUserDetails userDetails) {
-    User user = userService.findById(userDetails.getId());
+    User user = userService.getReference(userDetails.getId());
     List<WellnessData> data = wellnessDataService.getCompleteWellnessData(user.getId());
     return ResponseEntity.ok(data);
   }
@@ -105,8 +161,9 @@ public class WellnessController {
   public ResponseEntity<WellnessDataService.WellnessStats> getWellnessStats(
       @AuthenticationPrincipal CustomUserDetails userDetails) {
     try {
-      User user = userService.findById(userDetails.getId());
-      WellnessDataService.WellnessStats stats = wellnessDataService.getWellnessStats(user.getId());
+      User user = userService.getReference(userDetails.getId());
+      WellnessDataService.WellnessStats stats = coalescer.execute(coalescer.key("wellness.stats", user.getId()),
+          () -> wellnessDataService.getWellnessStats(user.getId()));
       return ResponseEntity.ok(stats);
     } catch (Exception e) {
       System.err.println("Error in getWellnessStats endpoint: " + e.getMessage());
@@ -124,7 +181,7 @@ public class WellnessController {
   // Check if user has data for today
   @GetMapping("/data/today")
   public ResponseEntity<Boolean> hasTodayData(@AuthenticationPrincipal CustomUserDetails userDetails) {
-    User user = userService.findById(userDetails.getId());
+    User user = userService.getReference(userDetails.getId());
     boolean hasData = wellnessDataService.hasTodayData(user.getId());
     return ResponseEntity.ok(hasData);
   }
@@ -135,8 +192,10 @@ public class WellnessController {
       @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
       @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
       @AuthenticationPrincipal CustomUserDetails userDetails) {
-    User user = userService.findById(userDetails.getId());
-    Double averageScore = wellnessDataService.calculateAverageWellnessScore(user.getId(), startDate, endDate);
+    User user = userService.getReference(userDetails.getId());
+    Double averageScore = coalescer.execute(
+        coalescer.key("wellness.average-score", user.getId(), startDate, endDate),
+        () -> wellnessDataService.calculateAverageWellnessScore(user.getId(), startDate, endDate));
     return ResponseEntity.ok(averageScore);
   }
 
@@ -145,7 +204,7 @@ public class WellnessController {
   public ResponseEntity<List<WellnessData>> getLowWellnessDays(
       @RequestParam(defaultValue = "5.0") Double threshold,
       @AuthenticationPrincipal CustomUserDetails userDetails) {
-    User user = userService.findById(userDetails.getId());
+    User user = userService.getReference(userDetails.getId());
     List<WellnessData> lowScoreDays = wellnessDataService.findLowWellnessDays(user.getId(), threshold);
     return ResponseEntity.ok(lowScoreDays);
   }
@@ -155,19 +214,23 @@ public class WellnessController {
   public ResponseEntity<AnalyticsResponse> getComprehensiveAnalytics(
       @AuthenticationPrincipal CustomUserDetails userDetails) {
     try {
-      User user = userService.findById(userDetails.getId());
-      // This would be implemented in a separate AnalyticsService
-      // For now, return a basic response
-      AnalyticsResponse response = new AnalyticsResponse();
-      response.setDaysTracked(wellnessDataService.getWellnessStats(user.getId()).getTotalEntries().intValue());
-      response.setHasRecentData(wellnessDataService.hasTodayData(user.getId()));
-
+      // Only the id is used here so this thread holds no connection while the sections run
+      Long userId = userDetails.getId();
+      AnalyticsResponse response = coalescer.execute(coalescer.key("wellness.comprehensive", userId),
+          () -> comprehensiveAnalyticsService.analyze(userId));
       return ResponseEntity.ok(response);
     } catch (Exception e) {
       return ResponseEntity.badRequest().build();
     }
   }
 
+  // Moving averages, EWMA and sleep debt, served from in-memory rolling windows
+  @GetMapping("/analytics/trends")
+  public ResponseEntity<WellnessTrends> getTrends(@AuthenticationPrincipal CustomUserDetails userDetails) {
+    User user = userService.getReference(userDetails.getId());
+    return ResponseEntity.ok(wellnessTrendEngine.trends(user));
+  }
+
   // Debug endpoint to check today's date
   @GetMapping("/debug/today")
   public ResponseEntity<Map<String, Object>> getTodayDate() {
@@ -28,12 +28,17 @@ public class AnalyticsResponse {
   private Map<String, Double> categoryAverages;
   private List<String> riskFactors;
   private List<String> positiveTrends;
+  private WellnessTrends trends; // moving averages, EWMA and sleep debt
 
   // Recommendations
   private Integer activeRecommendations;
   private Integer highPriorityRecommendations;
   private List<RecommendationSummary> topRecommendations;
 
+  // Tasks and habits over the last 7 days
+  private Double taskCompletionRate; // completed / due, null when nothing was due
+  private Double habitConsistency; // share of days with at least one habit logged
+
   // Progress tracking
   private Integer daysTracked;
   private Integer streakDays;
@@ -0,0 +1,53 @@
+package com.focuswell.dto;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+
+import com.focuswell.exception.InvalidCursorException;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+// One page of a list ordered by (date, id); pass nextCursor back to get the following page.
+// nextCursor is null on the last page.
+@Data
+@AllArgsConstructor
+public class CursorPage<T> {
+
+  private List<T> items;
+  private String nextCursor;
+
+  // Position of the last row of a page. Opaque to clients, so the encoding can change.
+  public record Cursor(LocalDate date, long id) {
+
+    public String encode() {
+      return Base64.getUrlEncoder().withoutPadding()
+          .encodeToString((date + ":" + id).getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static Cursor decode(String value) {
+      try {
+        String[] parts = new String(Base64.getUrlDecoder().decode(value), StandardCharsets.UTF_8).split(":", -1);
+        if (parts.length != 2) {
+          throw new InvalidCursorException("Invalid page cursor");
+        }
+        return new Cursor(LocalDate.parse(parts[0]), Long.parseLong(parts[1]));
+      } catch (IllegalArgumentException | DateTimeParseException e) {
+        throw new InvalidCursorException("Invalid page cursor");
+      }
+    }
+  }
+
+  // rows is the query result for size + 1 rows; the extra row only signals that another page exists
+  public static <T> CursorPage<T> of(List<T> rows, int size, Function<T, Cursor> cursorOf) {
+    if (rows.size() <= size) {
+      return new CursorPage<>(rows, null);
+    }
+    List<T> items = rows.subList(0, size);
+    return new CursorPage<>(items, cursorOf.apply(items.get(size - 1)).encode());
+  }
+}
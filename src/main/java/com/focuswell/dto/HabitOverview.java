@@ -0,0 +1,21 @@
+package com.focuswell.dto;
+
+import java.util.Map;
+
+import lombok.Data;
+
+// Streak, 7-day progress and today's status for one habit on the dashboard
+@Data
+public class HabitOverview {
+
+  private Long habitId;
+  private String name;
+  private String description;
+  private String frequency;
+  private int currentStreak;
+  private int longestStreak;
+  private boolean loggedToday;
+
+  // Logs per day over the last 7 days (YYYY-MM-DD -> count)
+  private Map<String, Long> weeklyProgress;
+}
@@ -0,0 +1,45 @@
+package com.focuswell.dto;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+import lombok.Data;
+
+// Compact summary of a user's recent activity sent to the AI service's /analyze
+@Data
+public class InsightsRequest {
+
+  private LocalDate windowStart;
+  private LocalDate windowEnd;
+
+  // Most recent journal notes, newest first, each truncated to the configured length
+  private List<Note> notes;
+
+  // Wellness averages over the window (null when no entries have the field)
+  private int daysTracked;
+  private Double avgMoodScore;
+  private Double avgStressLevel;
+  private Double avgSleepHours;
+  private Double avgSleepQuality;
+  private Double avgProductivityScore;
+  private Double avgEnergyLevel;
+  private Double avgWellnessScore;
+
+  // Later half of the window minus the earlier half; positive means improving
+  private Double moodTrend;
+  private Double wellnessScoreTrend;
+
+  // Task and habit activity over the window (YYYY-MM-DD -> count, active days only)
+  private long tasksDue;
+  private long tasksDueCompleted;
+  private Map<String, Long> taskCompletionsPerDay;
+  private long activeHabits;
+  private Map<String, Long> habitLogsPerDay;
+
+  @Data
+  public static class Note {
+    private LocalDate date;
+    private String text;
+  }
+}
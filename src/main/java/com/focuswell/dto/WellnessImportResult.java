@@ -0,0 +1,29 @@
+package com.focuswell.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+public class WellnessImportResult {
+
+  private long rowsRead;
+  private long rowsImported;
+  private long rowsRejected;
+
+  // First rejected rows, by line number; rowsRejected has the full count
+  private List<RowError> errors = new ArrayList<>();
+  private boolean errorsTruncated;
+
+  private long elapsedMs;
+  private double rowsPerSecond;
+
+  @Data
+  @AllArgsConstructor
+  public static class RowError {
+    private long line;
+    private String message;
+  }
+}
@@ -0,0 +1,31 @@
+package com.focuswell.dto;
+
+import java.time.LocalDate;
+import java.util.Map;
+
+import lombok.Data;
+
+@Data
+public class WellnessTrends {
+
+  private LocalDate asOf;
+
+  // Keyed by metric: mood, stress, productivity, sleepQuality, energy, sleepHours,
+  // screenTimeHours, socialInteractionHours, wellnessScore. Metrics the user never
+  // recorded are left out.
+  private Map<String, MetricTrend> metrics;
+
+  // Days with an entry in the last 7
+  private Integer entries7Days;
+
+  // Hours short of the sleep target, summed over the last 7 days with a sleep entry
+  private Double sleepDebtHours;
+
+  @Data
+  public static class MetricTrend {
+    private Double average7Days;
+    private Double average30Days;
+    private Double ewma; // exponentially weighted, most recent entries count most
+    private Double weekOverWeekChange; // last 7 days against the 7 before, null without both
+  }
+}
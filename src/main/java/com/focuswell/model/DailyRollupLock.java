@@ -0,0 +1,18 @@
+package com.focuswell.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.Data;
+
+// One row per user that daily_user_rollup writers lock, so they never contend on the users row
+@Entity
+@Data
+@Table(name = "daily_rollup_lock")
+public class DailyRollupLock {
+
+  @Id
+  @Column(name = "user_id")
+  private Long userId;
+}
@@ -0,0 +1,66 @@
+package com.focuswell.model;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import org.springframework.data.annotation.LastModifiedDate;
+import org.springframework.data.jpa.domain.support.AuditingEntityListener;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
+import jakarta.persistence.FetchType;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.ManyToOne;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import lombok.Data;
+
+// Per-user daily totals, maintained write-through so analytics never scan raw rows
+@Entity
+@Data
+@EntityListeners(AuditingEntityListener.class)
+@Table(name = "daily_user_rollup", uniqueConstraints = {
+    @UniqueConstraint(name = "uk_rollup_user_date", columnNames = { "user_id", "date" })
+})
+public class DailyUserRollup {
+
+  @Id
+  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  private Long id;
+
+  @ManyToOne(optional = false, fetch = FetchType.LAZY)
+  @JoinColumn(name = "user_id", nullable = false)
+  private User user;
+
+  @Column(nullable = false)
+  private LocalDate date;
+
+  // Habit logs recorded on this day
+  @Column(name = "habit_logs", nullable = false)
+  private int habitLogs;
+
+  // Tasks completed on this day (by completion date)
+  @Column(name = "tasks_completed", nullable = false)
+  private int tasksCompleted;
+
+  // Tasks due on this day, and how many of those are completed
+  @Column(name = "tasks_due", nullable = false)
+  private int tasksDue;
+
+  @Column(name = "tasks_due_completed", nullable = false)
+  private int tasksDueCompleted;
+
+  @Column(name = "wellness_score")
+  private Double wellnessScore;
+
+  @Column(name = "meal_calories", nullable = false)
+  private double mealCalories;
+
+  @LastModifiedDate
+  @Column(name = "updated_at")
+  private LocalDateTime updatedAt;
+}
@@ -1,5 +1,10 @@
 package com.focuswell.model;
 
+import java.time.LocalDate;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
@@ -20,6 +25,20 @@ public class Habit {
     @ManyToOne
     private User user;
 
+    // Streak state maintained by HabitLogService; null until first computed
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    @Column(name = "current_streak")
+    private Integer currentStreak;
+
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    @Column(name = "longest_streak")
+    private Integer longestStreak;
+
+    // Day (DAILY) or Monday of the week (WEEKLY) of the most recent log
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    @Column(name = "last_logged_period")
+    private LocalDate lastLoggedPeriod;
+
     public Long getId() {
         return id;
     }
@@ -59,4 +78,28 @@ public class Habit {
     public void setUser(User user) {
         this.user = user;
     }
+
+    public Integer getCurrentStreak() {
+        return currentStreak;
+    }
+
+    public void setCurrentStreak(Integer currentStreak) {
+        this.currentStreak = currentStreak;
+    }
+
+    public Integer getLongestStreak() {
+        return longestStreak;
+    }
+
+    public void setLongestStreak(Integer longestStreak) {
+        this.longestStreak = longestStreak;
+    }
+
+    public LocalDate getLastLoggedPeriod() {
+        return lastLoggedPeriod;
+    }
+
+    public void setLastLoggedPeriod(LocalDate lastLoggedPeriod) {
+        this.lastLoggedPeriod = lastLoggedPeriod;
+    }
 }
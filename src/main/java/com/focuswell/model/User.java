@@ -7,6 +7,7 @@ import org.springframework.data.annotation.LastModifiedDate;
 import org.springframework.data.jpa.domain.support.AuditingEntityListener;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.fasterxml.jackson.annotation.JsonProperty;
 
 import jakarta.persistence.Column;
@@ -16,6 +17,7 @@ import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.Index;
+import jakarta.persistence.PrePersist;
 import jakarta.persistence.Table;
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotBlank;
@@ -24,6 +26,7 @@ import lombok.Data;
 
 @Entity
 @Data
+@JsonIgnoreProperties({ "hibernateLazyInitializer", "handler" })
 @EntityListeners(AuditingEntityListener.class)
 @Table(name = "users", indexes = {
         @Index(name = "idx_username", columnList = "username", unique = true),
@@ -74,6 +77,19 @@ public class User {
     @Column(name = "updated_at")
     private LocalDateTime updatedAt;
 
+    // When daily_user_rollup was last rebuilt from raw data; null until the backfill reaches this user
+    @Column(name = "rollup_built_at")
+    @JsonIgnore
+    private LocalDateTime rollupBuiltAt;
+
+    // A new user has no earlier data for the rollup backfill to pick up
+    @PrePersist
+    protected void onCreate() {
+        if (rollupBuiltAt == null) {
+            rollupBuiltAt = LocalDateTime.now();
+        }
+    }
+
     @JsonProperty // allow deserialization (input)
     public void setPassword(String password) {
         this.password = password;
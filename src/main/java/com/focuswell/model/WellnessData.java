@@ -17,18 +17,28 @@ import jakarta.persistence.Id;
 import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.PreUpdate;
 import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
 import jakarta.validation.constraints.Max;
 import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotNull;
+import lombok.AccessLevel;
 import lombok.Data;
+import lombok.Setter;
 
 @Entity
 @Data
 @EntityListeners(AuditingEntityListener.class)
 @Table(name = "wellness_data", indexes = {
     @Index(name = "idx_user_date", columnList = "user_id, date"),
-    @Index(name = "idx_date", columnList = "date")
+    @Index(name = "idx_date", columnList = "date"),
+    @Index(name = "idx_wellness_updated_at", columnList = "updated_at"),
+    @Index(name = "idx_wellness_user_score", columnList = "user_id, wellness_score")
+}, uniqueConstraints = {
+    // One entry per user per day; bulk import upserts on this key
+    @UniqueConstraint(name = "uk_wellness_user_date", columnNames = { "user_id", "date" })
 })
 public class WellnessData {
 
@@ -108,6 +118,11 @@ public class WellnessData {
   @Max(value = 10, message = "Energy level must be between 1 and 10")
   private Integer energyLevel;
 
+  // Derived from the five score inputs on every write so threshold and range queries can use an index
+  @Column(name = "wellness_score")
+  @Setter(AccessLevel.NONE)
+  private Double wellnessScore;
+
   // Notes
   @Column(columnDefinition = "TEXT")
   private String notes;
@@ -127,6 +142,18 @@ public class WellnessData {
 
   // Helper methods
   public Double getWellnessScore() {
+    return calculateWellnessScore(moodScore, stressLevel, productivityScore, sleepQuality, energyLevel);
+  }
+
+  @PrePersist
+  @PreUpdate
+  public void refreshWellnessScore() {
+    wellnessScore = getWellnessScore();
+  }
+
+  // The one scoring definition; also used by the bulk import, which writes rows without the entity
+  public static Double calculateWellnessScore(Integer moodScore, Integer stressLevel, Integer productivityScore,
+      Integer sleepQuality, Integer energyLevel) {
     if (moodScore == null || stressLevel == null || productivityScore == null ||
         sleepQuality == null || energyLevel == null) {
       return null;
@@ -0,0 +1,16 @@
+package com.focuswell.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import com.focuswell.model.DailyRollupLock;
+
+public interface DailyRollupLockRepository extends JpaRepository<DailyRollupLock, Long> {
+
+    // Creates the user's lock row unless it exists; concurrent callers wait for the first insert
+    @Modifying
+    @Query(value = "INSERT IGNORE INTO daily_rollup_lock (user_id) VALUES (:userId)", nativeQuery = true)
+    int insertIfAbsent(@Param("userId") Long userId);
+}
@@ -0,0 +1,61 @@
+package com.focuswell.repository;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import com.focuswell.model.DailyUserRollup;
+import com.focuswell.model.User;
+
+public interface DailyUserRollupRepository extends JpaRepository<DailyUserRollup, Long> {
+
+    List<DailyUserRollup> findByUserAndDateBetweenOrderByDateAsc(User user, LocalDate start, LocalDate end);
+
+    // Task and habit totals per user, one row per user with rollups from since to end: user id,
+    // tasks due and due tasks completed from weekStart, days with a habit log from weekStart,
+    // and days with a habit log over the whole range
+    @Query("SELECT r.user.id, " +
+            "SUM(CASE WHEN r.date >= :weekStart THEN r.tasksDue ELSE 0 END), " +
+            "SUM(CASE WHEN r.date >= :weekStart THEN r.tasksDueCompleted ELSE 0 END), " +
+            "SUM(CASE WHEN r.date >= :weekStart AND r.habitLogs > 0 THEN 1 ELSE 0 END), " +
+            "SUM(CASE WHEN r.habitLogs > 0 THEN 1 ELSE 0 END) " +
+            "FROM DailyUserRollup r WHERE r.user.id IN :userIds AND r.date BETWEEN :since AND :end " +
+            "GROUP BY r.user.id")
+    List<Object[]> summarizeByUsers(@Param("userIds") Collection<Long> userIds, @Param("since") LocalDate since,
+            @Param("weekStart") LocalDate weekStart, @Param("end") LocalDate end);
+
+    // Adds counter deltas to the user's row for the day, creating it on first write; a single
+    // upsert so concurrent first writes for the same day cannot both insert
+    @Modifying
+    @Query(value = "INSERT INTO daily_user_rollup (user_id, date, habit_logs, tasks_completed, tasks_due, " +
+            "tasks_due_completed, meal_calories, updated_at) VALUES (:userId, :date, :habitLogs, :tasksCompleted, " +
+            ":tasksDue, :tasksDueCompleted, :mealCalories, :now) " +
+            "ON DUPLICATE KEY UPDATE habit_logs = habit_logs + VALUES(habit_logs), " +
+            "tasks_completed = tasks_completed + VALUES(tasks_completed), tasks_due = tasks_due + VALUES(tasks_due), " +
+            "tasks_due_completed = tasks_due_completed + VALUES(tasks_due_completed), " +
+            "meal_calories = meal_calories + VALUES(meal_calories), updated_at = VALUES(updated_at)",
+            nativeQuery = true)
+    int addDeltas(@Param("userId") Long userId, @Param("date") LocalDate date,
+            @Param("habitLogs") int habitLogs, @Param("tasksCompleted") int tasksCompleted,
+            @Param("tasksDue") int tasksDue, @Param("tasksDueCompleted") int tasksDueCompleted,
+            @Param("mealCalories") double mealCalories, @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query(value = "INSERT INTO daily_user_rollup (user_id, date, habit_logs, tasks_completed, tasks_due, " +
+            "tasks_due_completed, wellness_score, meal_calories, updated_at) " +
+            "VALUES (:userId, :date, 0, 0, 0, 0, :score, 0, :now) " +
+            "ON DUPLICATE KEY UPDATE wellness_score = VALUES(wellness_score), updated_at = VALUES(updated_at)",
+            nativeQuery = true)
+    int setWellnessScore(@Param("userId") Long userId, @Param("date") LocalDate date, @Param("score") Double score,
+            @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("DELETE FROM DailyUserRollup r WHERE r.user = :user")
+    void deleteByUser(@Param("user") User user);
+}
@@ -3,7 +3,10 @@ package com.focuswell.repository;
 import java.time.LocalDate;
 import java.util.List;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import com.focuswell.model.Habit;
 import com.focuswell.model.HabitLog;
@@ -14,8 +17,39 @@ public interface HabitLogRepository extends JpaRepository<HabitLog, Long> {
 
     List<HabitLog> findByHabitAndLogDateBetween(Habit habit, LocalDate start, LocalDate end);
 
+    // Keyset pages newest first; the next page starts after the (logDate, id) of the last row
+    List<HabitLog> findByHabitOrderByLogDateDescIdDesc(Habit habit, Pageable pageable);
+
+    @Query("SELECT h FROM HabitLog h WHERE h.habit = :habit AND h.logDate <= :date " +
+            "AND (h.logDate < :date OR h.id < :id) ORDER BY h.logDate DESC, h.id DESC")
+    List<HabitLog> findPageByHabitBefore(@Param("habit") Habit habit, @Param("date") LocalDate date,
+            @Param("id") Long id, Pageable pageable);
+
     List<HabitLog> findByUserAndLogDateBetween(User user, LocalDate start, LocalDate end);
 
     // Add this method to fetch all logs for a user
     List<HabitLog> findByUser(User user);
+
+    // Number of logs per day as (logDate, count) tuples
+    @Query("SELECT h.logDate, COUNT(h) FROM HabitLog h WHERE h.user = :user " +
+            "AND h.logDate BETWEEN :start AND :end GROUP BY h.logDate")
+    List<Object[]> countLogsPerDay(@Param("user") User user, @Param("start") LocalDate start,
+            @Param("end") LocalDate end);
+
+    @Query("SELECT h.logDate, COUNT(h) FROM HabitLog h WHERE h.user = :user GROUP BY h.logDate")
+    List<Object[]> countAllLogsPerDay(@Param("user") User user);
+
+    @Query("SELECT COUNT(DISTINCT h.habit.id) FROM HabitLog h WHERE h.user = :user " +
+            "AND h.logDate BETWEEN :start AND :end")
+    long countDistinctHabits(@Param("user") User user, @Param("start") LocalDate start,
+            @Param("end") LocalDate end);
+
+    @Query("SELECT DISTINCT h.logDate FROM HabitLog h WHERE h.habit = :habit ORDER BY h.logDate")
+    List<LocalDate> findLogDates(@Param("habit") Habit habit);
+
+    // Logs per (habit, day) for a set of habits as (habitId, logDate, count) tuples
+    @Query("SELECT h.habit.id, h.logDate, COUNT(h) FROM HabitLog h WHERE h.habit.id IN :habitIds " +
+            "AND h.logDate BETWEEN :start AND :end GROUP BY h.habit.id, h.logDate ORDER BY h.logDate")
+    List<Object[]> countLogsPerHabitAndDay(@Param("habitIds") List<Long> habitIds,
+            @Param("start") LocalDate start, @Param("end") LocalDate end);
 }
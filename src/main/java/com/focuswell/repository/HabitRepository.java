@@ -4,12 +4,22 @@ import java.util.List;
 import java.util.Optional;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import com.focuswell.model.Habit;
 import com.focuswell.model.User;
 
+import jakarta.persistence.LockModeType;
+
 public interface HabitRepository extends JpaRepository<Habit, Long> {
     List<Habit> findByUser(User user);
 
     Optional<Habit> findById(Long id);
+
+    // Row-locked until the surrounding transaction ends; streak updates go through this
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT h FROM Habit h WHERE h.id = :id")
+    Optional<Habit> findByIdForUpdate(@Param("id") Long id);
 }
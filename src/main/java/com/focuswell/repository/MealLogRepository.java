@@ -4,6 +4,9 @@ import java.time.LocalDate;
 import java.util.List;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import com.focuswell.model.MealLog;
 import com.focuswell.model.User;
@@ -12,4 +15,12 @@ public interface MealLogRepository extends JpaRepository<MealLog, Long> {
   List<MealLog> findByUserAndDate(User user, LocalDate date);
 
   List<MealLog> findByUserAndDateBetween(User user, LocalDate start, LocalDate end);
+
+  @Query("SELECT m.date, SUM(m.totalCalories) FROM MealLog m WHERE m.user = :user GROUP BY m.date")
+  List<Object[]> sumCaloriesPerDay(@Param("user") User user);
+
+  // Number of rows deleted, 0 if another request already removed it
+  @Modifying
+  @Query("DELETE FROM MealLog m WHERE m.id = :id")
+  int removeById(@Param("id") Long id);
 }
@@ -1,7 +1,9 @@
 package com.focuswell.repository;
 
+import java.util.Collection;
 import java.util.List;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -40,6 +42,16 @@ public interface RecommendationRepository extends JpaRepository<Recommendation,
     List<Recommendation> findByUserAndDifficultyLevelOrderByCreatedAtDesc(
             User user, Recommendation.DifficultyLevel difficultyLevel);
 
+    // Active recommendations, most urgent first (priority is stored by name, so rank it explicitly)
+    @Query("SELECT r FROM Recommendation r WHERE r.user = :user AND r.isCompleted = false ORDER BY " +
+            "CASE r.priority WHEN 'URGENT' THEN 0 WHEN 'HIGH' THEN 1 WHEN 'MEDIUM' THEN 2 ELSE 3 END, " +
+            "r.createdAt DESC")
+    List<Recommendation> findTopActiveRecommendations(@Param("user") User user, Pageable pageable);
+
+    // Titles of the active recommendations of a batch of users: user id, title
+    @Query("SELECT r.user.id, r.title FROM Recommendation r WHERE r.user.id IN :userIds AND r.isCompleted = false")
+    List<Object[]> findActiveTitlesByUserIds(@Param("userIds") Collection<Long> userIds);
+
     // Count active recommendations for a user
     long countByUserAndIsCompletedFalse(User user);
 
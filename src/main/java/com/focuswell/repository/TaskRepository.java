@@ -5,6 +5,7 @@ import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -23,6 +24,22 @@ public interface TaskRepository extends JpaRepository<Task, Long> {
 
     List<Task> findByUserAndDueDateBetween(User user, LocalDate startDate, LocalDate endDate);
 
+    // Keyset pages by due date; the next page starts after the (dueDate, id) of the last row
+    List<Task> findByUserOrderByDueDateAscIdAsc(User user, Pageable pageable);
+
+    @Query("SELECT t FROM Task t WHERE t.user = :user AND t.dueDate >= :date " +
+            "AND (t.dueDate > :date OR t.id > :id) ORDER BY t.dueDate ASC, t.id ASC")
+    List<Task> findPageByUserAfter(@Param("user") User user, @Param("date") LocalDate date,
+            @Param("id") Long id, Pageable pageable);
+
+    List<Task> findByUserAndDueDateBetweenOrderByDueDateAscIdAsc(User user, LocalDate startDate,
+            LocalDate endDate, Pageable pageable);
+
+    @Query("SELECT t FROM Task t WHERE t.user = :user AND t.dueDate >= :date AND t.dueDate <= :endDate " +
+            "AND (t.dueDate > :date OR t.id > :id) ORDER BY t.dueDate ASC, t.id ASC")
+    List<Task> findPageByUserAfterUntil(@Param("user") User user, @Param("date") LocalDate date,
+            @Param("id") Long id, @Param("endDate") LocalDate endDate, Pageable pageable);
+
     List<Task> findByUserAndCompletedFalseAndDueDateBefore(User user, LocalDate date);
 
     List<Task> findByUserAndCategory(User user, String category);
@@ -63,4 +80,40 @@ public interface TaskRepository extends JpaRepository<Task, Long> {
 
     @Query("SELECT t FROM Task t WHERE t.user = :user AND t.completed = false AND t.dueDate <= :date ORDER BY t.dueDate ASC")
     List<Task> findPendingTasksByDate(@Param("user") User user, @Param("date") LocalDate date);
+
+    // (total, completed) for tasks due in the range
+    @Query("SELECT COUNT(t), SUM(CASE WHEN t.completed = true THEN 1 ELSE 0 END) FROM Task t " +
+            "WHERE t.user = :user AND t.dueDate BETWEEN :startDate AND :endDate")
+    List<Object[]> countTasksDueBetween(@Param("user") User user, @Param("startDate") LocalDate startDate,
+            @Param("endDate") LocalDate endDate);
+
+    // (completion date, count) for completed tasks due in the range
+    @Query("SELECT CAST(t.completedAt AS LocalDate), COUNT(t) FROM Task t WHERE t.user = :user " +
+            "AND t.dueDate BETWEEN :startDate AND :endDate AND t.completed = true AND t.completedAt IS NOT NULL " +
+            "GROUP BY CAST(t.completedAt AS LocalDate)")
+    List<Object[]> countCompletionsPerDayForTasksDueBetween(@Param("user") User user,
+            @Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate);
+
+    // (total, completed) for tasks created in the range
+    @Query("SELECT COUNT(t), SUM(CASE WHEN t.completed = true THEN 1 ELSE 0 END) FROM Task t " +
+            "WHERE t.user = :user AND t.createdAt BETWEEN :startDate AND :endDate")
+    List<Object[]> countTasksCreatedBetween(@Param("user") User user,
+            @Param("startDate") LocalDateTime startDate, @Param("endDate") LocalDateTime endDate);
+
+    // (completion date, count) for completed tasks created in the range
+    @Query("SELECT CAST(t.completedAt AS LocalDate), COUNT(t) FROM Task t WHERE t.user = :user " +
+            "AND t.createdAt BETWEEN :startDate AND :endDate AND t.completed = true AND t.completedAt IS NOT NULL " +
+            "GROUP BY CAST(t.completedAt AS LocalDate)")
+    List<Object[]> countCompletionsPerDayForTasksCreatedBetween(@Param("user") User user,
+            @Param("startDate") LocalDateTime startDate, @Param("endDate") LocalDateTime endDate);
+
+    // (due date, total, completed) across the user's whole history
+    @Query("SELECT t.dueDate, COUNT(t), SUM(CASE WHEN t.completed = true THEN 1 ELSE 0 END) FROM Task t " +
+            "WHERE t.user = :user GROUP BY t.dueDate")
+    List<Object[]> countTasksPerDueDate(@Param("user") User user);
+
+    // (completion date, count) across the user's whole history
+    @Query("SELECT CAST(t.completedAt AS LocalDate), COUNT(t) FROM Task t WHERE t.user = :user " +
+            "AND t.completed = true AND t.completedAt IS NOT NULL GROUP BY CAST(t.completedAt AS LocalDate)")
+    List<Object[]> countCompletionsPerDay(@Param("user") User user);
 }
@@ -1,8 +1,14 @@
 package com.focuswell.repository;
 
+import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import com.focuswell.model.User;
 
@@ -10,4 +16,17 @@ public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findByEmail(String email);
 
     Optional<User> findByUsername(String username);
+
+    // User ids after afterId in ascending order, for paging through every user
+    @Query("SELECT u.id FROM User u WHERE u.id > :afterId ORDER BY u.id")
+    List<Long> findIdsAfter(@Param("afterId") Long afterId, Pageable pageable);
+
+    // Like findIdsAfter, limited to users whose daily rollup has never been built
+    @Query("SELECT u.id FROM User u WHERE u.id > :afterId AND u.rollupBuiltAt IS NULL ORDER BY u.id")
+    List<Long> findIdsWithoutRollupAfter(@Param("afterId") Long afterId, Pageable pageable);
+
+    // Bulk update so the marker never merges a stale copy of the user over newer changes
+    @Modifying
+    @Query("UPDATE User u SET u.rollupBuiltAt = :builtAt WHERE u.id = :id")
+    int markRollupBuilt(@Param("id") Long id, @Param("builtAt") LocalDateTime builtAt);
 }
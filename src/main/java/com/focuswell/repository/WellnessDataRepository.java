@@ -1,30 +1,61 @@
 package com.focuswell.repository;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import com.focuswell.model.User;
 import com.focuswell.model.WellnessData;
 
+import jakarta.persistence.QueryHint;
+
 @Repository
 public interface WellnessDataRepository extends JpaRepository<WellnessData, Long> {
 
+    // Users with wellness rows written since a point in time, in id order after afterId
+    @Query("SELECT DISTINCT w.user.id FROM WellnessData w WHERE w.updatedAt >= :since AND w.user.id > :afterId " +
+            "ORDER BY w.user.id")
+    List<Long> findUserIdsUpdatedSince(@Param("since") LocalDateTime since, @Param("afterId") Long afterId,
+            Pageable pageable);
+
+    @Query("SELECT COUNT(DISTINCT w.user.id) FROM WellnessData w WHERE w.updatedAt >= :since")
+    long countUsersUpdatedSince(@Param("since") LocalDateTime since);
+
     // Find wellness data by user and date
     Optional<WellnessData> findByUserAndDate(User user, LocalDate date);
 
     // Find all wellness data for a user
     List<WellnessData> findByUserOrderByDateDesc(User user);
 
+    // Keyset pages newest first; the next page starts after the (date, id) of the last row
+    List<WellnessData> findByUserOrderByDateDescIdDesc(User user, Pageable pageable);
+
+    @Query("SELECT w FROM WellnessData w WHERE w.user = :user AND w.date <= :date " +
+            "AND (w.date < :date OR w.id < :id) ORDER BY w.date DESC, w.id DESC")
+    List<WellnessData> findPageByUserBefore(@Param("user") User user, @Param("date") LocalDate date,
+            @Param("id") Long id, Pageable pageable);
+
     // Find wellness data for a user within a date range
     List<WellnessData> findByUserAndDateBetweenOrderByDateDesc(
             User user, LocalDate startDate, LocalDate endDate);
 
+    // Streams a window of entries oldest first; must be consumed inside a transaction
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "100"))
+    Stream<WellnessData> streamByUserAndDateBetweenOrderByDateAsc(
+            User user, LocalDate startDate, LocalDate endDate);
+
     // Find wellness data for a user in the last N days
     @Query("SELECT w FROM WellnessData w WHERE w.user = :user AND w.date >= :startDate ORDER BY w.date DESC")
     List<WellnessData> findByUserAndDateAfterOrderByDateDesc(
@@ -38,24 +69,51 @@ public interface WellnessDataRepository extends JpaRepository<WellnessData, Long
     List<WellnessData> findCompleteWellnessDataByUser(@Param("user") User user);
 
     // Calculate average wellness score for a user in a date range
-    @Query("SELECT AVG(w.moodScore * 0.25 + (11 - w.stressLevel) * 0.20 + " +
-            "w.productivityScore * 0.20 + w.sleepQuality * 0.20 + w.energyLevel * 0.15) " +
-            "FROM WellnessData w WHERE w.user = :user AND w.date BETWEEN :startDate AND :endDate " +
-            "AND w.moodScore IS NOT NULL AND w.stressLevel IS NOT NULL " +
-            "AND w.productivityScore IS NOT NULL AND w.sleepQuality IS NOT NULL " +
-            "AND w.energyLevel IS NOT NULL")
+    @Query("SELECT AVG(w.wellnessScore) FROM WellnessData w WHERE w.user = :user " +
+            "AND w.date BETWEEN :startDate AND :endDate")
     Double calculateAverageWellnessScore(@Param("user") User user,
             @Param("startDate") LocalDate startDate,
             @Param("endDate") LocalDate endDate);
 
     // Find days with low wellness scores (below threshold)
-    @Query("SELECT w FROM WellnessData w WHERE w.user = :user " +
-            "AND w.moodScore * 0.25 + (11 - w.stressLevel) * 0.20 + " +
-            "w.productivityScore * 0.20 + w.sleepQuality * 0.20 + w.energyLevel * 0.15 < :threshold " +
+    @Query("SELECT w FROM WellnessData w WHERE w.user = :user AND w.wellnessScore < :threshold " +
+            "ORDER BY w.date DESC")
+    List<WellnessData> findLowWellnessDays(@Param("user") User user, @Param("threshold") Double threshold);
+
+    // Entry count, latest date and score, average score and the run of consecutive days ending
+    // on :today, in one pass. Dates are unique per user, so a row is in the run exactly when it
+    // sits rn - 1 days before :today in newest-first order.
+    @Query("SELECT COUNT(*), MAX(w.entryDate), MAX(CASE WHEN w.rn = 1 THEN w.score END), AVG(w.score), " +
+            "SUM(CASE WHEN w.entryDate = :today - (w.rn - 1) day THEN 1 ELSE 0 END) " +
+            "FROM (SELECT x.date AS entryDate, ROW_NUMBER() OVER (ORDER BY x.date DESC) AS rn, " +
+            "x.wellnessScore AS score " +
+            "FROM WellnessData x WHERE x.user = :user) w")
+    List<Object[]> summarizeByUser(@Param("user") User user, @Param("today") LocalDate today);
+
+    // Averages of the recommendation inputs since a date, one row per user with entries:
+    // user id, entries, mood, stress, sleep hours, sleep quality, energy, screen time,
+    // social hours, productivity, activity minutes, meditation minutes, water, meals skipped
+    @Query("SELECT w.user.id, COUNT(w), AVG(w.moodScore), AVG(w.stressLevel), AVG(w.sleepHours), " +
+            "AVG(w.sleepQuality), AVG(w.energyLevel), AVG(w.screenTimeHours), AVG(w.socialInteractionHours), " +
+            "AVG(w.productivityScore), AVG(w.physicalActivityMinutes), AVG(w.meditationMinutes), " +
+            "AVG(w.waterIntakeGlasses), AVG(w.mealsSkipped) FROM WellnessData w " +
+            "WHERE w.user.id IN :userIds AND w.date >= :since GROUP BY w.user.id")
+    List<Object[]> summarizeRecentByUsers(@Param("userIds") Collection<Long> userIds,
+            @Param("since") LocalDate since);
+
+    @Query("SELECT MAX(w.id) FROM WellnessData w")
+    Long findMaxId();
+
+    // Stores the score of unscored complete rows with ids in (fromId, toId]. Same formula as
+    // WellnessData.calculateWellnessScore; a bulk update, so updated_at is left as it was.
+    @Modifying
+    @Query("UPDATE WellnessData w SET w.wellnessScore = ROUND(w.moodScore * 0.25 + (11 - w.stressLevel) * 0.20 " +
+            "+ w.productivityScore * 0.20 + w.sleepQuality * 0.20 + w.energyLevel * 0.15, 2) " +
+            "WHERE w.id > :fromId AND w.id <= :toId AND w.wellnessScore IS NULL " +
             "AND w.moodScore IS NOT NULL AND w.stressLevel IS NOT NULL " +
             "AND w.productivityScore IS NOT NULL AND w.sleepQuality IS NOT NULL " +
-            "AND w.energyLevel IS NOT NULL ORDER BY w.date DESC")
-    List<WellnessData> findLowWellnessDays(@Param("user") User user, @Param("threshold") Double threshold);
+            "AND w.energyLevel IS NOT NULL")
+    int fillMissingScores(@Param("fromId") Long fromId, @Param("toId") Long toId);
 
     // Count wellness entries for a user
     long countByUser(User user);
@@ -7,14 +7,41 @@ import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 
+import com.focuswell.cache.UserSnapshot;
 import com.focuswell.model.User;
 
-import lombok.AllArgsConstructor;
-
-@AllArgsConstructor
 public class CustomUserDetails implements UserDetails {
 
+    private static final List<GrantedAuthority> DEFAULT_AUTHORITIES = List.of(new SimpleGrantedAuthority("ROLE_USER"));
+
     private final User user;
+    private final List<GrantedAuthority> authorities;
+
+    public CustomUserDetails(User user) {
+        this(user, DEFAULT_AUTHORITIES);
+    }
+
+    private CustomUserDetails(User user, List<GrantedAuthority> authorities) {
+        this.user = user;
+        this.authorities = authorities;
+    }
+
+    /**
+     * Principal built from a cached snapshot for a verified token. The wrapped
+     * {@link User} only carries id, username and the active flag, and no password;
+     * load the entity if anything else is needed.
+     */
+    public static CustomUserDetails fromSnapshot(UserSnapshot snapshot) {
+        User user = new User();
+        user.setId(snapshot.id());
+        user.setUsername(snapshot.username());
+        user.setActive(snapshot.active());
+        List<String> roles = snapshot.roles();
+        List<GrantedAuthority> authorities = roles.isEmpty()
+                ? DEFAULT_AUTHORITIES
+                : roles.stream().<GrantedAuthority>map(SimpleGrantedAuthority::new).toList();
+        return new CustomUserDetails(user, authorities);
+    }
 
     public Long getId() {
         return user.getId();
@@ -26,7 +53,7 @@ public class CustomUserDetails implements UserDetails {
 
     @Override
     public Collection<? extends GrantedAuthority> getAuthorities() {
-        return List.of(new SimpleGrantedAuthority("ROLE_USER"));
+        return authorities;
     }
 
     @Override
@@ -56,6 +83,6 @@ public class CustomUserDetails implements UserDetails {
 
     @Override
     public boolean isEnabled() {
-        return true;
+        return user.isActive();
     }
 }
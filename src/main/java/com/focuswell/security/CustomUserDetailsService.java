@@ -1,10 +1,14 @@
 package com.focuswell.security;
 
+import java.util.Optional;
+
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 
+import com.focuswell.cache.UserCache;
+import com.focuswell.cache.UserSnapshot;
 import com.focuswell.model.User;
 import com.focuswell.repository.UserRepository;
 
@@ -14,8 +18,10 @@ import lombok.RequiredArgsConstructor;
 @RequiredArgsConstructor
 public class CustomUserDetailsService implements UserDetailsService {
 
+    private final UserCache userCache;
     private final UserRepository userRepository;
 
+    // Full entity, password included, for password authentication
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
         User user = userRepository.findByUsername(username)
@@ -23,7 +29,18 @@ public class CustomUserDetailsService implements UserDetailsService {
         return new CustomUserDetails(user);
     }
 
-    // Added method to return User object for UserController
+    // Principal for a verified token, from the cached user so deleted or deactivated
+    // accounts lose access within user.cache.ttl; tokens without a uid claim go by username
+    public UserDetails loadUserFromClaims(JwtClaims claims) {
+        Optional<UserSnapshot> user = claims.getUserId() != null
+                ? userCache.findById(claims.getUserId())
+                : userCache.findByUsername(claims.getUsername());
+        return user.map(CustomUserDetails::fromSnapshot)
+                .orElseThrow(() -> new UsernameNotFoundException(
+                        "User not found with username: " + claims.getUsername()));
+    }
+
+    // Freshly loaded entity for UserController; never shared with other requests
     public User findByUsername(String username) {
         return userRepository.findByUsername(username).orElse(null);
     }
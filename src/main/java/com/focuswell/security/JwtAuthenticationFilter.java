@@ -49,14 +49,15 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
         try {
             String token = authorizationHeader.substring(7);
-            String username = jwtUtil.extractUsername(token);
+            JwtClaims claims = jwtUtil.parse(token);
+            String username = claims.getUsername();
             logger.debug("Extracted username from JWT: {}", username);
 
             if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-                UserDetails userDetails = userDetailsService.loadUserByUsername(username);
+                UserDetails userDetails = userDetailsService.loadUserFromClaims(claims);
                 logger.debug("User loaded: {}", userDetails.getUsername());
 
-                if (jwtUtil.isTokenValid(token, userDetails)) {
+                if (jwtUtil.isTokenValid(claims, userDetails)) {
                     logger.debug("Token valid for user: {}", username);
                     UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
                             userDetails, null, userDetails.getAuthorities());
@@ -0,0 +1,58 @@
+package com.focuswell.security;
+
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+
+import io.jsonwebtoken.Claims;
+
+/**
+ * Claims of a token whose signature has already been verified, so callers can
+ * read the subject and expiry repeatedly without parsing the token again.
+ */
+public class JwtClaims {
+
+    private final Claims claims;
+    private final long expiresAtMillis;
+
+    public JwtClaims(Claims claims) {
+        this.claims = claims;
+        Date expiration = claims.getExpiration();
+        this.expiresAtMillis = expiration != null ? expiration.getTime() : Long.MAX_VALUE;
+    }
+
+    public String getUsername() {
+        return claims.getSubject();
+    }
+
+    // Null for tokens issued before the uid claim existed
+    public Long getUserId() {
+        Object uid = claims.get(JwtUtil.CLAIM_USER_ID);
+        return uid instanceof Number n ? n.longValue() : null;
+    }
+
+    public List<String> getRoles() {
+        Object roles = claims.get(JwtUtil.CLAIM_ROLES);
+        if (roles instanceof Collection<?> values) {
+            return values.stream().map(String::valueOf).toList();
+        }
+        return List.of();
+    }
+
+    public long getIssuedAtSeconds() {
+        Date issuedAt = claims.getIssuedAt();
+        return issuedAt != null ? issuedAt.getTime() / 1000 : 0L;
+    }
+
+    public Claims getClaims() {
+        return claims;
+    }
+
+    public long getExpiresAtMillis() {
+        return expiresAtMillis;
+    }
+
+    public boolean isExpired() {
+        return expiresAtMillis <= System.currentTimeMillis();
+    }
+}
@@ -1,66 +1,141 @@
 package com.focuswell.security;
 
+import java.nio.charset.StandardCharsets;
 import java.security.Key;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
 import java.util.Date;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Function;
 
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
 
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtBuilder;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
 
 @Component
 public class JwtUtil {
 
+    static final String CLAIM_USER_ID = "uid";
+    static final String CLAIM_ROLES = "roles";
+
     @Value("${jwt.secret}")
     private String SECRET;
 
-    // move to application.properties/env
+    // Number of recently verified tokens kept so repeat requests skip the HMAC check
+    @Value("${jwt.verified-cache.size:10000}")
+    private int verifiedCacheSize;
 
-    public String extractUsername(String token) {
-        return extractClaim(token, Claims::getSubject); // usually email
+    private Key signingKey;
+    private JwtParser parser;
+    // SHA-256 of the token -> its verified claims
+    private final Map<String, JwtClaims> verified = new ConcurrentHashMap<>();
+
+    private final TokenRevocationRegistry revocations;
+
+    public JwtUtil(TokenRevocationRegistry revocations) {
+        this.revocations = revocations;
     }
 
-    public <T> T extractClaim(String token, Function<Claims, T> resolver) {
-        final Claims claims = extractAllClaims(token);
-        return resolver.apply(claims);
+    @PostConstruct
+    void init() {
+        byte[] keyBytes = Decoders.BASE64.decode(SECRET);
+        signingKey = Keys.hmacShaKeyFor(keyBytes);
+        parser = Jwts.parserBuilder().setSigningKey(signingKey).build();
     }
 
-    private Claims extractAllClaims(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+    /**
+     * Verifies the token once and returns its claims. Tokens verified earlier are
+     * served from a bounded cache, keyed by a SHA-256 of the token, until they expire;
+     * invalid or expired tokens throw the usual {@link io.jsonwebtoken.JwtException}.
+     */
+    public JwtClaims parse(String token) {
+        String key = digest(token);
+        JwtClaims cached = verified.get(key);
+        if (cached != null) {
+            if (!cached.isExpired()) {
+                return cached;
+            }
+            verified.remove(key, cached);
+        }
+
+        JwtClaims claims = new JwtClaims(parser.parseClaimsJws(token).getBody());
+        verified.put(key, claims);
+        if (verified.size() > verifiedCacheSize) {
+            trim();
+        }
+        return claims;
     }
 
-    public Boolean isTokenValid(String token, UserDetails userDetails) {
-        final String username = extractUsername(token);
+    int cachedTokenCount() {
+        return verified.size();
+    }
 
-        return username.equals(userDetails.getUsername()) && !isTokenExpired(token);
+    // Drops expired entries, then arbitrary ones, until the cache is back within its size
+    private void trim() {
+        long now = System.currentTimeMillis();
+        verified.values().removeIf(claims -> claims.getExpiresAtMillis() <= now);
+        Iterator<String> keys = verified.keySet().iterator();
+        while (verified.size() > verifiedCacheSize && keys.hasNext()) {
+            keys.next();
+            keys.remove();
+        }
     }
 
-    private Boolean isTokenExpired(String token) {
-        return extractClaim(token, Claims::getExpiration).before(new Date());
+    private static String digest(String token) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.US_ASCII));
+            return Base64.getEncoder().encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    public boolean isTokenValid(JwtClaims claims, UserDetails userDetails) {
+        return claims.getUsername() != null
+                && claims.getUsername().equals(userDetails.getUsername())
+                && userDetails.isEnabled()
+                && !claims.isExpired()
+                && !revocations.isRevoked(claims);
+    }
+
+    public String extractUsername(String token) {
+        return parse(token).getUsername(); // usually email
+    }
+
+    public <T> T extractClaim(String token, Function<Claims, T> resolver) {
+        return resolver.apply(parse(token).getClaims());
+    }
+
+    public Boolean isTokenValid(String token, UserDetails userDetails) {
+        return isTokenValid(parse(token), userDetails);
     }
 
     public String generateToken(UserDetails userDetails) {
-        return Jwts.builder()
+        JwtBuilder builder = Jwts.builder()
                 .setSubject(userDetails.getUsername()) // make sure this returns email or username consistently
                 .setIssuedAt(new Date())
                 .setExpiration(new Date(System.currentTimeMillis() + 1000 * 60 * 60 * 10)) // 10 hours
-                .signWith(getSigningKey(), SignatureAlgorithm.HS256)
-                .compact();
-    }
-
-    private Key getSigningKey() {
-        byte[] keyBytes = Decoders.BASE64.decode(SECRET);
-        return Keys.hmacShaKeyFor(keyBytes);
+                .claim(CLAIM_ROLES, userDetails.getAuthorities().stream()
+                        .map(GrantedAuthority::getAuthority)
+                        .toList());
+        // With the user id in the token, requests are authenticated through the id-keyed user cache
+        if (userDetails instanceof CustomUserDetails custom && custom.getId() != null) {
+            builder.claim(CLAIM_USER_ID, custom.getId());
+        }
+        return builder.signWith(signingKey, SignatureAlgorithm.HS256).compact();
     }
 
 }
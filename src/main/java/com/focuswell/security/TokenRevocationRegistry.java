@@ -0,0 +1,38 @@
+package com.focuswell.security;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Rejects tokens issued before a user's last revocation (for example a password
+ * change). State is in memory only, so revocations do not survive a restart.
+ */
+@Component
+public class TokenRevocationRegistry {
+
+    private final boolean enabled;
+    // userId -> epoch second before which that user's tokens are rejected
+    private final Map<Long, Long> revokedBefore = new ConcurrentHashMap<>();
+
+    public TokenRevocationRegistry(@Value("${jwt.revocation.enabled:true}") boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public void revokeAll(Long userId) {
+        if (enabled && userId != null) {
+            revokedBefore.put(userId, System.currentTimeMillis() / 1000);
+        }
+    }
+
+    public boolean isRevoked(JwtClaims claims) {
+        if (!enabled || claims.getUserId() == null) {
+            return false;
+        }
+        Long cutoff = revokedBefore.get(claims.getUserId());
+        // iat has second precision, so tokens issued in the revocation second stay valid
+        return cutoff != null && claims.getIssuedAtSeconds() < cutoff;
+    }
+}
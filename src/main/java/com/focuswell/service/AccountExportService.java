@@ -0,0 +1,165 @@
+package com.focuswell.service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.Semaphore;
+import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.focuswell.model.Habit;
+import com.focuswell.model.HabitLog;
+import com.focuswell.model.MealLog;
+import com.focuswell.model.MealPlan;
+import com.focuswell.model.NutritionProfile;
+import com.focuswell.model.Recommendation;
+import com.focuswell.model.RiskAssessment;
+import com.focuswell.model.Task;
+import com.focuswell.model.User;
+import com.focuswell.model.WeightLog;
+import com.focuswell.model.WellnessData;
+
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Full-account data export: one NDJSON entry per entity type inside a zip, written
+ * straight to the response. Rows are read through forward-only result streams and
+ * detached once written, so memory use does not grow with the size of the history.
+ * Each export holds a pooled connection in one read-only transaction until it is
+ * written, so at most {@code export.max-concurrent} run at once.
+ */
+@Service
+@Slf4j
+public class AccountExportService {
+
+  // Entity types in the export and the path from each to its owner. Rollups are left
+  // out because they are derived from the rest.
+  private record Section(String entry, Class<?> type, String ownerPath) {
+  }
+
+  private static final List<Section> SECTIONS = List.of(
+      new Section("wellness_data.ndjson", WellnessData.class, "user.id"),
+      new Section("tasks.ndjson", Task.class, "user.id"),
+      new Section("habits.ndjson", Habit.class, "user.id"),
+      new Section("habit_logs.ndjson", HabitLog.class, "habit.user.id"),
+      new Section("meal_logs.ndjson", MealLog.class, "user.id"),
+      new Section("meal_plans.ndjson", MealPlan.class, "user.id"),
+      new Section("weight_logs.ndjson", WeightLog.class, "user.id"),
+      new Section("nutrition_profiles.ndjson", NutritionProfile.class, "user.id"),
+      new Section("risk_assessments.ndjson", RiskAssessment.class, "user.id"),
+      new Section("recommendations.ndjson", Recommendation.class, "user.id"));
+
+  // Every row belongs to the exporting user, so the back-reference is left out of each line
+  @JsonIgnoreProperties({ "user", "hibernateLazyInitializer", "handler" })
+  private abstract static class ExportMixin {
+  }
+
+  // Credentials never leave the server
+  @JsonIgnoreProperties({ "password", "hibernateLazyInitializer", "handler" })
+  private abstract static class UserExportMixin {
+  }
+
+  private final EntityManager entityManager;
+  private final TransactionTemplate transactionTemplate;
+  private final ObjectMapper exportMapper;
+  private final int fetchSize;
+  private final Semaphore slots;
+
+  // Writes one reserved export; same shape as a StreamingResponseBody
+  public interface Export {
+    void writeTo(OutputStream out) throws IOException;
+  }
+
+  public AccountExportService(EntityManager entityManager, TransactionTemplate transactionTemplate,
+      ObjectMapper objectMapper, @Value("${export.fetch-size:500}") int fetchSize,
+      @Value("${export.max-concurrent:2}") int maxConcurrent) {
+    this.entityManager = entityManager;
+    this.transactionTemplate = new TransactionTemplate(transactionTemplate.getTransactionManager());
+    this.transactionTemplate.setReadOnly(true);
+    this.exportMapper = objectMapper.copy()
+        .addMixIn(Object.class, ExportMixin.class)
+        .addMixIn(User.class, UserExportMixin.class)
+        .configure(JsonGenerator.Feature.AUTO_CLOSE_TARGET, false);
+    this.fetchSize = fetchSize;
+    this.slots = new Semaphore(Math.max(1, maxConcurrent));
+  }
+
+  // Claims an export slot, or returns empty when max-concurrent exports are running;
+  // the slot is freed when the returned export has been written
+  public Optional<Export> reserve(User user) {
+    if (!slots.tryAcquire()) {
+      log.warn("Export rejected for user {}: all export slots busy", user.getId());
+      return Optional.empty();
+    }
+    return Optional.of(out -> {
+      try {
+        export(user, out);
+      } finally {
+        slots.release();
+      }
+    });
+  }
+
+  private void export(User user, OutputStream out) throws IOException {
+    long start = System.nanoTime();
+    ZipOutputStream zip = new ZipOutputStream(out);
+    long rows;
+    try {
+      rows = transactionTemplate.execute(status -> {
+        long written = 0;
+        try {
+          zip.putNextEntry(new ZipEntry("account.json"));
+          exportMapper.writeValue(zip, entityManager.find(User.class, user.getId()));
+          zip.closeEntry();
+          for (Section section : SECTIONS) {
+            written += writeSection(zip, section, user.getId());
+          }
+        } catch (IOException e) {
+          throw new UncheckedIOException(e);
+        }
+        return written;
+      });
+    } catch (UncheckedIOException e) {
+      throw e.getCause();
+    }
+    zip.finish();
+    log.info("Exported {} rows for user {} in {} ms", rows, user.getId(), (System.nanoTime() - start) / 1_000_000);
+  }
+
+  private long writeSection(ZipOutputStream zip, Section section, Long userId) throws IOException {
+    zip.putNextEntry(new ZipEntry(section.entry()));
+    long count = 0;
+    String jpql = "SELECT e FROM " + section.type().getSimpleName() + " e WHERE e." + section.ownerPath()
+        + " = :userId ORDER BY e.id";
+    try (Stream<?> rows = entityManager.createQuery(jpql, section.type())
+        .setParameter("userId", userId)
+        .setHint(HibernateHints.HINT_FETCH_SIZE, fetchSize)
+        .setHint(HibernateHints.HINT_READ_ONLY, true)
+        .getResultStream()) {
+      Iterator<?> it = rows.iterator();
+      while (it.hasNext()) {
+        Object row = it.next();
+        exportMapper.writeValue(zip, row);
+        zip.write('\n');
+        // Written rows are not needed again; only shared references such as a log's habit stay managed
+        entityManager.detach(row);
+        count++;
+      }
+    }
+    zip.closeEntry();
+    return count;
+  }
+}
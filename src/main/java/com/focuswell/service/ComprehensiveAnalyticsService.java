@@ -0,0 +1,357 @@
+package com.focuswell.service;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import com.focuswell.dto.AnalyticsResponse;
+import com.focuswell.dto.WellnessTrends;
+import com.focuswell.model.Recommendation;
+import com.focuswell.model.RiskAssessment;
+import com.focuswell.model.User;
+import com.focuswell.model.WellnessData;
+import com.focuswell.repository.RecommendationRepository;
+import com.focuswell.repository.RiskAssessmentRepository;
+import com.focuswell.repository.WellnessDataRepository;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Builds the comprehensive analytics response. Its sections read unrelated tables, so
+ * they run concurrently on a small bounded pool and the response takes as long as the
+ * slowest one. Each section returns the fields it fills and they are applied on the
+ * calling thread; a section that fails or overruns the timeout leaves its fields empty.
+ */
+@Service
+@Slf4j
+public class ComprehensiveAnalyticsService {
+
+  private static final int RECENT_DAYS = 30;
+  private static final int TREND_DAYS = 7;
+  private static final int TOP_RECOMMENDATIONS = 3;
+  // Week-over-week change, in score points, that counts as a trend rather than noise
+  private static final double TREND_THRESHOLD = 0.5;
+
+  // The five score inputs, each on a 1-10 scale; stress is the one where lower is better
+  private record Category(String key, String label, boolean inverted) {
+  }
+
+  private static final List<Category> CATEGORIES = List.of(
+      new Category("mood", "Mood", false),
+      new Category("stress", "Stress", true),
+      new Category("productivity", "Productivity", false),
+      new Category("sleepQuality", "Sleep", false),
+      new Category("energy", "Energy", false));
+
+  private final WellnessDataService wellnessDataService;
+  private final WellnessDataRepository wellnessDataRepository;
+  private final RiskAssessmentRepository riskAssessmentRepository;
+  private final RecommendationRepository recommendationRepository;
+  private final DailyBucketAggregator bucketAggregator;
+  private final WellnessTrendEngine trendEngine;
+  private final EntityManager entityManager;
+  private final MeterRegistry meterRegistry;
+  private final ThreadPoolExecutor executor;
+  private final Duration timeout;
+  private final Timer totalTimer;
+
+  public ComprehensiveAnalyticsService(WellnessDataService wellnessDataService,
+      WellnessDataRepository wellnessDataRepository, RiskAssessmentRepository riskAssessmentRepository,
+      RecommendationRepository recommendationRepository, DailyBucketAggregator bucketAggregator,
+      WellnessTrendEngine trendEngine, EntityManager entityManager, MeterRegistry meterRegistry,
+      @Value("${analytics.comprehensive.threads:8}") int threads,
+      @Value("${analytics.comprehensive.queue-capacity:64}") int queueCapacity,
+      @Value("${analytics.comprehensive.timeout:PT5S}") Duration timeout) {
+    this.wellnessDataService = wellnessDataService;
+    this.wellnessDataRepository = wellnessDataRepository;
+    this.riskAssessmentRepository = riskAssessmentRepository;
+    this.recommendationRepository = recommendationRepository;
+    this.bucketAggregator = bucketAggregator;
+    this.trendEngine = trendEngine;
+    this.entityManager = entityManager;
+    this.meterRegistry = meterRegistry;
+    this.timeout = timeout;
+
+    AtomicInteger threadNumber = new AtomicInteger();
+    // When the pool and queue are full the request thread runs the section itself
+    this.executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+        new ArrayBlockingQueue<>(Math.max(1, queueCapacity)), runnable -> {
+          Thread thread = new Thread(runnable, "analytics-" + threadNumber.incrementAndGet());
+          thread.setDaemon(true);
+          return thread;
+        }, new ThreadPoolExecutor.CallerRunsPolicy());
+    this.executor.allowCoreThreadTimeOut(true);
+    new ExecutorServiceMetrics(executor, "analytics.comprehensive", Tags.empty()).bindTo(meterRegistry);
+    this.totalTimer = meterRegistry.timer("analytics.comprehensive");
+  }
+
+  @PreDestroy
+  void shutdown() {
+    executor.shutdownNow();
+  }
+
+  public AnalyticsResponse analyze(Long userId) {
+    // An unloaded reference needs no connection on this thread; with open-in-view a request thread
+    // keeps any connection it touches, and enough of those blocked here would starve the sections
+    User user = entityManager.getReference(User.class, userId);
+    return totalTimer.record(() -> {
+      LocalDate today = LocalDate.now();
+      List<CompletableFuture<Consumer<AnalyticsResponse>>> sections = List.of(
+          section("wellness-stats", () -> wellnessStats(user)),
+          section("recent-data", () -> recentData(user, today)),
+          section("wellness-trends", () -> wellnessTrends(user)),
+          section("risk", () -> risk(user)),
+          section("recommendations", () -> recommendations(user)),
+          section("activity", () -> activity(user, today)));
+
+      try {
+        CompletableFuture.allOf(sections.toArray(CompletableFuture[]::new))
+            .get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+      } catch (TimeoutException | ExecutionException e) {
+        // Whatever finished is still used; failures were logged by their section
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+
+      AnalyticsResponse response = new AnalyticsResponse();
+      for (CompletableFuture<Consumer<AnalyticsResponse>> section : sections) {
+        if (section.isDone() && !section.isCompletedExceptionally()) {
+          section.join().accept(response);
+        } else {
+          section.cancel(false);
+        }
+      }
+      response.setPrimaryInsight(primaryInsight(response));
+      return response;
+    });
+  }
+
+  private CompletableFuture<Consumer<AnalyticsResponse>> section(String name,
+      Supplier<Consumer<AnalyticsResponse>> work) {
+    return CompletableFuture.supplyAsync(() -> {
+      long start = System.nanoTime();
+      String outcome = "success";
+      try {
+        return work.get();
+      } catch (RuntimeException e) {
+        outcome = "failure";
+        log.warn("Analytics section {} failed: {}", name, e.getMessage());
+        throw e;
+      } finally {
+        meterRegistry.timer("analytics.comprehensive.section", "section", name, "outcome", outcome)
+            .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+      }
+    }, executor);
+  }
+
+  private Consumer<AnalyticsResponse> wellnessStats(User user) {
+    WellnessDataService.WellnessStats stats = wellnessDataService.getWellnessStats(user.getId());
+    return response -> {
+      response.setCurrentWellnessScore(stats.getCurrentWellnessScore());
+      response.setAverageWellnessScore(stats.getAverageWellnessScore());
+      response.setWellnessLevel(wellnessLevel(stats.getCurrentWellnessScore()));
+      response.setDaysTracked(stats.getTotalEntries() != null ? stats.getTotalEntries().intValue() : 0);
+      response.setStreakDays(stats.getStreakDays());
+      response.setLastEntryDate(stats.getLastEntryDate());
+    };
+  }
+
+  // Last 30 days as a daily series, oldest first
+  private Consumer<AnalyticsResponse> recentData(User user, LocalDate today) {
+    List<WellnessData> rows = wellnessDataRepository.findByUserAndDateAfterOrderByDateDesc(user,
+        today.minusDays(RECENT_DAYS - 1));
+    List<AnalyticsResponse.DailyWellnessData> recent = new ArrayList<>(rows.size());
+    for (int i = rows.size() - 1; i >= 0; i--) {
+      recent.add(toDaily(rows.get(i)));
+    }
+    boolean hasToday = !rows.isEmpty() && today.equals(rows.get(0).getDate());
+    return response -> {
+      response.setRecentData(recent);
+      response.setHasRecentData(hasToday);
+    };
+  }
+
+  // Category averages and week-over-week changes, read from the in-memory rolling windows
+  private Consumer<AnalyticsResponse> wellnessTrends(User user) {
+    WellnessTrends trends = trendEngine.trends(user);
+    Map<String, WellnessTrends.MetricTrend> metrics = trends.getMetrics();
+
+    Map<String, Double> categoryAverages = new LinkedHashMap<>();
+    List<String> positiveTrends = new ArrayList<>();
+    Map<String, Double> normalized = new LinkedHashMap<>();
+    for (Category category : CATEGORIES) {
+      WellnessTrends.MetricTrend metric = metrics.get(category.key());
+      if (metric == null || metric.getAverage30Days() == null) {
+        continue;
+      }
+      categoryAverages.put(category.key(), metric.getAverage30Days());
+      // Strongest and weakest categories on the same higher-is-better scale
+      normalized.put(category.label(),
+          category.inverted() ? 11 - metric.getAverage30Days() : metric.getAverage30Days());
+
+      Double change = metric.getWeekOverWeekChange();
+      if (change != null && (category.inverted() ? -change : change) >= TREND_THRESHOLD) {
+        String direction = category.inverted() ? "down" : "up";
+        positiveTrends.add(category.label() + " " + direction + " " + Math.abs(change) + " points this week");
+      }
+    }
+    WellnessTrends.MetricTrend sleepHours = metrics.get("sleepHours");
+    if (sleepHours != null && sleepHours.getAverage30Days() != null) {
+      categoryAverages.put("sleepHours", sleepHours.getAverage30Days());
+    }
+    WellnessTrends.MetricTrend score = metrics.get("wellnessScore");
+    Double trend = score != null ? score.getWeekOverWeekChange() : null;
+
+    String strength = normalized.entrySet().stream().max(Map.Entry.comparingByValue())
+        .map(Map.Entry::getKey).orElse(null);
+    String improvement = normalized.entrySet().stream().min(Map.Entry.comparingByValue())
+        .map(Map.Entry::getKey).orElse(null);
+
+    return response -> {
+      response.setTrends(trends);
+      response.setCategoryAverages(categoryAverages);
+      response.setWellnessScoreTrend(trend);
+      response.setPositiveTrends(positiveTrends);
+      response.setStrengthArea(strength);
+      response.setImprovementArea(normalized.size() > 1 ? improvement : null);
+    };
+  }
+
+  private Consumer<AnalyticsResponse> risk(User user) {
+    RiskAssessment latest = riskAssessmentRepository.findLatestAssessment(user).orElse(null);
+    if (latest == null) {
+      return response -> response.setRiskFactors(List.of());
+    }
+    List<String> factors = latest.getRiskFactors() == null ? List.of()
+        : Arrays.stream(latest.getRiskFactors().split("[;\\n]")).map(String::strip).filter(f -> !f.isEmpty())
+            .toList();
+    return response -> {
+      response.setOverallRiskLevel(latest.getOverallRiskLevel() != null ? latest.getOverallRiskLevel().name() : null);
+      response.setDepressionRisk(latest.getDepressionRisk());
+      response.setAnxietyRisk(latest.getAnxietyRisk());
+      response.setBurnoutRisk(latest.getBurnoutRisk());
+      response.setRequiresImmediateAttention(latest.getRequiresImmediateAttention());
+      response.setShouldContactProfessional(latest.getShouldContactProfessional());
+      response.setRiskFactors(factors);
+    };
+  }
+
+  private Consumer<AnalyticsResponse> recommendations(User user) {
+    long active = recommendationRepository.countByUserAndIsCompletedFalse(user);
+    long highPriority = active == 0 ? 0 : recommendationRepository.countHighPriorityActiveRecommendations(user);
+    List<AnalyticsResponse.RecommendationSummary> top = active == 0 ? List.of()
+        : recommendationRepository.findTopActiveRecommendations(user, PageRequest.of(0, TOP_RECOMMENDATIONS))
+            .stream().map(ComprehensiveAnalyticsService::toSummary).toList();
+    return response -> {
+      response.setActiveRecommendations((int) active);
+      response.setHighPriorityRecommendations((int) highPriority);
+      response.setTopRecommendations(top);
+    };
+  }
+
+  // Task completion and habit consistency over the last 7 days, from the daily rollups
+  private Consumer<AnalyticsResponse> activity(User user, LocalDate today) {
+    DailyBucketAggregator.RollupSeries rollups = bucketAggregator.rollups(user,
+        today.minusDays(TREND_DAYS - 1), today);
+    Double completionRate = rollups.getTasksDue() > 0
+        ? round((double) rollups.getTasksDueCompleted() / rollups.getTasksDue())
+        : null;
+    double consistency = round((double) rollups.getHabitLogsPerDay().daysWithAny() / TREND_DAYS);
+    return response -> {
+      response.setTaskCompletionRate(completionRate);
+      response.setHabitConsistency(consistency);
+    };
+  }
+
+  private static String primaryInsight(AnalyticsResponse response) {
+    if (Boolean.TRUE.equals(response.getRequiresImmediateAttention())) {
+      return "Your latest assessment suggests reaching out for support soon.";
+    }
+    if (response.getDaysTracked() == null || response.getDaysTracked() == 0) {
+      return "Log your first wellness entry to start seeing insights.";
+    }
+    Double trend = response.getWellnessScoreTrend();
+    if (trend != null && trend <= -TREND_THRESHOLD) {
+      String focus = response.getImprovementArea() != null
+          ? " " + response.getImprovementArea() + " is the area to focus on."
+          : "";
+      return "Your wellness score dropped " + Math.abs(trend) + " points this week." + focus;
+    }
+    if (trend != null && trend >= TREND_THRESHOLD) {
+      return "Your wellness score is up " + trend + " points this week.";
+    }
+    if (response.getStreakDays() != null && response.getStreakDays() >= TREND_DAYS) {
+      return "You have tracked " + response.getStreakDays() + " days in a row. Keep it going.";
+    }
+    return "Your wellness has been steady this week.";
+  }
+
+  // Same bands as the dashboard
+  private static String wellnessLevel(Double score) {
+    if (score == null) {
+      return null;
+    }
+    if (score >= 8) {
+      return "Excellent";
+    }
+    if (score >= 6) {
+      return "Good";
+    }
+    if (score >= 4) {
+      return "Fair";
+    }
+    return "Poor";
+  }
+
+  private static AnalyticsResponse.DailyWellnessData toDaily(WellnessData w) {
+    AnalyticsResponse.DailyWellnessData day = new AnalyticsResponse.DailyWellnessData();
+    day.setDate(w.getDate());
+    day.setWellnessScore(w.getWellnessScore());
+    day.setMoodScore(w.getMoodScore());
+    day.setStressLevel(w.getStressLevel());
+    day.setProductivityScore(w.getProductivityScore());
+    day.setSleepQuality(w.getSleepQuality());
+    day.setEnergyLevel(w.getEnergyLevel());
+    day.setNotes(w.getNotes());
+    return day;
+  }
+
+  private static AnalyticsResponse.RecommendationSummary toSummary(Recommendation r) {
+    AnalyticsResponse.RecommendationSummary summary = new AnalyticsResponse.RecommendationSummary();
+    summary.setId(r.getId());
+    summary.setTitle(r.getTitle());
+    summary.setDescription(r.getDescription());
+    summary.setPriority(r.getPriority() != null ? r.getPriority().name() : null);
+    summary.setDifficultyLevel(r.getDifficultyLevel() != null ? r.getDifficultyLevel().name() : null);
+    summary.setEstimatedTimeMinutes(r.getEstimatedTimeMinutes());
+    summary.setCategory(r.getCategory());
+    return summary;
+  }
+
+  private static double round(double value) {
+    return Math.round(value * 100.0) / 100.0;
+  }
+}
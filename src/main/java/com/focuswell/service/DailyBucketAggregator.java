@@ -0,0 +1,128 @@
+package com.focuswell.service;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.List;
+
+import org.springframework.stereotype.Component;
+
+import com.focuswell.model.DailyUserRollup;
+import com.focuswell.model.User;
+import com.focuswell.repository.DailyUserRollupRepository;
+import com.focuswell.repository.HabitLogRepository;
+import com.focuswell.repository.TaskRepository;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Builds per-day activity series for the analytics endpoints. Series come from
+ * daily_user_rollup where possible, so reads are O(days) regardless of history;
+ * the rest is counted in the database and only (date, count) tuples are loaded.
+ */
+@Component
+@RequiredArgsConstructor
+public class DailyBucketAggregator {
+
+    private final HabitLogRepository habitLogRepository;
+    private final TaskRepository taskRepository;
+    private final DailyUserRollupRepository rollupRepository;
+
+    public RollupSeries rollups(User user, LocalDate start, LocalDate end) {
+        RollupSeries series = new RollupSeries(start, end);
+        for (DailyUserRollup rollup : rollupRepository.findByUserAndDateBetweenOrderByDateAsc(user, start, end)) {
+            series.habitLogsPerDay.add(rollup.getDate(), rollup.getHabitLogs());
+            series.completionsPerDay.add(rollup.getDate(), rollup.getTasksCompleted());
+            series.tasksDue += rollup.getTasksDue();
+            series.tasksDueCompleted += rollup.getTasksDueCompleted();
+        }
+        return series;
+    }
+
+    public long activeHabits(User user, LocalDate start, LocalDate end) {
+        return habitLogRepository.countDistinctHabits(user, start, end);
+    }
+
+    // Tasks created within the window; completions are bucketed by completion date
+    public TaskActivity tasksCreatedBetween(User user, LocalDate start, LocalDate end) {
+        DailyBuckets completions = new DailyBuckets(start, end);
+        fill(completions, taskRepository.countCompletionsPerDayForTasksCreatedBetween(user,
+                start.atStartOfDay(), end.atTime(23, 59, 59)));
+        return taskActivity(completions, taskRepository.countTasksCreatedBetween(user,
+                start.atStartOfDay(), end.atTime(23, 59, 59)));
+    }
+
+    private TaskActivity taskActivity(DailyBuckets completions, List<Object[]> totals) {
+        Object[] row = totals.isEmpty() ? new Object[0] : totals.get(0);
+        return new TaskActivity(completions, toLong(row, 0), toLong(row, 1));
+    }
+
+    private static void fill(DailyBuckets buckets, List<Object[]> rows) {
+        for (Object[] row : rows) {
+            buckets.add(toLocalDate(row[0]), ((Number) row[1]).intValue());
+        }
+    }
+
+    static LocalDate toLocalDate(Object value) {
+        if (value instanceof Date date) {
+            return date.toLocalDate();
+        }
+        return (LocalDate) value;
+    }
+
+    private static long toLong(Object[] row, int index) {
+        return row.length > index && row[index] instanceof Number n ? n.longValue() : 0L;
+    }
+
+    public static class RollupSeries {
+        private final DailyBuckets habitLogsPerDay;
+        private final DailyBuckets completionsPerDay;
+        private long tasksDue;
+        private long tasksDueCompleted;
+
+        RollupSeries(LocalDate start, LocalDate end) {
+            this.habitLogsPerDay = new DailyBuckets(start, end);
+            this.completionsPerDay = new DailyBuckets(start, end);
+        }
+
+        public DailyBuckets getHabitLogsPerDay() {
+            return habitLogsPerDay;
+        }
+
+        // Tasks completed per day, by completion date
+        public DailyBuckets getCompletionsPerDay() {
+            return completionsPerDay;
+        }
+
+        public long getTasksDue() {
+            return tasksDue;
+        }
+
+        public long getTasksDueCompleted() {
+            return tasksDueCompleted;
+        }
+    }
+
+    public static class TaskActivity {
+        private final DailyBuckets completionsPerDay;
+        private final long totalTasks;
+        private final long completedTasks;
+
+        public TaskActivity(DailyBuckets completionsPerDay, long totalTasks, long completedTasks) {
+            this.completionsPerDay = completionsPerDay;
+            this.totalTasks = totalTasks;
+            this.completedTasks = completedTasks;
+        }
+
+        public DailyBuckets getCompletionsPerDay() {
+            return completionsPerDay;
+        }
+
+        public long getTotalTasks() {
+            return totalTasks;
+        }
+
+        public long getCompletedTasks() {
+            return completedTasks;
+        }
+    }
+}
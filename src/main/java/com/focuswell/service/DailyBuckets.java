@@ -0,0 +1,117 @@
+package com.focuswell.service;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Fixed window of per-day counters backed by a primitive array indexed by the
+ * epoch-day offset from the window start. Dates outside the window are ignored.
+ * Windows longer than {@link #MAX_DAYS} are rejected rather than allocated.
+ */
+public class DailyBuckets {
+
+    // Hard limit on the array size; endpoints validate their own, smaller ranges first
+    public static final int MAX_DAYS = 731;
+
+    private final LocalDate start;
+    private final long startEpochDay;
+    private final int[] counts;
+
+    public DailyBuckets(LocalDate start, LocalDate end) {
+        this.start = start;
+        this.startEpochDay = start.toEpochDay();
+        long size = end.toEpochDay() - startEpochDay + 1;
+        if (size > MAX_DAYS) {
+            throw new IllegalArgumentException("Window of " + size + " days exceeds " + MAX_DAYS);
+        }
+        this.counts = new int[(int) Math.max(size, 0)];
+    }
+
+    public void add(LocalDate date) {
+        add(date, 1);
+    }
+
+    public void add(LocalDate date, int amount) {
+        if (date == null) {
+            return;
+        }
+        long offset = date.toEpochDay() - startEpochDay;
+        if (offset >= 0 && offset < counts.length) {
+            counts[(int) offset] += amount;
+        }
+    }
+
+    public int size() {
+        return counts.length;
+    }
+
+    public int get(int index) {
+        return counts[index];
+    }
+
+    public LocalDate dateAt(int index) {
+        return start.plusDays(index);
+    }
+
+    public long total() {
+        long total = 0;
+        for (int count : counts) {
+            total += count;
+        }
+        return total;
+    }
+
+    public int daysWithAny() {
+        int days = 0;
+        for (int count : counts) {
+            if (count > 0) {
+                days++;
+            }
+        }
+        return days;
+    }
+
+    // Index of the day with the most entries, or -1 when the window is empty
+    public int bestIndex() {
+        int best = -1;
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] > 0 && (best < 0 || counts[i] > counts[best])) {
+                best = i;
+            }
+        }
+        return best;
+    }
+
+    // Index of the day with the fewest entries among days that have any, or -1
+    public int worstIndex() {
+        int worst = -1;
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] > 0 && (worst < 0 || counts[i] < counts[worst])) {
+                worst = i;
+            }
+        }
+        return worst;
+    }
+
+    public List<Integer> toList() {
+        List<Integer> list = new ArrayList<>(counts.length);
+        for (int count : counts) {
+            list.add(count);
+        }
+        return list;
+    }
+
+    // Only days with at least one entry, keyed by ISO date (YYYY-MM-DD)
+    public Map<String, Long> toDateMap() {
+        Map<String, Long> map = new LinkedHashMap<>();
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] > 0) {
+                map.put(dateAt(i).toString(), (long) counts[i]);
+            }
+        }
+        return map;
+    }
+}
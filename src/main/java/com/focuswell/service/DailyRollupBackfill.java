@@ -0,0 +1,88 @@
+package com.focuswell.service;
+
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import com.focuswell.repository.UserRepository;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Builds daily_user_rollup in the background for users whose rollup has never been
+ * built, so data written before write-through maintenance existed shows up in
+ * analytics. Completion is recorded per user, so a restart only visits users that
+ * are still missing. Traffic is served meanwhile; each rebuild locks out deltas for
+ * its user, and deltas that land first are overwritten by the rebuilt totals, which
+ * include them.
+ */
+@Component
+@Slf4j
+public class DailyRollupBackfill {
+
+    private static final int PAGE_SIZE = 200;
+
+    private final boolean enabled;
+    private final UserRepository userRepository;
+    private final DailyRollupService rollupService;
+    private volatile boolean stopped;
+
+    public DailyRollupBackfill(@Value("${rollup.backfill.enabled:true}") boolean enabled,
+            UserRepository userRepository, DailyRollupService rollupService) {
+        this.enabled = enabled;
+        this.userRepository = userRepository;
+        this.rollupService = rollupService;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        Thread thread = new Thread(this::run, "rollup-backfill");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    @PreDestroy
+    void stop() {
+        stopped = true;
+    }
+
+    void run() {
+        int users = 0;
+        int rows = 0;
+        int failed = 0;
+        Long afterId = 0L;
+        while (!stopped) {
+            List<Long> userIds = userRepository.findIdsWithoutRollupAfter(afterId, PageRequest.of(0, PAGE_SIZE));
+            if (userIds.isEmpty()) {
+                break;
+            }
+            for (Long userId : userIds) {
+                if (stopped) {
+                    break;
+                }
+                try {
+                    int built = rollupService.rebuildIfMissing(userId);
+                    if (built >= 0) {
+                        rows += built;
+                        users++;
+                    }
+                } catch (RuntimeException e) {
+                    failed++;
+                    log.warn("Daily rollup backfill failed for user {}: {}", userId, e.getMessage());
+                }
+            }
+            afterId = userIds.get(userIds.size() - 1);
+        }
+        if (users > 0 || failed > 0) {
+            log.info("Backfilled {} daily rollup rows for {} users ({} failed)", rows, users, failed);
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package com.focuswell.service;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.focuswell.model.DailyRollupLock;
+import com.focuswell.model.DailyUserRollup;
+import com.focuswell.model.Task;
+import com.focuswell.model.User;
+import com.focuswell.model.WellnessData;
+import com.focuswell.repository.DailyRollupLockRepository;
+import com.focuswell.repository.DailyUserRollupRepository;
+import com.focuswell.repository.HabitLogRepository;
+import com.focuswell.repository.MealLogRepository;
+import com.focuswell.repository.TaskRepository;
+import com.focuswell.repository.UserRepository;
+import com.focuswell.repository.WellnessDataRepository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.LockModeType;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Write-through maintenance of {@link DailyUserRollup}. Callers report each change
+ * as it happens, in the transaction that made it; {@link #rebuild(User)} recomputes
+ * a user's rows from raw data. Deltas hold a shared lock on the user's
+ * daily_rollup_lock row and a rebuild an exclusive one, so no delta can land between
+ * a rebuild's reads and its writes and be lost. Deltas among themselves rely on the
+ * upserts being atomic, and nothing else locks that row.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+@Transactional
+public class DailyRollupService {
+
+    private final DailyUserRollupRepository rollupRepository;
+    private final HabitLogRepository habitLogRepository;
+    private final TaskRepository taskRepository;
+    private final WellnessDataRepository wellnessDataRepository;
+    private final MealLogRepository mealLogRepository;
+    private final UserRepository userRepository;
+    private final DailyRollupLockRepository lockRepository;
+    private final EntityManager entityManager;
+
+    public void recordHabitLog(User user, LocalDate date) {
+        applyDeltas(user, date, 1, 0, 0, 0, 0.0);
+    }
+
+    // Adds (sign = 1) or removes (sign = -1) a task's contribution in its current state
+    public void recordTask(User user, Task task, int sign) {
+        recordTask(user, task.getDueDate(), task.isCompleted(), task.getCompletedAt(), sign);
+    }
+
+    public void recordTask(User user, LocalDate dueDate, boolean completed, LocalDateTime completedAt, int sign) {
+        if (dueDate != null) {
+            applyDeltas(user, dueDate, 0, 0, sign, completed ? sign : 0, 0.0);
+        }
+        if (completed && completedAt != null) {
+            applyDeltas(user, completedAt.toLocalDate(), 0, sign, 0, 0, 0.0);
+        }
+    }
+
+    public void recordWellnessScore(User user, LocalDate date, Double score) {
+        lockForDeltas(user.getId());
+        rollupRepository.setWellnessScore(user.getId(), date, score, LocalDateTime.now());
+    }
+
+    public void recordMealCalories(User user, LocalDate date, double calories) {
+        applyDeltas(user, date, 0, 0, 0, 0, calories);
+    }
+
+    // Call before writing rollup rows directly, in the same transaction
+    public void lockForDeltas(Long userId) {
+        lock(userId, LockModeType.PESSIMISTIC_READ);
+    }
+
+    // The lock row is created on first use, so users never need one up front
+    private void lock(Long userId, LockModeType mode) {
+        if (entityManager.find(DailyRollupLock.class, userId, mode) == null) {
+            lockRepository.insertIfAbsent(userId);
+            entityManager.find(DailyRollupLock.class, userId, mode);
+        }
+    }
+
+    private void applyDeltas(User user, LocalDate date, int habitLogs, int tasksCompleted, int tasksDue,
+            int tasksDueCompleted, double mealCalories) {
+        lockForDeltas(user.getId());
+        rollupRepository.addDeltas(user.getId(), date, habitLogs, tasksCompleted, tasksDue, tasksDueCompleted,
+                mealCalories, LocalDateTime.now());
+    }
+
+    // Rebuilds the user's rows unless they have been built already; -1 if skipped
+    public int rebuildIfMissing(Long userId) {
+        // Locked before the marker is read, so two callers cannot both see it unset
+        lock(userId, LockModeType.PESSIMISTIC_WRITE);
+        User user = entityManager.find(User.class, userId);
+        if (user == null || user.getRollupBuiltAt() != null) {
+            return -1;
+        }
+        return rebuild(user);
+    }
+
+    // Replaces a user's rollup rows with totals recomputed from the raw tables
+    public int rebuild(User user) {
+        lock(user.getId(), LockModeType.PESSIMISTIC_WRITE);
+        Map<LocalDate, DailyUserRollup> rows = new TreeMap<>();
+
+        for (Object[] row : habitLogRepository.countAllLogsPerDay(user)) {
+            row(rows, user, row[0]).setHabitLogs(((Number) row[1]).intValue());
+        }
+        for (Object[] row : taskRepository.countTasksPerDueDate(user)) {
+            DailyUserRollup rollup = row(rows, user, row[0]);
+            rollup.setTasksDue(((Number) row[1]).intValue());
+            rollup.setTasksDueCompleted(row[2] == null ? 0 : ((Number) row[2]).intValue());
+        }
+        for (Object[] row : taskRepository.countCompletionsPerDay(user)) {
+            row(rows, user, row[0]).setTasksCompleted(((Number) row[1]).intValue());
+        }
+        for (WellnessData data : wellnessDataRepository.findCompleteWellnessDataByUser(user)) {
+            row(rows, user, data.getDate()).setWellnessScore(data.getWellnessScore());
+        }
+        for (Object[] row : mealLogRepository.sumCaloriesPerDay(user)) {
+            row(rows, user, row[0]).setMealCalories(row[1] == null ? 0.0 : ((Number) row[1]).doubleValue());
+        }
+
+        rollupRepository.deleteByUser(user);
+        rollupRepository.flush();
+        List<DailyUserRollup> saved = rollupRepository.saveAll(rows.values());
+        userRepository.markRollupBuilt(user.getId(), LocalDateTime.now());
+        log.debug("Rebuilt {} rollup rows for user {}", saved.size(), user.getId());
+        return saved.size();
+    }
+
+    private static DailyUserRollup row(Map<LocalDate, DailyUserRollup> rows, User user, Object date) {
+        return rows.computeIfAbsent(DailyBucketAggregator.toLocalDate(date), d -> newRollup(user, d));
+    }
+
+    private static DailyUserRollup newRollup(User user, LocalDate date) {
+        DailyUserRollup rollup = new DailyUserRollup();
+        rollup.setUser(user);
+        rollup.setDate(date);
+        return rollup;
+    }
+}
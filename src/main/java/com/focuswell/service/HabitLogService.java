@@ -2,66 +2,143 @@ package com.focuswell.service;
 
 import java.time.DayOfWeek;
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
 
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import com.focuswell.cache.UserDataVersions;
+import com.focuswell.dto.CursorPage;
+import com.focuswell.dto.HabitOverview;
 import com.focuswell.model.Habit;
 import com.focuswell.model.HabitLog;
 import com.focuswell.model.User;
 import com.focuswell.repository.HabitLogRepository;
 import com.focuswell.repository.HabitRepository;
-import com.focuswell.repository.UserRepository;
 
 @Service
 public class HabitLogService {
     private final HabitRepository habitRepository;
     private final HabitLogRepository habitLogRepository;
-    private final UserRepository userRepository;
+    private final DailyRollupService rollupService;
+    private final UserDataVersions dataVersions;
 
     public HabitLogService(HabitRepository habitRepository, HabitLogRepository habitLogRepository,
-            UserRepository userRepository) {
+            DailyRollupService rollupService, UserDataVersions dataVersions) {
         this.habitRepository = habitRepository;
         this.habitLogRepository = habitLogRepository;
-        this.userRepository = userRepository;
+        this.rollupService = rollupService;
+        this.dataVersions = dataVersions;
     }
 
-    public HabitLog logHabit(Long habitId, String username) {
-        User user = (User) userRepository.findByUsername(username).orElseThrow();
-        Habit habit = habitRepository.findById(habitId)
+    // The log, its rollup delta and the streak update commit or roll back together
+    @Transactional
+    public HabitLog logHabit(Long habitId, User user) {
+        return logHabit(habitId, user, LocalDate.now());
+    }
+
+    // Logs the habit for any day; the public overload always logs today
+    HabitLog logHabit(Long habitId, User user, LocalDate date) {
+        // Locked until commit, so concurrent logs of this habit check and advance the streak one at a time
+        Habit habit = habitRepository.findByIdForUpdate(habitId)
                 .filter(h -> h.getUser().getId().equals(user.getId()))
                 .orElseThrow(() -> new RuntimeException("Habit not found or not yours"));
 
-        LocalDate today = LocalDate.now();
-        boolean alreadyLogged = habitLogRepository.findByHabitAndLogDate(habit, today).size() > 0;
+        boolean alreadyLogged = habitLogRepository.findByHabitAndLogDate(habit, date).size() > 0;
         if (alreadyLogged)
             throw new RuntimeException("Habit already logged today");
 
         HabitLog log = new HabitLog();
         log.setHabit(habit);
         log.setUser(user);
-        log.setLogDate(today);
-        return habitLogRepository.save(log);
+        log.setLogDate(date);
+        HabitLog saved = habitLogRepository.save(log);
+        rollupService.recordHabitLog(user, date);
+        advanceStreak(habit, date);
+        dataVersions.bump(user.getId());
+        return saved;
     }
 
+    // Current streak, or 0 if the habit has not been logged in the current period
     public int getCurrentStreak(Habit habit) {
-        int streak = 0;
-        LocalDate today = LocalDate.now();
+        return currentStreak(habit, streakState(habit));
+    }
 
-        while (true) {
-            LocalDate checkDate = habit.getFrequency().equalsIgnoreCase("WEEKLY")
-                    ? today.with(DayOfWeek.MONDAY).minusWeeks(streak)
-                    : today.minusDays(streak);
+    public int getLongestStreak(Habit habit) {
+        return streakState(habit).longest();
+    }
+
+    private record StreakState(int current, int longest, LocalDate lastPeriod) {
+    }
 
-            boolean logged = habitLogRepository.findByHabitAndLogDate(habit, checkDate).size() > 0;
-            if (logged)
-                streak++;
-            else
-                break;
+    private int currentStreak(Habit habit, StreakState state) {
+        return periodOf(habit, LocalDate.now()).equals(state.lastPeriod()) ? state.current() : 0;
+    }
+
+    // Stored state; for a habit not logged since streaks were stored, computed from its logs
+    // without writing it back. logHabit stores it, under the habit's lock
+    private StreakState streakState(Habit habit) {
+        if (habit.getCurrentStreak() == null || habit.getLongestStreak() == null) {
+            return computeStreak(habit);
+        }
+        return new StreakState(habit.getCurrentStreak(), habit.getLongestStreak(), habit.getLastLoggedPeriod());
+    }
+
+    // Streak state from the habit's log dates in a single ordered scan
+    private StreakState computeStreak(Habit habit) {
+        int current = 0;
+        int longest = 0;
+        LocalDate last = null;
+        for (LocalDate date : habitLogRepository.findLogDates(habit)) {
+            LocalDate period = periodOf(habit, date);
+            if (period.equals(last)) {
+                continue;
+            }
+            current = last != null && last.equals(previousPeriod(habit, period)) ? current + 1 : 1;
+            longest = Math.max(longest, current);
+            last = period;
+        }
+        return new StreakState(current, longest, last);
+    }
+
+    // Caller holds the habit's row lock; the managed habit is written at commit
+    private void advanceStreak(Habit habit, LocalDate date) {
+        boolean stored = habit.getCurrentStreak() != null && habit.getLongestStreak() != null;
+        LocalDate period = periodOf(habit, date);
+        LocalDate last = habit.getLastLoggedPeriod();
+        if (stored && period.equals(last)) {
+            return;
+        }
+        StreakState state;
+        if (!stored || (last != null && period.isBefore(last))) {
+            // Never stored, or backdated into a run that only the full history shows;
+            // the computed state already includes the log just saved
+            state = computeStreak(habit);
+        } else {
+            int current = last != null && last.equals(previousPeriod(habit, period)) ? habit.getCurrentStreak() + 1 : 1;
+            state = new StreakState(current, Math.max(current, habit.getLongestStreak()), period);
         }
-        return streak;
+        habit.setCurrentStreak(state.current());
+        habit.setLongestStreak(state.longest());
+        habit.setLastLoggedPeriod(state.lastPeriod());
+    }
+
+    private static boolean isWeekly(Habit habit) {
+        return "WEEKLY".equalsIgnoreCase(habit.getFrequency());
+    }
+
+    private static LocalDate periodOf(Habit habit, LocalDate date) {
+        return isWeekly(habit) ? date.with(DayOfWeek.MONDAY) : date;
+    }
+
+    private static LocalDate previousPeriod(Habit habit, LocalDate period) {
+        return isWeekly(habit) ? period.minusWeeks(1) : period.minusDays(1);
     }
 
     public Map<String, Long> getWeeklyProgress(Habit habit) {
@@ -76,6 +153,54 @@ public class HabitLogService {
                         Collectors.counting()));
     }
 
+    // Streaks, 7-day progress and today's status for all of a user's habits in one log query
+    public List<HabitOverview> getOverview(User user) {
+        List<Habit> habits = habitRepository.findByUser(user);
+        if (habits.isEmpty()) {
+            return List.of();
+        }
+        LocalDate today = LocalDate.now();
+        LocalDate start = today.minusDays(6);
+
+        Map<Long, Map<String, Long>> progressByHabit = new HashMap<>();
+        List<Long> habitIds = habits.stream().map(Habit::getId).toList();
+        for (Object[] row : habitLogRepository.countLogsPerHabitAndDay(habitIds, start, today)) {
+            LocalDate date = DailyBucketAggregator.toLocalDate(row[1]);
+            progressByHabit.computeIfAbsent((Long) row[0], id -> new LinkedHashMap<>())
+                    .put(date.toString(), ((Number) row[2]).longValue());
+        }
+
+        List<HabitOverview> overview = new ArrayList<>(habits.size());
+        for (Habit habit : habits) {
+            Map<String, Long> progress = progressByHabit.getOrDefault(habit.getId(), Map.of());
+            HabitOverview item = new HabitOverview();
+            item.setHabitId(habit.getId());
+            item.setName(habit.getName());
+            item.setDescription(habit.getDescription());
+            item.setFrequency(habit.getFrequency());
+            StreakState streak = streakState(habit);
+            item.setCurrentStreak(currentStreak(habit, streak));
+            item.setLongestStreak(streak.longest());
+            item.setLoggedToday(progress.containsKey(today.toString()));
+            item.setWeeklyProgress(progress);
+            overview.add(item);
+        }
+        return overview;
+    }
+
+    // One page of a habit's logs, newest first; a null cursor starts from the latest log
+    public CursorPage<HabitLog> getLogsPage(Habit habit, String cursor, int size) {
+        PageRequest limit = PageRequest.of(0, size + 1);
+        List<HabitLog> rows;
+        if (cursor == null) {
+            rows = habitLogRepository.findByHabitOrderByLogDateDescIdDesc(habit, limit);
+        } else {
+            CursorPage.Cursor after = CursorPage.Cursor.decode(cursor);
+            rows = habitLogRepository.findPageByHabitBefore(habit, after.date(), after.id(), limit);
+        }
+        return CursorPage.of(rows, size, l -> new CursorPage.Cursor(l.getLogDate(), l.getId()));
+    }
+
     public List<HabitLog> getLogsForHabit(Habit habit) {
         return habitLogRepository.findByHabitAndLogDateBetween(
                 habit,
@@ -6,6 +6,7 @@ import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 
+import com.focuswell.cache.UserCache;
 import com.focuswell.model.Habit;
 import com.focuswell.model.User;
 import com.focuswell.repository.HabitRepository;
@@ -14,18 +15,26 @@ import com.focuswell.repository.UserRepository;
 @Service
 public class HabitService {
     private final HabitRepository habitRepo;
+    private final UserCache userCache;
     private final UserRepository userRepo;
 
-    public HabitService(HabitRepository habitRepo, UserRepository userRepo) {
+    public HabitService(HabitRepository habitRepo, UserCache userCache, UserRepository userRepo) {
         this.habitRepo = habitRepo;
+        this.userCache = userCache;
         this.userRepo = userRepo;
     }
 
     public Habit addHabit(Habit habit) {
-        String username = SecurityContextHolder.getContext().getAuthentication().getName();
-        User user = userRepo.findByUsername(username)
-                .orElseThrow(() -> new RuntimeException("User not found: " + username));
-        habit.setUser(user);
+        if (habit.getUser() == null) {
+            String username = SecurityContextHolder.getContext().getAuthentication().getName();
+            Long userId = userCache.findByUsername(username)
+                    .orElseThrow(() -> new RuntimeException("User not found: " + username)).id();
+            habit.setUser(userRepo.getReferenceById(userId));
+        }
+        // A new habit has no logs, so its streak state starts known and empty
+        habit.setCurrentStreak(0);
+        habit.setLongestStreak(0);
+        habit.setLastLoggedPeriod(null);
         return habitRepo.save(habit);
     }
 
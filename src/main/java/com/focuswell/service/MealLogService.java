@@ -0,0 +1,58 @@
+package com.focuswell.service;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.focuswell.model.MealLog;
+import com.focuswell.model.User;
+import com.focuswell.repository.MealLogRepository;
+
+import lombok.RequiredArgsConstructor;
+
+// Meal log writes; each one and its rollup calories commit or roll back together
+@Service
+@RequiredArgsConstructor
+@Transactional
+public class MealLogService {
+
+  private final MealLogRepository mealLogRepository;
+  private final DailyRollupService rollupService;
+
+  public MealLog logMeal(User user, Map<String, Object> payload) {
+    MealLog log = new MealLog();
+    log.setUser(user);
+    log.setDate(LocalDate.parse((String) payload.get("date")));
+    log.setMealType((String) payload.get("mealType"));
+    String itemsJson = JsonMapper.builder().build()
+        .createObjectNode().putPOJO("items", payload.get("items")).get("items").toString();
+    log.setItemsJson(itemsJson);
+    double total = 0.0;
+    if (payload.get("items") instanceof List<?> items) {
+      for (Object o : items) {
+        if (o instanceof Map<?, ?> m) {
+          Object c = m.get("calories");
+          if (c instanceof Number n)
+            total += n.doubleValue();
+        }
+      }
+    }
+    log.setTotalCalories(total);
+    MealLog saved = mealLogRepository.save(log);
+    rollupService.recordMealCalories(user, saved.getDate(), total);
+    return saved;
+  }
+
+  public void deleteMeal(Long id) {
+    mealLogRepository.findById(id).ifPresent(meal -> {
+      // Only the delete that removed the row takes its calories off, however many race
+      if (mealLogRepository.removeById(id) == 1 && meal.getTotalCalories() != null) {
+        rollupService.recordMealCalories(meal.getUser(), meal.getDate(), -meal.getTotalCalories());
+      }
+    });
+  }
+}
@@ -0,0 +1,310 @@
+package com.focuswell.service;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.focuswell.model.Recommendation.DifficultyLevel;
+import com.focuswell.model.Recommendation.Priority;
+import com.focuswell.model.Recommendation.RecommendationType;
+import com.focuswell.repository.DailyUserRollupRepository;
+import com.focuswell.repository.RecommendationRepository;
+import com.focuswell.repository.WellnessDataRepository;
+
+/**
+ * Turns a user's recent wellness, task and habit signals into recommendations. The
+ * rules below are compiled once into a flat decision table: every condition is a
+ * half-open range on one slot of a {@code double[]} signal vector, and a rule matches
+ * when all of its ranges hold. Missing signals are NaN, which no range contains.
+ * Users are handled a page at a time, with one grouped query per input and one
+ * batched insert, and a rule is skipped while the user still has an active
+ * recommendation with the same title.
+ */
+@Component
+public class RecommendationEngine {
+
+  private static final int WEEK_DAYS = 7;
+  private static final int MONTH_DAYS = 30;
+
+  // Slots of the signal vector; wellness values are 7-day averages
+  enum Signal {
+    MOOD, STRESS, SLEEP_HOURS, SLEEP_QUALITY, ENERGY, SCREEN_TIME, SOCIAL_HOURS, PRODUCTIVITY,
+    ACTIVITY_MINUTES, MEDITATION_MINUTES, WATER_GLASSES, MEALS_SKIPPED,
+    TASKS_DUE, TASK_COMPLETION_RATE, HABIT_DAYS_WEEK, HABIT_DAYS_MONTH
+  }
+
+  private record Condition(Signal signal, double min, double max) {
+  }
+
+  private record Rule(String title, RecommendationType type, Priority priority, DifficultyLevel difficulty,
+      int minutes, String category, String description, String actionItems, String expectedImpact,
+      List<Condition> conditions) {
+  }
+
+  private static Condition below(Signal signal, double value) {
+    return new Condition(signal, Double.NEGATIVE_INFINITY, value);
+  }
+
+  private static Condition atLeast(Signal signal, double value) {
+    return new Condition(signal, value, Double.POSITIVE_INFINITY);
+  }
+
+  // Most urgent first: when a user's active limit is reached, later rules are the ones left out
+  private static final List<Rule> RULES = List.of(
+      new Rule("Protect your recovery time", RecommendationType.WORK_LIFE_BALANCE, Priority.URGENT,
+          DifficultyLevel.MEDIUM, 30, "recovery",
+          "Very high stress and short sleep together this week are a burnout warning sign.",
+          "Block one evening this week with no work; Say no to one new commitment; Be in bed 8 hours before you wake",
+          "Lower stress and better sleep within a week",
+          List.of(atLeast(Signal.STRESS, 8), below(Signal.SLEEP_HOURS, 6))),
+      new Rule("Get back to seven hours of sleep", RecommendationType.SLEEP_IMPROVEMENT, Priority.HIGH,
+          DifficultyLevel.MEDIUM, 10, "sleep",
+          "You averaged less than 6.5 hours of sleep a night this week.",
+          "Pick a fixed bedtime; Stop screens 30 minutes before it; Keep the same wake time every day",
+          "More energy and a steadier mood",
+          List.of(below(Signal.SLEEP_HOURS, 6.5))),
+      new Rule("Take a daily breathing break", RecommendationType.STRESS_MANAGEMENT, Priority.HIGH,
+          DifficultyLevel.EASY, 10, "stress",
+          "Your stress has averaged 7/10 or more this week.",
+          "Set a reminder for mid-afternoon; Breathe in for 4 counts and out for 6, for ten minutes",
+          "Lower day-to-day stress",
+          List.of(atLeast(Signal.STRESS, 7))),
+      new Rule("Plan one enjoyable activity a day", RecommendationType.MOOD_ENHANCEMENT, Priority.HIGH,
+          DifficultyLevel.EASY, 20, "mood",
+          "Your mood has averaged below 4/10 this week.",
+          "List five things you enjoy; Schedule one of them each day; Note your mood afterwards",
+          "A lift in mood within a few days",
+          List.of(below(Signal.MOOD, 4))),
+      new Rule("Reach out to someone this week", RecommendationType.SOCIAL_CONNECTION, Priority.MEDIUM,
+          DifficultyLevel.EASY, 15, "social",
+          "You have spent less than an hour a day with other people this week.",
+          "Message a friend today; Arrange one call or meet-up this week",
+          "Less isolation and a better mood",
+          List.of(below(Signal.SOCIAL_HOURS, 1))),
+      new Rule("Take a 15-minute walk", RecommendationType.PHYSICAL_ACTIVITY, Priority.MEDIUM,
+          DifficultyLevel.EASY, 15, "activity",
+          "Low energy and little movement this week tend to feed each other.",
+          "Walk after lunch; Take the stairs; Stretch for five minutes every couple of hours",
+          "More energy during the day",
+          List.of(below(Signal.ENERGY, 5), below(Signal.ACTIVITY_MINUTES, 20))),
+      new Rule("Wind down before bed", RecommendationType.SLEEP_IMPROVEMENT, Priority.MEDIUM,
+          DifficultyLevel.EASY, 15, "sleep",
+          "Your sleep quality has averaged below 5/10 this week.",
+          "Dim the lights an hour before bed; Keep the bedroom cool and dark; Avoid caffeine after 2pm",
+          "Deeper, more restful sleep",
+          List.of(below(Signal.SLEEP_QUALITY, 5))),
+      new Rule("Set a daily screen-time limit", RecommendationType.DIGITAL_WELLNESS, Priority.MEDIUM,
+          DifficultyLevel.MEDIUM, 5, "screen",
+          "You have averaged 7 or more hours of screen time a day this week.",
+          "Turn on your phone's screen-time limit; Keep phones out of the bedroom",
+          "Better focus and sleep",
+          List.of(atLeast(Signal.SCREEN_TIME, 7))),
+      new Rule("Break tasks into smaller steps", RecommendationType.PRODUCTIVITY_BOOST, Priority.MEDIUM,
+          DifficultyLevel.EASY, 10, "tasks",
+          "Fewer than half of this week's due tasks were completed.",
+          "Split each big task into steps of under 30 minutes; Pick three to finish each day",
+          "Steadier progress and less backlog stress",
+          List.of(atLeast(Signal.TASKS_DUE, 3), below(Signal.TASK_COMPLETION_RATE, 0.5))),
+      new Rule("Plan regular meals", RecommendationType.NUTRITION, Priority.MEDIUM,
+          DifficultyLevel.MEDIUM, 20, "nutrition",
+          "You have been skipping meals this week.",
+          "Plan tomorrow's meals tonight; Keep a healthy snack at hand",
+          "Steadier energy through the day",
+          List.of(atLeast(Signal.MEALS_SKIPPED, 1))),
+      new Rule("Plan your top three tasks each morning", RecommendationType.PRODUCTIVITY_BOOST, Priority.LOW,
+          DifficultyLevel.EASY, 5, "productivity",
+          "Your productivity has averaged below 4/10 this week.",
+          "Write down three priorities before opening email; Work on the first for 25 minutes",
+          "More done on the things that matter",
+          List.of(below(Signal.PRODUCTIVITY, 4))),
+      new Rule("Try a five-minute meditation", RecommendationType.MINDFULNESS, Priority.LOW,
+          DifficultyLevel.EASY, 5, "mindfulness",
+          "Moderate stress with little time for mindfulness this week.",
+          "Use a guided meditation app; Meditate at the same time each day",
+          "A calmer baseline over a few weeks",
+          List.of(atLeast(Signal.STRESS, 5), below(Signal.MEDITATION_MINUTES, 5))),
+      new Rule("Get your habits going again", RecommendationType.PRODUCTIVITY_BOOST, Priority.LOW,
+          DifficultyLevel.EASY, 5, "habits",
+          "You logged habits earlier this month but on fewer than three days this week.",
+          "Pick your easiest habit; Do it at the same time each day this week",
+          "Momentum back on your routines",
+          List.of(below(Signal.HABIT_DAYS_WEEK, 3), atLeast(Signal.HABIT_DAYS_MONTH, 5))),
+      new Rule("Drink more water", RecommendationType.NUTRITION, Priority.LOW,
+          DifficultyLevel.EASY, 2, "nutrition",
+          "You have averaged fewer than five glasses of water a day this week.",
+          "Keep a bottle on your desk; Drink a glass with every meal",
+          "Better energy and concentration",
+          List.of(below(Signal.WATER_GLASSES, 5))));
+
+  private static final String INSERT_SQL = "INSERT INTO recommendations (user_id, title, description, "
+      + "recommendation_type, priority, is_completed, action_items, expected_impact, difficulty_level, "
+      + "estimated_time_minutes, category, created_at, updated_at) VALUES (?, ?, ?, ?, ?, false, ?, ?, ?, ?, ?, ?, ?)";
+
+  // The compiled table: rule r owns conditions ruleEnd[r - 1] (or 0) up to ruleEnd[r]
+  private static final int[] conditionSignal;
+  private static final double[] conditionMin;
+  private static final double[] conditionMax;
+  private static final int[] ruleEnd;
+
+  static {
+    int conditions = RULES.stream().mapToInt(rule -> rule.conditions().size()).sum();
+    conditionSignal = new int[conditions];
+    conditionMin = new double[conditions];
+    conditionMax = new double[conditions];
+    ruleEnd = new int[RULES.size()];
+    int c = 0;
+    for (int r = 0; r < RULES.size(); r++) {
+      for (Condition condition : RULES.get(r).conditions()) {
+        conditionSignal[c] = condition.signal().ordinal();
+        conditionMin[c] = condition.min();
+        conditionMax[c] = condition.max();
+        c++;
+      }
+      ruleEnd[r] = c;
+    }
+  }
+
+  private final WellnessDataRepository wellnessDataRepository;
+  private final DailyUserRollupRepository rollupRepository;
+  private final RecommendationRepository recommendationRepository;
+  private final JdbcTemplate jdbcTemplate;
+  private final TransactionTemplate transactionTemplate;
+  private final int minEntries;
+  private final int maxActive;
+
+  public RecommendationEngine(WellnessDataRepository wellnessDataRepository,
+      DailyUserRollupRepository rollupRepository, RecommendationRepository recommendationRepository,
+      JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate,
+      @Value("${recommendations.min-entries:3}") int minEntries,
+      @Value("${recommendations.max-active:5}") int maxActive) {
+    this.wellnessDataRepository = wellnessDataRepository;
+    this.rollupRepository = rollupRepository;
+    this.recommendationRepository = recommendationRepository;
+    this.jdbcTemplate = jdbcTemplate;
+    this.transactionTemplate = transactionTemplate;
+    this.minEntries = minEntries;
+    this.maxActive = maxActive;
+  }
+
+  /** Indexes into the rule table of every rule the signals satisfy, in table order. */
+  static int[] matches(double[] signals) {
+    int[] matched = new int[ruleEnd.length];
+    int count = 0;
+    int c = 0;
+    for (int r = 0; r < ruleEnd.length; r++) {
+      int end = ruleEnd[r];
+      boolean match = true;
+      for (; c < end; c++) {
+        double value = signals[conditionSignal[c]];
+        // NaN fails both comparisons, so a missing signal never matches
+        if (!(value >= conditionMin[c] && value < conditionMax[c])) {
+          match = false;
+          c = end;
+          break;
+        }
+      }
+      if (match) {
+        matched[count++] = r;
+      }
+    }
+    return Arrays.copyOf(matched, count);
+  }
+
+  /** Creates recommendations for one page of users in one transaction; returns how many. */
+  public int generate(List<Long> userIds) {
+    if (userIds.isEmpty()) {
+      return 0;
+    }
+    LocalDate today = LocalDate.now();
+    LocalDate weekStart = today.minusDays(WEEK_DAYS - 1);
+    return transactionTemplate.execute(status -> {
+      Map<Long, double[]> signals = signals(userIds, today, weekStart);
+      Map<Long, Set<String>> active = new HashMap<>();
+      for (Object[] row : recommendationRepository.findActiveTitlesByUserIds(userIds)) {
+        active.computeIfAbsent((Long) row[0], id -> new HashSet<>()).add((String) row[1]);
+      }
+
+      Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+      List<Object[]> inserts = new ArrayList<>();
+      for (Map.Entry<Long, double[]> user : signals.entrySet()) {
+        Set<String> titles = active.getOrDefault(user.getKey(), Set.of());
+        int room = maxActive - titles.size();
+        for (int r : matches(user.getValue())) {
+          if (room <= 0) {
+            break;
+          }
+          Rule rule = RULES.get(r);
+          if (titles.contains(rule.title())) {
+            continue;
+          }
+          inserts.add(new Object[] { user.getKey(), rule.title(), rule.description(), rule.type().name(),
+              rule.priority().name(), rule.actionItems(), rule.expectedImpact(), rule.difficulty().name(),
+              rule.minutes(), rule.category(), now, now });
+          room--;
+        }
+      }
+      if (!inserts.isEmpty()) {
+        jdbcTemplate.batchUpdate(INSERT_SQL, inserts);
+      }
+      return inserts.size();
+    });
+  }
+
+  // Signal vectors for the users in the page that have any recent wellness or rollup data
+  private Map<Long, double[]> signals(List<Long> userIds, LocalDate today, LocalDate weekStart) {
+    Map<Long, double[]> signals = new HashMap<>();
+    for (Object[] row : wellnessDataRepository.summarizeRecentByUsers(userIds, weekStart)) {
+      // Too few entries to say anything about the week
+      if (((Number) row[1]).longValue() < minEntries) {
+        continue;
+      }
+      double[] vector = vector(signals, (Long) row[0]);
+      vector[Signal.MOOD.ordinal()] = value(row[2]);
+      vector[Signal.STRESS.ordinal()] = value(row[3]);
+      vector[Signal.SLEEP_HOURS.ordinal()] = value(row[4]);
+      vector[Signal.SLEEP_QUALITY.ordinal()] = value(row[5]);
+      vector[Signal.ENERGY.ordinal()] = value(row[6]);
+      vector[Signal.SCREEN_TIME.ordinal()] = value(row[7]);
+      vector[Signal.SOCIAL_HOURS.ordinal()] = value(row[8]);
+      vector[Signal.PRODUCTIVITY.ordinal()] = value(row[9]);
+      vector[Signal.ACTIVITY_MINUTES.ordinal()] = value(row[10]);
+      vector[Signal.MEDITATION_MINUTES.ordinal()] = value(row[11]);
+      vector[Signal.WATER_GLASSES.ordinal()] = value(row[12]);
+      vector[Signal.MEALS_SKIPPED.ordinal()] = value(row[13]);
+    }
+    for (Object[] row : rollupRepository.summarizeByUsers(userIds, today.minusDays(MONTH_DAYS - 1), weekStart,
+        today)) {
+      double[] vector = vector(signals, (Long) row[0]);
+      double due = value(row[1]);
+      vector[Signal.TASKS_DUE.ordinal()] = due;
+      vector[Signal.TASK_COMPLETION_RATE.ordinal()] = due > 0 ? value(row[2]) / due : Double.NaN;
+      vector[Signal.HABIT_DAYS_WEEK.ordinal()] = value(row[3]);
+      vector[Signal.HABIT_DAYS_MONTH.ordinal()] = value(row[4]);
+    }
+    return signals;
+  }
+
+  private static double[] vector(Map<Long, double[]> signals, Long userId) {
+    return signals.computeIfAbsent(userId, id -> {
+      double[] vector = new double[Signal.values().length];
+      Arrays.fill(vector, Double.NaN);
+      return vector;
+    });
+  }
+
+  private static double value(Object column) {
+    return column != null ? ((Number) column).doubleValue() : Double.NaN;
+  }
+}
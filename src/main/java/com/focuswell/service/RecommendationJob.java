@@ -0,0 +1,100 @@
+package com.focuswell.service;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.focuswell.repository.UserRepository;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Nightly pass of {@link RecommendationEngine} over every user, in id-ordered pages
+ * with one transaction each. Throughput of the last run is exported in users per
+ * second and logged.
+ */
+@Component
+@Slf4j
+public class RecommendationJob {
+
+  private final UserRepository userRepository;
+  private final RecommendationEngine engine;
+  private final boolean enabled;
+  private final int pageSize;
+  private final AtomicBoolean running = new AtomicBoolean();
+
+  private volatile double usersPerSecond;
+  private final Counter created;
+  private final Timer runTimer;
+
+  public RecommendationJob(UserRepository userRepository, RecommendationEngine engine, MeterRegistry meterRegistry,
+      @Value("${recommendations.job.enabled:true}") boolean enabled,
+      @Value("${recommendations.job.page-size:500}") int pageSize) {
+    this.userRepository = userRepository;
+    this.engine = engine;
+    this.enabled = enabled;
+    this.pageSize = Math.max(1, pageSize);
+
+    this.created = meterRegistry.counter("recommendations.created");
+    this.runTimer = meterRegistry.timer("recommendations.job.run");
+    Gauge.builder("recommendations.job.throughput", this, job -> job.usersPerSecond)
+        .baseUnit("users/s").register(meterRegistry);
+  }
+
+  @Scheduled(cron = "${recommendations.job.cron:0 30 3 * * *}")
+  public void scheduledRun() {
+    if (enabled) {
+      run();
+    }
+  }
+
+  // Number of users processed; 0 if another run is still in progress
+  public int run() {
+    if (!running.compareAndSet(false, true)) {
+      log.warn("Recommendation job already running, skipping");
+      return 0;
+    }
+    try {
+      return runTimer.record(this::generateAll);
+    } finally {
+      running.set(false);
+    }
+  }
+
+  private int generateAll() {
+    long start = System.nanoTime();
+    int users = 0;
+    long recommendations = 0;
+    Long afterId = 0L;
+    while (true) {
+      List<Long> userIds = userRepository.findIdsAfter(afterId, PageRequest.of(0, pageSize));
+      if (userIds.isEmpty()) {
+        break;
+      }
+      try {
+        int page = engine.generate(userIds);
+        recommendations += page;
+        created.increment(page);
+      } catch (RuntimeException e) {
+        log.warn("Recommendations failed for users {} to {}: {}", userIds.get(0),
+            userIds.get(userIds.size() - 1), e.getMessage());
+      }
+      users += userIds.size();
+      afterId = userIds.get(userIds.size() - 1);
+    }
+
+    double seconds = Math.max((System.nanoTime() - start) / 1e9, 1e-3);
+    usersPerSecond = users / seconds;
+    log.info("Generated {} recommendations for {} users in {}s ({} users/s)", recommendations, users,
+        String.format("%.1f", seconds), String.format("%.0f", usersPerSecond));
+    return users;
+  }
+}
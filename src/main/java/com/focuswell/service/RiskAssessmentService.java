@@ -0,0 +1,201 @@
+package com.focuswell.service;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.focuswell.dto.WellnessTrends;
+import com.focuswell.model.RiskAssessment;
+import com.focuswell.model.RiskAssessment.RiskLevel;
+import com.focuswell.model.User;
+import com.focuswell.repository.RiskAssessmentRepository;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Scores a user's risks from the last week of wellness data and stores the result
+ * as that day's {@link RiskAssessment}. Inputs come from {@link WellnessTrendEngine},
+ * so an assessment costs the upsert and no history query. Each risk is a weighted
+ * mix of 0-1 signals; signals without data are left out and the weights of the rest
+ * rescaled, and a risk with no signals at all stays null.
+ */
+@Service
+public class RiskAssessmentService {
+
+  private static final double MODERATE = 0.35;
+  private static final double HIGH = 0.55;
+  private static final double CRITICAL = 0.75;
+
+  private final WellnessTrendEngine trendEngine;
+  private final RiskAssessmentRepository riskAssessmentRepository;
+  private final TransactionTemplate transactionTemplate;
+  private final int minEntries;
+  private final Timer assessTimer;
+
+  public RiskAssessmentService(WellnessTrendEngine trendEngine, RiskAssessmentRepository riskAssessmentRepository,
+      TransactionTemplate transactionTemplate, MeterRegistry meterRegistry,
+      @Value("${risk.assessment.min-entries:3}") int minEntries) {
+    this.trendEngine = trendEngine;
+    this.riskAssessmentRepository = riskAssessmentRepository;
+    this.transactionTemplate = transactionTemplate;
+    this.minEntries = minEntries;
+    this.assessTimer = meterRegistry.timer("risk.assessment.compute");
+  }
+
+  /**
+   * Recomputes today's assessment, replacing any stored earlier today. Empty when the
+   * last 7 days have fewer than {@code risk.assessment.min-entries} entries, in which
+   * case nothing is written.
+   */
+  public Optional<RiskAssessment> assess(User user) {
+    return assessTimer.record(() -> {
+      WellnessTrends trends = trendEngine.trends(user);
+      if (trends.getEntries7Days() == null || trends.getEntries7Days() < minEntries) {
+        return Optional.empty();
+      }
+      LocalDate today = LocalDate.now();
+      return Optional.of(transactionTemplate.execute(status -> {
+        RiskAssessment assessment = riskAssessmentRepository.findByUserAndAssessmentDate(user, today)
+            .orElseGet(() -> {
+              RiskAssessment created = new RiskAssessment();
+              created.setUser(user);
+              created.setAssessmentDate(today);
+              return created;
+            });
+        score(assessment, trends);
+        return riskAssessmentRepository.save(assessment);
+      }));
+    });
+  }
+
+  private static void score(RiskAssessment assessment, WellnessTrends trends) {
+    Map<String, WellnessTrends.MetricTrend> metrics = trends.getMetrics();
+    Double mood = week(metrics, "mood");
+    Double stress = week(metrics, "stress");
+    Double energy = week(metrics, "energy");
+    Double sleepQuality = week(metrics, "sleepQuality");
+    Double productivity = week(metrics, "productivity");
+    Double screenTime = week(metrics, "screenTimeHours");
+    Double social = week(metrics, "socialInteractionHours");
+    Double moodChange = change(metrics, "mood");
+    Double stressChange = change(metrics, "stress");
+
+    // Each signal is 0 (no concern) to 1 (strongest concern)
+    Double lowMood = mood != null ? 1 - scale(mood) : null;
+    Double highStress = stress != null ? scale(stress) : null;
+    Double lowEnergy = energy != null ? 1 - scale(energy) : null;
+    Double poorSleep = sleepQuality != null ? 1 - scale(sleepQuality) : null;
+    Double lowProductivity = productivity != null ? 1 - scale(productivity) : null;
+    // Two hours short every night of the week counts as the full signal
+    Double sleepDebt = trends.getSleepDebtHours() != null ? clamp(trends.getSleepDebtHours() / 14) : null;
+    Double heavyScreen = screenTime != null ? clamp((screenTime - 4) / 6) : null;
+    Double isolated = social != null ? clamp((2 - social) / 2) : null;
+    Double moodFalling = moodChange != null ? clamp(-moodChange / 3) : null;
+    Double stressRising = stressChange != null ? clamp(stressChange / 3) : null;
+
+    assessment.setDepressionRisk(mix(new double[] { 0.5, 0.25, 0.15, 0.1 },
+        lowMood, lowEnergy, poorSleep, moodFalling));
+    assessment.setAnxietyRisk(mix(new double[] { 0.55, 0.25, 0.2 },
+        highStress, poorSleep, heavyScreen));
+    assessment.setBurnoutRisk(mix(new double[] { 0.35, 0.25, 0.2, 0.2 },
+        highStress, lowEnergy, sleepDebt, lowProductivity));
+    assessment.setStressRisk(mix(new double[] { 0.75, 0.25 },
+        highStress, stressRising));
+    // Mood only sharpens a social signal; without one there is nothing to score
+    assessment.setIsolationRisk(isolated != null ? mix(new double[] { 0.7, 0.3 }, isolated, lowMood) : null);
+
+    double highest = 0;
+    for (Double risk : List.of(nz(assessment.getDepressionRisk()), nz(assessment.getAnxietyRisk()),
+        nz(assessment.getBurnoutRisk()), nz(assessment.getStressRisk()), nz(assessment.getIsolationRisk()))) {
+      highest = Math.max(highest, risk);
+    }
+    RiskLevel level = highest >= CRITICAL ? RiskLevel.CRITICAL
+        : highest >= HIGH ? RiskLevel.HIGH
+        : highest >= MODERATE ? RiskLevel.MODERATE
+        : RiskLevel.LOW;
+    assessment.setOverallRiskLevel(level);
+    assessment.setRequiresImmediateAttention(level == RiskLevel.CRITICAL);
+    assessment.setShouldContactProfessional(level == RiskLevel.HIGH || level == RiskLevel.CRITICAL
+        || nz(assessment.getDepressionRisk()) >= HIGH);
+
+    List<String> factors = new ArrayList<>();
+    List<String> advice = new ArrayList<>();
+    if (lowMood != null && lowMood >= 0.6) {
+      factors.add("Low mood (" + mood + "/10 on average this week)");
+      advice.add("Plan one small activity you enjoy each day");
+    }
+    if (moodFalling != null && moodFalling >= 0.33) {
+      factors.add("Mood down " + Math.abs(moodChange) + " points from the week before");
+    }
+    if (highStress != null && highStress >= 0.6) {
+      factors.add("High stress (" + stress + "/10 on average this week)");
+      advice.add("Set aside ten minutes a day for breathing or meditation");
+    }
+    if (sleepDebt != null && sleepDebt >= 0.4) {
+      factors.add("Sleep debt of " + trends.getSleepDebtHours() + " hours this week");
+      advice.add("Keep a fixed bedtime and protect your sleep window");
+    }
+    if (poorSleep != null && poorSleep >= 0.6) {
+      factors.add("Poor sleep quality");
+    }
+    if (lowEnergy != null && lowEnergy >= 0.6) {
+      factors.add("Low energy");
+    }
+    if (heavyScreen != null && heavyScreen >= 0.5) {
+      factors.add("Heavy screen time (" + screenTime + " hours a day)");
+      advice.add("Take screen-free breaks, especially before bed");
+    }
+    if (isolated != null && isolated >= 0.5) {
+      factors.add("Little social contact (" + social + " hours a day)");
+      advice.add("Reach out to a friend or family member this week");
+    }
+    if (Boolean.TRUE.equals(assessment.getShouldContactProfessional())) {
+      advice.add("Consider talking to a mental health professional");
+    }
+    assessment.setRiskFactors(factors.isEmpty() ? null : String.join("; ", factors));
+    assessment.setRecommendations(advice.isEmpty() ? null : String.join("; ", advice));
+  }
+
+  // Weighted mean of the signals that are present, or null when none are
+  private static Double mix(double[] weights, Double... signals) {
+    double total = 0;
+    double weight = 0;
+    for (int i = 0; i < signals.length; i++) {
+      if (signals[i] != null) {
+        total += weights[i] * signals[i];
+        weight += weights[i];
+      }
+    }
+    return weight > 0 ? Math.round(total / weight * 1000.0) / 1000.0 : null;
+  }
+
+  private static Double week(Map<String, WellnessTrends.MetricTrend> metrics, String key) {
+    WellnessTrends.MetricTrend metric = metrics.get(key);
+    return metric != null ? metric.getAverage7Days() : null;
+  }
+
+  private static Double change(Map<String, WellnessTrends.MetricTrend> metrics, String key) {
+    WellnessTrends.MetricTrend metric = metrics.get(key);
+    return metric != null ? metric.getWeekOverWeekChange() : null;
+  }
+
+  // 1-10 score onto 0-1
+  private static double scale(double score) {
+    return clamp((score - 1) / 9);
+  }
+
+  private static double clamp(double value) {
+    return Math.max(0, Math.min(1, value));
+  }
+
+  private static double nz(Double value) {
+    return value != null ? value : 0;
+  }
+}
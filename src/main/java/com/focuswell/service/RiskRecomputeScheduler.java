@@ -0,0 +1,147 @@
+package com.focuswell.service;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Debounces risk recomputation per user. Each request pushes the user's pending run
+ * back to {@code delay} after the latest write, so a burst of edits leads to one
+ * assessment, computed off the request thread. A user who keeps writing is still
+ * assessed once {@code max-delay} has passed since the first pending request. Runs
+ * for the same user never overlap: a run that comes due while another is in progress
+ * marks the user dirty, and the active run schedules one more when it finishes.
+ */
+@Component
+@Slf4j
+public class RiskRecomputeScheduler {
+
+  private static final class Pending {
+    private final long firstRequestedAt = System.nanoTime();
+    private ScheduledFuture<?> run;
+  }
+
+  private final RiskAssessmentService riskAssessmentService;
+  private final UserService userService;
+  private final ScheduledThreadPoolExecutor executor;
+  private final long delayNanos;
+  private final long maxDelayNanos;
+
+  private final Map<Long, Pending> pending = new ConcurrentHashMap<>();
+  // Users with a run in progress, mapped to whether another was requested meanwhile
+  private final Map<Long, Boolean> running = new ConcurrentHashMap<>();
+
+  private final Counter requests;
+  private final Counter runs;
+  private final Counter failures;
+
+  public RiskRecomputeScheduler(RiskAssessmentService riskAssessmentService, UserService userService,
+      MeterRegistry meterRegistry,
+      @Value("${risk.recompute.delay:PT2S}") Duration delay,
+      @Value("${risk.recompute.max-delay:PT30S}") Duration maxDelay,
+      @Value("${risk.recompute.threads:2}") int threads) {
+    this.riskAssessmentService = riskAssessmentService;
+    this.userService = userService;
+    this.delayNanos = delay.toNanos();
+    this.maxDelayNanos = Math.max(maxDelay.toNanos(), delayNanos);
+
+    AtomicInteger threadNumber = new AtomicInteger();
+    this.executor = new ScheduledThreadPoolExecutor(Math.max(1, threads), runnable -> {
+      Thread thread = new Thread(runnable, "risk-" + threadNumber.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    });
+    // Superseded runs are cancelled all the time; do not keep them queued until due
+    this.executor.setRemoveOnCancelPolicy(true);
+
+    this.requests = meterRegistry.counter("risk.recompute.requests");
+    this.runs = meterRegistry.counter("risk.recompute.runs");
+    this.failures = meterRegistry.counter("risk.recompute.failures");
+  }
+
+  @PreDestroy
+  void shutdown() {
+    executor.shutdownNow();
+  }
+
+  // Inside a transaction the request takes effect after commit, so the run sees the write
+  public void requestRecompute(Long userId) {
+    if (userId == null) {
+      return;
+    }
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+        @Override
+        public void afterCommit() {
+          accept(userId);
+        }
+      });
+    } else {
+      accept(userId);
+    }
+  }
+
+  private void accept(Long userId) {
+    requests.increment();
+    schedule(userId);
+  }
+
+  private void schedule(Long userId) {
+    pending.compute(userId, (id, current) -> {
+      Pending next = current != null ? current : new Pending();
+      if (current != null) {
+        current.run.cancel(false);
+      }
+      long deadline = next.firstRequestedAt + maxDelayNanos;
+      long delay = Math.max(0, Math.min(delayNanos, deadline - System.nanoTime()));
+      next.run = executor.schedule(() -> run(id, next), delay, TimeUnit.NANOSECONDS);
+      return next;
+    });
+  }
+
+  private void run(Long userId, Pending scheduled) {
+    // The first run to fire claims the entry; one superseded too late to cancel finds it gone
+    if (!pending.remove(userId, scheduled)) {
+      return;
+    }
+    boolean[] claimed = new boolean[1];
+    running.compute(userId, (id, dirty) -> {
+      claimed[0] = dirty == null;
+      return !claimed[0];
+    });
+    if (!claimed[0]) {
+      // A run for this user is in progress; it goes again when it finishes, on current data
+      return;
+    }
+    try {
+      runs.increment();
+      riskAssessmentService.assess(userService.getReference(userId));
+    } catch (RuntimeException e) {
+      failures.increment();
+      log.warn("Risk assessment failed for user {}: {}", userId, e.getMessage());
+    } finally {
+      if (Boolean.TRUE.equals(running.remove(userId))) {
+        schedule(userId);
+      }
+    }
+  }
+
+  // For tests: whether a run for the user is scheduled and has not started yet
+  boolean isPending(Long userId) {
+    return pending.containsKey(userId);
+  }
+}
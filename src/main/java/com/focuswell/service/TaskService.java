@@ -6,9 +6,12 @@ import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
 
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import com.focuswell.cache.UserDataVersions;
+import com.focuswell.dto.CursorPage;
 import com.focuswell.dto.TaskRequest;
 import com.focuswell.exception.ResourceNotFoundException;
 import com.focuswell.model.Priority;
@@ -26,9 +29,11 @@ import lombok.extern.slf4j.Slf4j;
 public class TaskService {
 
     private final TaskRepository taskRepository;
+    private final DailyRollupService rollupService;
+    private final UserDataVersions dataVersions;
 
     public Task createTask(TaskRequest request, User user) {
-        log.info("Creating task for user: {}", user.getUsername());
+        log.info("Creating task for user: {}", user.getId());
 
         Task task = new Task();
         task.setTitle(request.getTitle());
@@ -42,91 +47,131 @@ public class TaskService {
         task.setUser(user);
 
         Task savedTask = taskRepository.save(task);
+        rollupService.recordTask(user, savedTask, 1);
+        dataVersions.bump(user.getId());
         log.info("Task created with ID: {}", savedTask.getId());
         return savedTask;
     }
 
     public List<Task> getAllTasks(User user) {
-        log.info("Fetching all tasks for user: {}", user.getUsername());
+        log.info("Fetching all tasks for user: {}", user.getId());
         return taskRepository.findAllByUserOrderByDueDateAsc(user);
     }
 
+    // One page of tasks by due date; a null cursor starts from the earliest
+    public CursorPage<Task> getTasksPage(User user, String cursor, int size) {
+        PageRequest limit = PageRequest.of(0, size + 1);
+        List<Task> rows;
+        if (cursor == null) {
+            rows = taskRepository.findByUserOrderByDueDateAscIdAsc(user, limit);
+        } else {
+            CursorPage.Cursor after = CursorPage.Cursor.decode(cursor);
+            rows = taskRepository.findPageByUserAfter(user, after.date(), after.id(), limit);
+        }
+        return CursorPage.of(rows, size, t -> new CursorPage.Cursor(t.getDueDate(), t.getId()));
+    }
+
     public List<Task> getTodayTasks(User user) {
-        log.info("Fetching today's tasks for user: {}", user.getUsername());
+        log.info("Fetching today's tasks for user: {}", user.getId());
         LocalDate today = LocalDate.now();
         return taskRepository.findByUserAndDueDate(user, today);
     }
 
     public List<Task> getOverdueTasks(User user) {
-        log.info("Fetching overdue tasks for user: {}", user.getUsername());
+        log.info("Fetching overdue tasks for user: {}", user.getId());
         return taskRepository.findByUserAndCompletedFalseAndDueDateBefore(user, LocalDate.now());
     }
 
     public List<Task> getUpcomingTasks(User user, int days) {
-        log.info("Fetching upcoming tasks for user: {} for next {} days", user.getUsername(), days);
+        log.info("Fetching upcoming tasks for user: {} for next {} days", user.getId(), days);
         LocalDate endDate = LocalDate.now().plusDays(days);
         return taskRepository.findByUserAndDueDateBetween(user, LocalDate.now(), endDate);
     }
 
     public List<Task> getTasksByCategory(User user, String category) {
-        log.info("Fetching tasks by category: {} for user: {}", category, user.getUsername());
+        log.info("Fetching tasks by category: {} for user: {}", category, user.getId());
         return taskRepository.findByUserAndCategory(user, category);
     }
 
     public List<Task> getTasksByPriority(User user, Priority priority) {
-        log.info("Fetching tasks by priority: {} for user: {}", priority, user.getUsername());
+        log.info("Fetching tasks by priority: {} for user: {}", priority, user.getId());
         return taskRepository.findByUserAndPriority(user, priority);
     }
 
     public List<Task> getTaskHistory(User user, LocalDate start, LocalDate end) {
-        log.info("Fetching task history for user: {} from {} to {}", user.getUsername(), start, end);
+        log.info("Fetching task history for user: {} from {} to {}", user.getId(), start, end);
         return taskRepository.findByUserAndDueDateBetween(user, start, end);
     }
 
+    public CursorPage<Task> getTaskHistoryPage(User user, LocalDate start, LocalDate end, String cursor, int size) {
+        PageRequest limit = PageRequest.of(0, size + 1);
+        List<Task> rows;
+        if (cursor == null) {
+            rows = taskRepository.findByUserAndDueDateBetweenOrderByDueDateAscIdAsc(user, start, end, limit);
+        } else {
+            CursorPage.Cursor after = CursorPage.Cursor.decode(cursor);
+            if (after.date().isBefore(start)) {
+                // Keep a cursor from another range from reaching before start
+                after = new CursorPage.Cursor(start, 0);
+            }
+            rows = taskRepository.findPageByUserAfterUntil(user, after.date(), after.id(), end, limit);
+        }
+        return CursorPage.of(rows, size, t -> new CursorPage.Cursor(t.getDueDate(), t.getId()));
+    }
+
     public Task markTaskComplete(Long taskId, User user) {
-        log.info("Marking task {} as complete for user: {}", taskId, user.getUsername());
+        log.info("Marking task {} as complete for user: {}", taskId, user.getId());
 
         Task task = taskRepository.findByIdAndUser(taskId, user)
                 .orElseThrow(() -> new ResourceNotFoundException("Task not found"));
 
+        rollupService.recordTask(user, task, -1);
         task.setCompleted(true);
         task.setCompletedAt(LocalDateTime.now());
 
         Task savedTask = taskRepository.save(task);
+        rollupService.recordTask(user, savedTask, 1);
+        dataVersions.bump(user.getId());
         log.info("Task {} marked as complete", taskId);
         return savedTask;
     }
 
     public Task markTaskIncomplete(Long taskId, User user) {
-        log.info("Marking task {} as incomplete for user: {}", taskId, user.getUsername());
+        log.info("Marking task {} as incomplete for user: {}", taskId, user.getId());
 
         Task task = taskRepository.findByIdAndUser(taskId, user)
                 .orElseThrow(() -> new ResourceNotFoundException("Task not found"));
 
+        rollupService.recordTask(user, task, -1);
         task.setCompleted(false);
         task.setCompletedAt(null);
 
         Task savedTask = taskRepository.save(task);
+        rollupService.recordTask(user, savedTask, 1);
+        dataVersions.bump(user.getId());
         log.info("Task {} marked as incomplete", taskId);
         return savedTask;
     }
 
     public void deleteTask(Long taskId, User user) {
-        log.info("Deleting task {} for user: {}", taskId, user.getUsername());
+        log.info("Deleting task {} for user: {}", taskId, user.getId());
 
         Task task = taskRepository.findByIdAndUser(taskId, user)
                 .orElseThrow(() -> new ResourceNotFoundException("Task not found"));
 
         taskRepository.delete(task);
+        rollupService.recordTask(user, task, -1);
+        dataVersions.bump(user.getId());
         log.info("Task {} deleted successfully", taskId);
     }
 
     public Task updateTask(Long taskId, TaskRequest request, User user) {
-        log.info("Updating task {} for user: {}", taskId, user.getUsername());
+        log.info("Updating task {} for user: {}", taskId, user.getId());
 
         Task task = taskRepository.findByIdAndUser(taskId, user)
                 .orElseThrow(() -> new ResourceNotFoundException("Task not found"));
 
+        rollupService.recordTask(user, task, -1);
         task.setTitle(request.getTitle());
         task.setDescription(request.getDescription());
         task.setDueDate(request.getDueDate());
@@ -137,12 +182,14 @@ public class TaskService {
         task.setActualHours(request.getActualHours());
 
         Task savedTask = taskRepository.save(task);
+        rollupService.recordTask(user, savedTask, 1);
+        dataVersions.bump(user.getId());
         log.info("Task {} updated successfully", taskId);
         return savedTask;
     }
 
     public Task archiveTask(Long taskId, User user) {
-        log.info("Archiving task {} for user: {}", taskId, user.getUsername());
+        log.info("Archiving task {} for user: {}", taskId, user.getId());
 
         Task task = taskRepository.findByIdAndUser(taskId, user)
                 .orElseThrow(() -> new ResourceNotFoundException("Task not found"));
@@ -150,13 +197,14 @@ public class TaskService {
         task.setArchived(true);
 
         Task savedTask = taskRepository.save(task);
+        dataVersions.bump(user.getId());
         log.info("Task {} archived successfully", taskId);
         return savedTask;
     }
 
     // Analytics methods
     public Map<String, Object> getTaskAnalytics(User user) {
-        log.info("Generating task analytics for user: {}", user.getUsername());
+        log.info("Generating task analytics for user: {}", user.getId());
 
         List<Task> allTasks = taskRepository.findAllByUserOrderByDueDateAsc(user);
 
@@ -183,12 +231,12 @@ public class TaskService {
                 "tasksByPriority", tasksByPriority,
                 "tasksByCategory", tasksByCategory);
 
-        log.info("Analytics generated for user: {}", user.getUsername());
+        log.info("Analytics generated for user: {}", user.getId());
         return analytics;
     }
 
     public List<String> getTaskCategories(User user) {
-        log.info("Fetching task categories for user: {}", user.getUsername());
+        log.info("Fetching task categories for user: {}", user.getId());
         return taskRepository.findDistinctCategoriesByUser(user);
     }
 }
@@ -1,13 +1,18 @@
 package com.focuswell.service;
 
+import java.security.Principal;
 import java.util.Optional;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.core.Authentication;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
+import com.focuswell.cache.UserCache;
+import com.focuswell.exception.UserNotFoundException;
 import com.focuswell.model.User;
 import com.focuswell.repository.UserRepository;
+import com.focuswell.security.CustomUserDetails;
 
 @Service
 public class UserService {
@@ -18,9 +23,14 @@ public class UserService {
     @Autowired
     private PasswordEncoder passwordEncoder;
 
+    @Autowired
+    private UserCache userCache;
+
     public User registerUser(User user) {
         user.setPassword(passwordEncoder.encode(user.getPassword())); // 👈 Hash password
-        return userRepository.save(user);
+        User saved = userRepository.save(user);
+        userCache.evict(saved);
+        return saved;
     }
 
     public Optional<User> findByEmail(String email) {
@@ -32,15 +42,32 @@ public class UserService {
                 .orElseThrow(() -> new RuntimeException("User not found with id: " + id));
     }
 
+    // Unloaded proxy to use as an association; reading its fields other than the id issues the users query
+    public User getReference(Long id) {
+        return userRepository.getReferenceById(id);
+    }
+
+    // User for the authenticated request, as a reference when the principal carries the id
+    public User currentUser(Principal principal) {
+        if (principal instanceof Authentication auth && auth.getPrincipal() instanceof CustomUserDetails details
+                && details.getId() != null) {
+            return getReference(details.getId());
+        }
+        return userCache.findByUsername(principal.getName())
+                .map(snapshot -> getReference(snapshot.id()))
+                .orElseThrow(() -> new UserNotFoundException("User not found: " + principal.getName()));
+    }
+
     public User getUserByEmail(String email) {
         // Extract the User from Optional
         return userRepository.findByEmail(email)
                 .orElseThrow(() -> new RuntimeException("User not found with email: " + email));
     }
 
+    // Deactivated accounts are refused like a wrong password
     public User login(String username, String password) {
         User user = userRepository.findByUsername(username).orElse(null);
-        if (user != null && passwordEncoder.matches(password, user.getPassword())) {
+        if (user != null && user.isActive() && passwordEncoder.matches(password, user.getPassword())) {
             return user;
         }
         return null;
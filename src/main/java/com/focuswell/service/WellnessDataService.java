@@ -5,8 +5,12 @@ import java.util.List;
 import java.util.Optional;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import com.focuswell.cache.UserDataVersions;
+import com.focuswell.dto.CursorPage;
 import com.focuswell.dto.WellnessDataRequest;
 import com.focuswell.model.User;
 import com.focuswell.model.WellnessData;
@@ -21,9 +25,22 @@ public class WellnessDataService {
   @Autowired
   private UserService userService;
 
-  // Save or update wellness data for a user
+  @Autowired
+  private DailyRollupService rollupService;
+
+  @Autowired
+  private UserDataVersions dataVersions;
+
+  @Autowired
+  private WellnessTrendEngine trendEngine;
+
+  @Autowired
+  private RiskRecomputeScheduler riskScheduler;
+
+  // Save or update wellness data for a user; the row and its rollup score commit together
+  @Transactional
   public WellnessData saveWellnessData(Long userId, WellnessDataRequest request) {
-    User user = userService.findById(userId);
+    User user = userService.getReference(userId);
 
     // Check if data already exists for this date
     Optional<WellnessData> existingData = wellnessDataRepository.findByUserAndDate(user, request.getDate());
@@ -52,115 +69,96 @@ public class WellnessDataService {
     wellnessData.setEnergyLevel(request.getEnergyLevel());
     wellnessData.setNotes(request.getNotes());
 
-    return wellnessDataRepository.save(wellnessData);
+    WellnessData saved = wellnessDataRepository.save(wellnessData);
+    rollupService.recordWellnessScore(user, saved.getDate(), saved.getWellnessScore());
+    dataVersions.bump(userId);
+    trendEngine.record(userId, saved);
+    riskScheduler.requestRecompute(userId);
+    return saved;
   }
 
   // Get wellness data for a specific date
   public Optional<WellnessData> getWellnessDataByDate(Long userId, LocalDate date) {
-    User user = userService.findById(userId);
+    User user = userService.getReference(userId);
     return wellnessDataRepository.findByUserAndDate(user, date);
   }
 
   // Get all wellness data for a user
   public List<WellnessData> getAllWellnessData(Long userId) {
-    User user = userService.findById(userId);
+    User user = userService.getReference(userId);
     return wellnessDataRepository.findByUserOrderByDateDesc(user);
   }
 
+  // One page of wellness data, newest first; a null cursor starts from the most recent entry
+  public CursorPage<WellnessData> getWellnessDataPage(Long userId, String cursor, int size) {
+    User user = userService.getReference(userId);
+    PageRequest limit = PageRequest.of(0, size + 1);
+    List<WellnessData> rows;
+    if (cursor == null) {
+      rows = wellnessDataRepository.findByUserOrderByDateDescIdDesc(user, limit);
+    } else {
+      CursorPage.Cursor after = CursorPage.Cursor.decode(cursor);
+      rows = wellnessDataRepository.findPageByUserBefore(user, after.date(), after.id(), limit);
+    }
+    return CursorPage.of(rows, size, w -> new CursorPage.Cursor(w.getDate(), w.getId()));
+  }
+
   // Get wellness data for a date range
   public List<WellnessData> getWellnessDataByDateRange(Long userId, LocalDate startDate, LocalDate endDate) {
-    User user = userService.findById(userId);
+    User user = userService.getReference(userId);
     return wellnessDataRepository.findByUserAndDateBetweenOrderByDateDesc(user, startDate, endDate);
   }
 
   // Get wellness data for the last N days
   public List<WellnessData> getRecentWellnessData(Long userId, int days) {
-    User user = userService.findById(userId);
+    User user = userService.getReference(userId);
     LocalDate startDate = LocalDate.now().minusDays(days);
     return wellnessDataRepository.findByUserAndDateAfterOrderByDateDesc(user, startDate);
   }
 
   // Get complete wellness data (with all required fields)
   public List<WellnessData> getCompleteWellnessData(Long userId) {
-    User user = userService.findById(userId);
+    User user = userService.getReference(userId);
     return wellnessDataRepository.findCompleteWellnessDataByUser(user);
   }
 
   // Calculate average wellness score for a date range
   public Double calculateAverageWellnessScore(Long userId, LocalDate startDate, LocalDate endDate) {
-    User user = userService.findById(userId);
+    User user = userService.getReference(userId);
     return wellnessDataRepository.calculateAverageWellnessScore(user, startDate, endDate);
   }
 
   // Find days with low wellness scores
   public List<WellnessData> findLowWellnessDays(Long userId, Double threshold) {
-    User user = userService.findById(userId);
+    User user = userService.getReference(userId);
     return wellnessDataRepository.findLowWellnessDays(user, threshold);
   }
 
   // Get wellness statistics
   public WellnessStats getWellnessStats(Long userId) {
     try {
-      User user = userService.findById(userId);
+      User user = userService.getReference(userId);
       if (user == null) {
         // Return empty stats if user not found
         return new WellnessStats();
       }
 
       WellnessStats stats = new WellnessStats();
+      LocalDate today = LocalDate.now();
+      Object[] summary = wellnessDataRepository.summarizeByUser(user, today).get(0);
 
-      try {
-        stats.setTotalEntries(wellnessDataRepository.countByUser(user));
-      } catch (Exception e) {
-        System.err.println("Error counting wellness entries: " + e.getMessage());
-        stats.setTotalEntries(0L);
-      }
-
-      // Get all wellness data for the user
-      List<WellnessData> allData = null;
-      try {
-        allData = wellnessDataRepository.findByUserOrderByDateDesc(user);
-      } catch (Exception e) {
-        System.err.println("Error fetching wellness data: " + e.getMessage());
-        allData = new java.util.ArrayList<>();
+      stats.setTotalEntries(((Number) summary[0]).longValue());
+      if (summary[2] != null) {
+        stats.setCurrentWellnessScore(((Number) summary[2]).doubleValue());
       }
-
-      if (allData != null && !allData.isEmpty()) {
-        try {
-          // Get the most recent wellness score
-          WellnessData mostRecent = allData.get(0);
-          if (mostRecent != null && mostRecent.getWellnessScore() != null) {
-            stats.setCurrentWellnessScore(mostRecent.getWellnessScore());
-          }
-        } catch (Exception e) {
-          System.err.println("Error getting most recent wellness score: " + e.getMessage());
-        }
-
-        try {
-          // Calculate average wellness score from all data
-          double totalScore = 0;
-          int count = 0;
-          for (WellnessData data : allData) {
-            if (data != null && data.getWellnessScore() != null) {
-              totalScore += data.getWellnessScore();
-              count++;
-            }
-          }
-          if (count > 0) {
-            stats.setAverageWellnessScore(Math.round((totalScore / count) * 100.0) / 100.0);
-          }
-        } catch (Exception e) {
-          System.err.println("Error calculating average wellness score: " + e.getMessage());
-        }
-      }
-
-      try {
-        // Get streak days
-        stats.setStreakDays(calculateStreakDays(user));
-      } catch (Exception e) {
-        System.err.println("Error calculating streak days: " + e.getMessage());
-        stats.setStreakDays(0);
+      if (summary[3] != null) {
+        stats.setAverageWellnessScore(Math.round(((Number) summary[3]).doubleValue() * 100.0) / 100.0);
       }
+      // The streak counts back from today, so an entry dated after today breaks it
+      LocalDate latest = (LocalDate) summary[1];
+      stats.setLastEntryDate(latest);
+      boolean futureEntry = latest != null && latest.isAfter(today);
+      stats.setStreakDays(summary[4] == null || futureEntry ? 0 : ((Number) summary[4]).intValue());
 
       return stats;
     } catch (Exception e) {
@@ -176,34 +174,9 @@ public class WellnessDataService {
     }
   }
 
-  // Calculate streak days (consecutive days with data)
-  private int calculateStreakDays(User user) {
-    try {
-      List<WellnessData> allData = wellnessDataRepository.findByUserOrderByDateDesc(user);
-      if (allData == null || allData.isEmpty())
-        return 0;
-
-      int streak = 0;
-      LocalDate currentDate = LocalDate.now();
-
-      for (WellnessData data : allData) {
-        if (data != null && data.getDate() != null && data.getDate().equals(currentDate.minusDays(streak))) {
-          streak++;
-        } else {
-          break;
-        }
-      }
-
-      return streak;
-    } catch (Exception e) {
-      System.err.println("Error calculating streak days: " + e.getMessage());
-      return 0;
-    }
-  }
-
   // Check if user has data for today
   public boolean hasTodayData(Long userId) {
-    User user = userService.findById(userId);
+    User user = userService.getReference(userId);
     return wellnessDataRepository.existsByUserAndDate(user, LocalDate.now());
   }
 
@@ -213,6 +186,7 @@ public class WellnessDataService {
     private Double currentWellnessScore;
     private Double averageWellnessScore;
     private Integer streakDays;
+    private LocalDate lastEntryDate;
 
     // Getters and setters
     public Long getTotalEntries() {
@@ -246,5 +220,13 @@ public class WellnessDataService {
     public void setStreakDays(Integer streakDays) {
       this.streakDays = streakDays;
     }
+
+    public LocalDate getLastEntryDate() {
+      return lastEntryDate;
+    }
+
+    public void setLastEntryDate(LocalDate lastEntryDate) {
+      this.lastEntryDate = lastEntryDate;
+    }
   }
 }
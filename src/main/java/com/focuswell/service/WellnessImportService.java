@@ -0,0 +1,431 @@
+package com.focuswell.service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.focuswell.cache.UserDataVersions;
+import com.focuswell.dto.WellnessDataRequest;
+import com.focuswell.dto.WellnessImportResult;
+import com.focuswell.model.WellnessData;
+
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Bulk import of wellness history. Input is read one row at a time and written in
+ * JDBC batches of upserts keyed on (user_id, date), so memory use is bounded by the
+ * batch size however large the upload is. Invalid rows are reported by line number
+ * and skipped; the rest are imported.
+ */
+@Service
+@Slf4j
+public class WellnessImportService {
+
+  public enum Format {
+    NDJSON, CSV
+  }
+
+  // Same overwrite semantics as saveWellnessData: every field takes the imported value
+  private static final String UPSERT_SQL = "INSERT INTO wellness_data (user_id, date, sleep_hours, sleep_quality, "
+      + "mood_score, stress_level, productivity_score, physical_activity_minutes, social_interaction_hours, "
+      + "screen_time_hours, water_intake_glasses, meals_skipped, meditation_minutes, energy_level, notes, "
+      + "wellness_score, created_at, updated_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?) "
+      + "ON DUPLICATE KEY UPDATE sleep_hours = VALUES(sleep_hours), sleep_quality = VALUES(sleep_quality), "
+      + "mood_score = VALUES(mood_score), stress_level = VALUES(stress_level), "
+      + "productivity_score = VALUES(productivity_score), "
+      + "physical_activity_minutes = VALUES(physical_activity_minutes), "
+      + "social_interaction_hours = VALUES(social_interaction_hours), "
+      + "screen_time_hours = VALUES(screen_time_hours), water_intake_glasses = VALUES(water_intake_glasses), "
+      + "meals_skipped = VALUES(meals_skipped), meditation_minutes = VALUES(meditation_minutes), "
+      + "energy_level = VALUES(energy_level), notes = VALUES(notes), wellness_score = VALUES(wellness_score), "
+      + "updated_at = VALUES(updated_at)";
+
+  // Same effect as DailyRollupService.recordWellnessScore for each imported day
+  private static final String ROLLUP_SQL = "INSERT INTO daily_user_rollup (user_id, date, habit_logs, tasks_completed, "
+      + "tasks_due, tasks_due_completed, wellness_score, meal_calories, updated_at) VALUES (?, ?, 0, 0, 0, 0, ?, 0, ?) "
+      + "ON DUPLICATE KEY UPDATE wellness_score = VALUES(wellness_score), updated_at = VALUES(updated_at)";
+
+  // CSV columns, matched ignoring case and underscores (sleep_hours, SleepHours, ...)
+  private static final Set<String> CSV_FIELDS = Set.of("date", "sleepHours", "sleepQuality", "moodScore",
+      "stressLevel", "productivityScore", "physicalActivityMinutes", "socialInteractionHours", "screenTimeHours",
+      "waterIntakeGlasses", "mealsSkipped", "meditationMinutes", "energyLevel", "notes");
+
+  private final JdbcTemplate jdbcTemplate;
+  private final TransactionTemplate transactionTemplate;
+  private final ObjectMapper objectMapper;
+  private final Validator validator;
+  private final DailyRollupService rollupService;
+  private final UserDataVersions dataVersions;
+  private final WellnessTrendEngine trendEngine;
+  private final RiskRecomputeScheduler riskScheduler;
+  private final int batchSize;
+  private final long maxRows;
+  private final int maxReportedErrors;
+  private final int maxRecordChars;
+
+  public WellnessImportService(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate,
+      ObjectMapper objectMapper, Validator validator,
+      DailyRollupService rollupService, UserDataVersions dataVersions, WellnessTrendEngine trendEngine,
+      RiskRecomputeScheduler riskScheduler,
+      @Value("${wellness.import.batch-size:500}") int batchSize,
+      @Value("${wellness.import.max-rows:200000}") long maxRows,
+      @Value("${wellness.import.max-reported-errors:100}") int maxReportedErrors,
+      @Value("${wellness.import.max-record-chars:65536}") int maxRecordChars) {
+    this.jdbcTemplate = jdbcTemplate;
+    this.transactionTemplate = transactionTemplate;
+    this.objectMapper = objectMapper;
+    this.validator = validator;
+    this.rollupService = rollupService;
+    this.dataVersions = dataVersions;
+    this.trendEngine = trendEngine;
+    this.riskScheduler = riskScheduler;
+    this.batchSize = Math.max(1, batchSize);
+    this.maxRows = maxRows;
+    this.maxReportedErrors = maxReportedErrors;
+    this.maxRecordChars = Math.max(1, maxRecordChars);
+  }
+
+  private record Row(long line, WellnessDataRequest request, String error) {
+  }
+
+  private interface RowSource {
+    // Next data row, or null at end of input
+    Row next() throws IOException;
+  }
+
+  public WellnessImportResult importData(Long userId, Format format, Reader input) throws IOException {
+    long start = System.nanoTime();
+    WellnessImportResult result = new WellnessImportResult();
+    List<Row> batch = new ArrayList<>(batchSize);
+
+    try (BufferedReader reader = new BufferedReader(input)) {
+      RowSource rows = format == Format.CSV ? csvRows(reader) : ndjsonRows(reader);
+      Row row;
+      while ((row = rows.next()) != null) {
+        if (result.getRowsRead() >= maxRows) {
+          reject(result, row.line(), "Row limit of " + maxRows + " reached; the rest of the input was not imported");
+          break;
+        }
+        result.setRowsRead(result.getRowsRead() + 1);
+        String error = row.error() != null ? row.error() : validate(row.request());
+        if (error != null) {
+          reject(result, row.line(), error);
+          continue;
+        }
+        batch.add(row);
+        if (batch.size() >= batchSize) {
+          flush(userId, batch, result);
+        }
+      }
+    }
+    flush(userId, batch, result);
+
+    if (result.getRowsImported() > 0) {
+      dataVersions.bump(userId);
+      trendEngine.invalidate(userId);
+      riskScheduler.requestRecompute(userId);
+    }
+
+    long elapsedNanos = System.nanoTime() - start;
+    result.setElapsedMs(elapsedNanos / 1_000_000);
+    result.setRowsPerSecond(result.getRowsRead() * 1e9 / Math.max(elapsedNanos, 1));
+    log.info("Imported {} of {} wellness rows for user {} in {} ms ({} rows/s)", result.getRowsImported(),
+        result.getRowsRead(), userId, result.getElapsedMs(), Math.round(result.getRowsPerSecond()));
+    return result;
+  }
+
+  private void flush(Long userId, List<Row> batch, WellnessImportResult result) {
+    if (batch.isEmpty()) {
+      return;
+    }
+    LocalDateTime now = LocalDateTime.now();
+    try {
+      // The upserts bypass the write-through rollup hook, so the rollup rows go in the same transaction
+      transactionTemplate.executeWithoutResult(status -> {
+        rollupService.lockForDeltas(userId);
+        jdbcTemplate.batchUpdate(UPSERT_SQL, batch, batch.size(), (ps, row) -> bind(ps, userId, row.request(), now));
+        jdbcTemplate.batchUpdate(ROLLUP_SQL, batch, batch.size(),
+            (ps, row) -> bindRollup(ps, userId, row.request(), now));
+      });
+      result.setRowsImported(result.getRowsImported() + batch.size());
+    } catch (DataAccessException e) {
+      // Retry row by row so the report names the rows the database refused
+      for (Row row : batch) {
+        try {
+          transactionTemplate.executeWithoutResult(status -> {
+            rollupService.lockForDeltas(userId);
+            jdbcTemplate.update(UPSERT_SQL, ps -> bind(ps, userId, row.request(), now));
+            jdbcTemplate.update(ROLLUP_SQL, ps -> bindRollup(ps, userId, row.request(), now));
+          });
+          result.setRowsImported(result.getRowsImported() + 1);
+        } catch (DataAccessException rowError) {
+          reject(result, row.line(), "Could not be saved: " + rowError.getMostSpecificCause().getMessage());
+        }
+      }
+    }
+    batch.clear();
+  }
+
+  private static void bind(PreparedStatement ps, Long userId, WellnessDataRequest r, LocalDateTime now)
+      throws SQLException {
+    ps.setLong(1, userId);
+    ps.setObject(2, r.getDate());
+    setNullable(ps, 3, r.getSleepHours(), Types.DOUBLE);
+    setNullable(ps, 4, r.getSleepQuality(), Types.INTEGER);
+    setNullable(ps, 5, r.getMoodScore(), Types.INTEGER);
+    setNullable(ps, 6, r.getStressLevel(), Types.INTEGER);
+    setNullable(ps, 7, r.getProductivityScore(), Types.INTEGER);
+    setNullable(ps, 8, r.getPhysicalActivityMinutes(), Types.INTEGER);
+    setNullable(ps, 9, r.getSocialInteractionHours(), Types.DOUBLE);
+    setNullable(ps, 10, r.getScreenTimeHours(), Types.DOUBLE);
+    setNullable(ps, 11, r.getWaterIntakeGlasses(), Types.INTEGER);
+    setNullable(ps, 12, r.getMealsSkipped(), Types.INTEGER);
+    setNullable(ps, 13, r.getMeditationMinutes(), Types.INTEGER);
+    setNullable(ps, 14, r.getEnergyLevel(), Types.INTEGER);
+    setNullable(ps, 15, r.getNotes(), Types.VARCHAR);
+    setNullable(ps, 16, score(r), Types.DOUBLE);
+    ps.setObject(17, now);
+    ps.setObject(18, now);
+  }
+
+  private static void bindRollup(PreparedStatement ps, Long userId, WellnessDataRequest r, LocalDateTime now)
+      throws SQLException {
+    ps.setLong(1, userId);
+    ps.setObject(2, r.getDate());
+    setNullable(ps, 3, score(r), Types.DOUBLE);
+    ps.setObject(4, now);
+  }
+
+  private static Double score(WellnessDataRequest r) {
+    return WellnessData.calculateWellnessScore(r.getMoodScore(), r.getStressLevel(), r.getProductivityScore(),
+        r.getSleepQuality(), r.getEnergyLevel());
+  }
+
+  private static void setNullable(PreparedStatement ps, int index, Object value, int sqlType) throws SQLException {
+    if (value == null) {
+      ps.setNull(index, sqlType);
+    } else {
+      ps.setObject(index, value, sqlType);
+    }
+  }
+
+  private String validate(WellnessDataRequest request) {
+    Set<ConstraintViolation<WellnessDataRequest>> violations = validator.validate(request);
+    if (violations.isEmpty()) {
+      return null;
+    }
+    return violations.stream().map(ConstraintViolation::getMessage).sorted().collect(Collectors.joining("; "));
+  }
+
+  private void reject(WellnessImportResult result, long line, String message) {
+    result.setRowsRejected(result.getRowsRejected() + 1);
+    if (result.getErrors().size() < maxReportedErrors) {
+      result.getErrors().add(new WellnessImportResult.RowError(line, message));
+    } else {
+      result.setErrorsTruncated(true);
+    }
+  }
+
+  // One JSON object per line; blank lines are skipped
+  private RowSource ndjsonRows(BufferedReader reader) {
+    long[] lineNumber = { 0 };
+    return () -> {
+      String line;
+      while ((line = reader.readLine()) != null) {
+        lineNumber[0]++;
+        if (line.isBlank()) {
+          continue;
+        }
+        try {
+          return new Row(lineNumber[0], objectMapper.readValue(line, WellnessDataRequest.class), null);
+        } catch (JsonProcessingException e) {
+          return new Row(lineNumber[0], null, "Invalid JSON: " + e.getOriginalMessage());
+        }
+      }
+      return null;
+    };
+  }
+
+  // Header row naming the columns, then one entry per row; empty cells are null
+  private RowSource csvRows(BufferedReader reader) throws IOException {
+    CsvRecordReader records = new CsvRecordReader(reader, maxRecordChars);
+    List<String> header = records.next();
+    if (header == null) {
+      return () -> null;
+    }
+    if (records.error() != null) {
+      throw new IllegalArgumentException("Invalid CSV header: " + records.error());
+    }
+    Map<String, String> fieldsByColumn = new HashMap<>();
+    for (String field : CSV_FIELDS) {
+      fieldsByColumn.put(normalize(field), field);
+    }
+    List<String> columns = new ArrayList<>(header.size());
+    for (String column : header) {
+      String field = fieldsByColumn.get(normalize(column));
+      if (field == null) {
+        throw new IllegalArgumentException("Unknown CSV column: " + column.strip());
+      }
+      columns.add(field);
+    }
+    if (!columns.contains("date")) {
+      throw new IllegalArgumentException("CSV header must include a date column");
+    }
+
+    return () -> {
+      List<String> cells;
+      while ((cells = records.next()) != null) {
+        if (records.error() == null && cells.size() == 1 && cells.get(0).isBlank()) {
+          continue;
+        }
+        long line = records.recordStartLine();
+        if (records.error() != null) {
+          return new Row(line, null, records.error());
+        }
+        if (cells.size() != columns.size()) {
+          return new Row(line, null, "Expected " + columns.size() + " columns but found " + cells.size());
+        }
+        Map<String, String> values = new HashMap<>();
+        for (int i = 0; i < cells.size(); i++) {
+          String cell = cells.get(i).strip();
+          if (!cell.isEmpty()) {
+            values.put(columns.get(i), cell);
+          }
+        }
+        try {
+          return new Row(line, objectMapper.convertValue(values, WellnessDataRequest.class), null);
+        } catch (IllegalArgumentException e) {
+          String message = e.getCause() instanceof JsonProcessingException json ? json.getOriginalMessage() : e.getMessage();
+          return new Row(line, null, "Invalid value: " + message);
+        }
+      }
+      return null;
+    };
+  }
+
+  private static String normalize(String column) {
+    return column.strip().replace("_", "").replace("\uFEFF", "").toLowerCase(Locale.ROOT);
+  }
+
+  // RFC 4180 records: quoted fields may hold commas, doubled quotes and line breaks.
+  // A record over maxRecordChars, or a quote still open at end of input, is reported
+  // through error() instead of being buffered; reading resumes at the next line.
+  private static final class CsvRecordReader {
+    private final BufferedReader reader;
+    private final int maxRecordChars;
+    private long lineNumber;
+    private long recordStartLine;
+    private String error;
+    private int peeked = -2;
+
+    CsvRecordReader(BufferedReader reader, int maxRecordChars) {
+      this.reader = reader;
+      this.maxRecordChars = maxRecordChars;
+    }
+
+    long recordStartLine() {
+      return recordStartLine;
+    }
+
+    // Why the last record could not be read, or null if it was well formed
+    String error() {
+      return error;
+    }
+
+    List<String> next() throws IOException {
+      int c = read();
+      if (c < 0) {
+        return null;
+      }
+      recordStartLine = ++lineNumber;
+      error = null;
+      List<String> fields = new ArrayList<>();
+      StringBuilder field = new StringBuilder();
+      boolean quoted = false;
+      for (int length = 1; c >= 0; c = read(), length++) {
+        if (length > maxRecordChars) {
+          error = quoted
+              ? "Quoted field is not closed within " + maxRecordChars + " characters"
+              : "Row is longer than " + maxRecordChars + " characters";
+          skipLine(c);
+          return fields;
+        }
+        if (c == '\r' || c == '\n') {
+          if (c == '\r' && peek() == '\n') {
+            read();
+          }
+          if (!quoted) {
+            break;
+          }
+          lineNumber++;
+          field.append('\n');
+        } else if (quoted) {
+          if (c != '"') {
+            field.append((char) c);
+          } else if (peek() == '"') {
+            field.append('"');
+            read();
+          } else {
+            quoted = false;
+          }
+        } else if (c == '"') {
+          quoted = true;
+        } else if (c == ',') {
+          fields.add(field.toString());
+          field.setLength(0);
+        } else {
+          field.append((char) c);
+        }
+      }
+      if (quoted) {
+        error = "Quoted field is not closed before the end of the input";
+      }
+      fields.add(field.toString());
+      return fields;
+    }
+
+    // Drops the rest of the current line, so the next record starts on the line after
+    private void skipLine(int c) throws IOException {
+      while (c >= 0 && c != '\n' && c != '\r') {
+        c = read();
+      }
+      if (c == '\r' && peek() == '\n') {
+        read();
+      }
+    }
+
+    private int read() throws IOException {
+      int c = peek();
+      peeked = -2;
+      return c;
+    }
+
+    private int peek() throws IOException {
+      if (peeked == -2) {
+        peeked = reader.read();
+      }
+      return peeked;
+    }
+  }
+}
@@ -0,0 +1,70 @@
+package com.focuswell.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.focuswell.repository.WellnessDataRepository;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Fills wellness_data.wellness_score in the background for rows written before the
+ * score was stored. Bulk updates over id ranges, one short transaction each, so no
+ * entity is loaded and updated_at is not touched; a bumped updated_at would make the
+ * insights precompute job treat every user as changed. Rows that already have a
+ * score are skipped, so a restart only redoes unfinished ranges.
+ */
+@Component
+@Slf4j
+public class WellnessScoreBackfill {
+
+    private static final int ID_RANGE = 5_000;
+
+    private final boolean enabled;
+    private final WellnessDataRepository wellnessDataRepository;
+    private final TransactionTemplate transactionTemplate;
+    private volatile boolean stopped;
+
+    public WellnessScoreBackfill(@Value("${wellness.score.backfill.enabled:true}") boolean enabled,
+            WellnessDataRepository wellnessDataRepository, TransactionTemplate transactionTemplate) {
+        this.enabled = enabled;
+        this.wellnessDataRepository = wellnessDataRepository;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        Thread thread = new Thread(this::run, "wellness-score-backfill");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    @PreDestroy
+    void stop() {
+        stopped = true;
+    }
+
+    void run() {
+        try {
+            Long maxId = wellnessDataRepository.findMaxId();
+            long rows = 0;
+            for (long start = 0; maxId != null && start < maxId && !stopped; start += ID_RANGE) {
+                long from = start;
+                rows += transactionTemplate.execute(
+                        status -> wellnessDataRepository.fillMissingScores(from, from + ID_RANGE));
+            }
+            if (rows > 0) {
+                log.info("Backfilled wellness_score for {} wellness entries", rows);
+            }
+        } catch (RuntimeException e) {
+            log.warn("Wellness score backfill failed: {}", e.getMessage());
+        }
+    }
+}
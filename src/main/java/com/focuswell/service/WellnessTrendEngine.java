@@ -0,0 +1,215 @@
+package com.focuswell.service;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.focuswell.cache.TtlCache;
+import com.focuswell.dto.WellnessTrends;
+import com.focuswell.model.User;
+import com.focuswell.model.WellnessData;
+import com.focuswell.repository.WellnessDataRepository;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Moving averages, EWMA and sleep debt per user, kept as {@link WellnessWindows} state
+ * in memory. A saved entry is folded into the state in constant time; the state is
+ * rebuilt from one ordered scan of recent history when it is missing, expired, or
+ * handed an edit older than its newest entry. Reading trends then costs no query.
+ */
+@Service
+public class WellnessTrendEngine {
+
+  // Older entries carry (1 - alpha)^n of the EWMA weight after n newer ones, which is
+  // negligible long before this many days back
+  private static final int REBUILD_DAYS = 120;
+  private static final LocalDate END_OF_TIME = LocalDate.of(9999, 12, 31);
+
+  private enum Metric {
+    MOOD("mood", WellnessData::getMoodScore),
+    STRESS("stress", WellnessData::getStressLevel),
+    PRODUCTIVITY("productivity", WellnessData::getProductivityScore),
+    SLEEP_QUALITY("sleepQuality", WellnessData::getSleepQuality),
+    ENERGY("energy", WellnessData::getEnergyLevel),
+    SLEEP_HOURS("sleepHours", WellnessData::getSleepHours),
+    SCREEN_TIME("screenTimeHours", WellnessData::getScreenTimeHours),
+    SOCIAL_HOURS("socialInteractionHours", WellnessData::getSocialInteractionHours),
+    WELLNESS_SCORE("wellnessScore", WellnessData::getWellnessScore),
+    // Hours short of the sleep target; summed rather than reported as a metric
+    SLEEP_DEBT(null, null);
+
+    private final String key;
+    private final Function<WellnessData, ? extends Number> value;
+
+    Metric(String key, Function<WellnessData, ? extends Number> value) {
+      this.key = key;
+      this.value = value;
+    }
+  }
+
+  private static final Metric[] METRICS = Metric.values();
+
+  private final WellnessDataRepository wellnessDataRepository;
+  private final TransactionTemplate readOnlyTransaction;
+  private final TtlCache<Long, WellnessWindows> windows;
+  // Bumped on every write, so a rebuild that raced with one is not kept
+  private final Map<Long, AtomicLong> generations = new ConcurrentHashMap<>();
+  private final double alpha;
+  private final double sleepTargetHours;
+  private final Counter rebuilds;
+
+  public WellnessTrendEngine(WellnessDataRepository wellnessDataRepository,
+      TransactionTemplate transactionTemplate, MeterRegistry meterRegistry,
+      @Value("${wellness.trends.cache.max-size:10000}") int maxSize,
+      @Value("${wellness.trends.cache.ttl:PT6H}") Duration ttl,
+      @Value("${wellness.trends.ewma-alpha:0.25}") double alpha,
+      @Value("${wellness.trends.sleep-target-hours:8}") double sleepTargetHours) {
+    this.wellnessDataRepository = wellnessDataRepository;
+    this.readOnlyTransaction = new TransactionTemplate(transactionTemplate.getTransactionManager());
+    this.readOnlyTransaction.setReadOnly(true);
+    this.windows = new TtlCache<>(maxSize, ttl);
+    this.alpha = alpha;
+    this.sleepTargetHours = sleepTargetHours;
+    this.rebuilds = meterRegistry.counter("wellness.trends.rebuilds");
+    Gauge.builder("cache.size", windows, TtlCache::size).tag("cache", "wellness.trends").register(meterRegistry);
+  }
+
+  public WellnessTrends trends(User user) {
+    WellnessWindows state = windows.getIfPresent(user.getId());
+    if (state == null) {
+      state = rebuild(user);
+    }
+    synchronized (state) {
+      state.advanceTo(LocalDate.now().toEpochDay());
+      return snapshot(state);
+    }
+  }
+
+  // Folds a saved entry into the user's state once the write has committed
+  public void record(Long userId, WellnessData saved) {
+    long day = saved.getDate().toEpochDay();
+    double[] entry = entry(saved);
+    afterCommit(() -> {
+      generation(userId).incrementAndGet();
+      WellnessWindows state = windows.getIfPresent(userId);
+      if (state == null) {
+        return;
+      }
+      boolean applied;
+      synchronized (state) {
+        applied = state.put(day, entry);
+      }
+      if (!applied) {
+        windows.invalidate(userId);
+      }
+    });
+  }
+
+  // For bulk writes: the next read rebuilds from the database
+  public void invalidate(Long userId) {
+    afterCommit(() -> {
+      generation(userId).incrementAndGet();
+      windows.invalidate(userId);
+    });
+  }
+
+  private WellnessWindows rebuild(User user) {
+    Long userId = user.getId();
+    long generation = generation(userId).get();
+    LocalDate today = LocalDate.now();
+    WellnessWindows state = new WellnessWindows(METRICS.length, alpha);
+    readOnlyTransaction.executeWithoutResult(status -> {
+      try (Stream<WellnessData> rows = wellnessDataRepository.streamByUserAndDateBetweenOrderByDateAsc(
+          user, today.minusDays(REBUILD_DAYS), END_OF_TIME)) {
+        rows.forEach(w -> state.put(w.getDate().toEpochDay(), entry(w)));
+      }
+    });
+    state.advanceTo(today.toEpochDay());
+    rebuilds.increment();
+
+    // A write that committed during the scan may be missing: such a state serves this
+    // read only. Checking again after the put covers a write that landed in between.
+    if (generation(userId).get() == generation) {
+      windows.put(userId, state);
+      if (generation(userId).get() != generation) {
+        windows.invalidate(userId);
+      }
+    }
+    return state;
+  }
+
+  private double[] entry(WellnessData w) {
+    double[] entry = new double[METRICS.length];
+    for (Metric metric : METRICS) {
+      Number value = metric.value != null ? metric.value.apply(w) : null;
+      entry[metric.ordinal()] = value != null ? value.doubleValue() : Double.NaN;
+    }
+    double sleep = entry[Metric.SLEEP_HOURS.ordinal()];
+    entry[Metric.SLEEP_DEBT.ordinal()] = Double.isNaN(sleep) ? Double.NaN : Math.max(0, sleepTargetHours - sleep);
+    return entry;
+  }
+
+  private WellnessTrends snapshot(WellnessWindows state) {
+    Map<String, WellnessTrends.MetricTrend> metrics = new LinkedHashMap<>();
+    for (Metric metric : METRICS) {
+      int m = metric.ordinal();
+      if (metric.key == null || Double.isNaN(state.ewma(m))) {
+        continue;
+      }
+      double week = state.average(WellnessWindows.WEEK, m);
+      double previousWeek = state.previousWeekAverage(m);
+      WellnessTrends.MetricTrend trend = new WellnessTrends.MetricTrend();
+      trend.setAverage7Days(round(week));
+      trend.setAverage30Days(round(state.average(WellnessWindows.MONTH, m)));
+      trend.setEwma(round(state.ewma(m)));
+      trend.setWeekOverWeekChange(round(week - previousWeek));
+      metrics.put(metric.key, trend);
+    }
+
+    WellnessTrends trends = new WellnessTrends();
+    trends.setAsOf(LocalDate.ofEpochDay(state.head()));
+    trends.setMetrics(metrics);
+    trends.setEntries7Days(state.count(WellnessWindows.WEEK, Metric.WELLNESS_SCORE.ordinal()));
+    int debt = Metric.SLEEP_DEBT.ordinal();
+    trends.setSleepDebtHours(state.count(WellnessWindows.WEEK, debt) > 0
+        ? round(state.sum(WellnessWindows.WEEK, debt))
+        : null);
+    return trends;
+  }
+
+  private AtomicLong generation(Long userId) {
+    return generations.computeIfAbsent(userId, id -> new AtomicLong());
+  }
+
+  private static void afterCommit(Runnable action) {
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+        @Override
+        public void afterCommit() {
+          action.run();
+        }
+      });
+    } else {
+      action.run();
+    }
+  }
+
+  // NaN (nothing in the window) becomes null
+  private static Double round(double value) {
+    return Double.isNaN(value) ? null : Math.round(value * 100.0) / 100.0;
+  }
+}
@@ -0,0 +1,167 @@
+package com.focuswell.service;
+
+import java.util.Arrays;
+
+/**
+ * Rolling 7-, 14- and 30-day sums and an EWMA for a fixed set of per-day metrics of
+ * one user. Days live in a 30-slot ring indexed by epoch day, and each window keeps a
+ * running sum and count, so adding an entry or moving to a new day costs a constant
+ * amount of work per metric. Missing values are passed as NaN. Not thread-safe on
+ * its own; {@link WellnessTrendEngine} synchronizes on the instance.
+ */
+final class WellnessWindows {
+
+  static final int WEEK = 0;
+  static final int TWO_WEEKS = 1;
+  static final int MONTH = 2;
+
+  private static final int[] SPANS = { 7, 14, 30 };
+  private static final int RING = 30;
+  private static final long NONE = Long.MIN_VALUE;
+
+  private final int metrics;
+  private final double alpha;
+
+  private final long[] slotDay = new long[RING];
+  private final double[][] values;
+  private final double[][] sums;
+  private final int[][] counts;
+
+  // EWMA over entries in date order; the state before the newest entry is kept so
+  // that editing the newest day does not need a rebuild
+  private final double[] ewma;
+  private final double[] ewmaBefore;
+
+  private long head = NONE; // newest day the windows end on
+  private long lastEntryDay = NONE;
+
+  WellnessWindows(int metrics, double alpha) {
+    this.metrics = metrics;
+    this.alpha = alpha;
+    this.values = new double[RING][metrics];
+    this.sums = new double[SPANS.length][metrics];
+    this.counts = new int[SPANS.length][metrics];
+    this.ewma = new double[metrics];
+    this.ewmaBefore = new double[metrics];
+    Arrays.fill(slotDay, NONE);
+    Arrays.fill(ewma, Double.NaN);
+    Arrays.fill(ewmaBefore, Double.NaN);
+  }
+
+  /**
+   * Adds or replaces the entry for a day. Returns false, changing nothing, when the
+   * day is older than the newest entry already applied: the EWMA cannot take it
+   * incrementally and the caller should rebuild from history instead.
+   */
+  boolean put(long day, double[] entry) {
+    if (lastEntryDay != NONE && day < lastEntryDay) {
+      return false;
+    }
+    if (day != lastEntryDay) {
+      System.arraycopy(ewma, 0, ewmaBefore, 0, metrics);
+      lastEntryDay = day;
+    }
+    for (int m = 0; m < metrics; m++) {
+      ewma[m] = blend(ewmaBefore[m], entry[m]);
+    }
+
+    advanceTo(day);
+    if (head - day >= RING) {
+      return true; // too old for any window
+    }
+    int slot = slot(day);
+    if (slotDay[slot] == day) {
+      contribute(day, values[slot], -1);
+    }
+    System.arraycopy(entry, 0, values[slot], 0, metrics);
+    slotDay[slot] = day;
+    contribute(day, entry, 1);
+    return true;
+  }
+
+  /** Moves the windows forward so they end on the given day; never moves them back. */
+  void advanceTo(long day) {
+    if (head != NONE && day <= head) {
+      return;
+    }
+    if (head == NONE || day - head >= RING) {
+      Arrays.fill(slotDay, NONE);
+      for (int s = 0; s < SPANS.length; s++) {
+        Arrays.fill(sums[s], 0);
+        Arrays.fill(counts[s], 0);
+      }
+      head = day;
+      return;
+    }
+    for (long d = head + 1; d <= day; d++) {
+      for (int s = 0; s < SPANS.length; s++) {
+        long leaving = d - SPANS[s];
+        int slot = slot(leaving);
+        if (slotDay[slot] == leaving) {
+          add(s, values[slot], -1);
+        }
+      }
+      // The 30-day window has just dropped this slot's old day, so no window holds it
+      slotDay[slot(d)] = NONE;
+    }
+    head = day;
+  }
+
+  long head() {
+    return head;
+  }
+
+  int count(int window, int metric) {
+    return counts[window][metric];
+  }
+
+  double sum(int window, int metric) {
+    return sums[window][metric];
+  }
+
+  /** NaN when the window holds no value for the metric. */
+  double average(int window, int metric) {
+    int n = counts[window][metric];
+    return n > 0 ? sums[window][metric] / n : Double.NaN;
+  }
+
+  /** Average over days 8 to 14 back, NaN when there is none. */
+  double previousWeekAverage(int metric) {
+    int n = counts[TWO_WEEKS][metric] - counts[WEEK][metric];
+    return n > 0 ? (sums[TWO_WEEKS][metric] - sums[WEEK][metric]) / n : Double.NaN;
+  }
+
+  double ewma(int metric) {
+    return ewma[metric];
+  }
+
+  // Adds or removes a day's values in every window that currently covers it
+  private void contribute(long day, double[] entry, int sign) {
+    for (int s = 0; s < SPANS.length; s++) {
+      if (head - day < SPANS[s]) {
+        add(s, entry, sign);
+      }
+    }
+  }
+
+  private void add(int window, double[] entry, int sign) {
+    for (int m = 0; m < metrics; m++) {
+      if (!Double.isNaN(entry[m])) {
+        counts[window][m] += sign;
+        // Reset on empty so rounding error from long add/remove runs cannot build up
+        sums[window][m] = counts[window][m] == 0 ? 0 : sums[window][m] + sign * entry[m];
+      }
+    }
+  }
+
+  private double blend(double previous, double value) {
+    if (Double.isNaN(value)) {
+      return previous;
+    }
+    return Double.isNaN(previous) ? value : alpha * value + (1 - alpha) * previous;
+  }
+
+  private static int slot(long day) {
+    return (int) Math.floorMod(day, (long) RING);
+  }
+}
@@ -0,0 +1,197 @@
+package com.focuswell.ai;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+class AiServiceClientTest {
+
+    private HttpServer server;
+    private final AtomicInteger calls = new AtomicInteger();
+    private volatile int status = 200;
+    private volatile CountDownLatch hold;
+    private volatile boolean stallStream;
+
+    @BeforeEach
+    void startStub() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/chat", this::respond);
+        server.createContext("/chat/stream", this::respondStream);
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.start();
+    }
+
+    @AfterEach
+    void stopStub() {
+        if (hold != null) {
+            hold.countDown();
+        }
+        server.stop(0);
+    }
+
+    private void respond(HttpExchange exchange) throws IOException {
+        calls.incrementAndGet();
+        exchange.getRequestBody().readAllBytes();
+        if (hold != null) {
+            try {
+                hold.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        byte[] body = "{\"reply\":\"hello\"}".getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    // Chunked NDJSON, flushed line by line
+    private void respondStream(HttpExchange exchange) throws IOException {
+        calls.incrementAndGet();
+        exchange.getRequestBody().readAllBytes();
+        exchange.getResponseHeaders().add("Content-Type", "application/x-ndjson");
+        exchange.sendResponseHeaders(status, status == 200 ? 0 : -1);
+        if (status != 200) {
+            exchange.close();
+            return;
+        }
+        try (OutputStream out = exchange.getResponseBody()) {
+            for (String line : List.of("{\"delta\":\"Hel\"}", "{\"delta\":\"lo\"}", "{\"done\":true}")) {
+                out.write((line + "\n").getBytes(StandardCharsets.UTF_8));
+                out.flush();
+                if (stallStream) {
+                    try {
+                        hold.await(5, TimeUnit.SECONDS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+            }
+        }
+    }
+
+    private AiServiceClient client(Duration readTimeout, int maxConcurrent, int failureThreshold) {
+        return client(readTimeout, Duration.ofSeconds(5), maxConcurrent, failureThreshold);
+    }
+
+    private AiServiceClient client(Duration readTimeout, Duration streamIdleTimeout, int maxConcurrent,
+            int failureThreshold) {
+        String url = "http://127.0.0.1:" + server.getAddress().getPort();
+        return new AiServiceClient(url, new ObjectMapper(), Duration.ofSeconds(1), readTimeout, streamIdleTimeout,
+                maxConcurrent, failureThreshold, Duration.ofMinutes(1));
+    }
+
+    @Test
+    void returnsUpstreamBody() {
+        Map<String, Object> reply = client(Duration.ofSeconds(2), 4, 3).chat(Map.of("message", "hi")).join();
+
+        assertThat(reply).containsEntry("reply", "hello").doesNotContainKey("fallback");
+    }
+
+    @Test
+    void timesOutToFallback() {
+        hold = new CountDownLatch(1);
+
+        Map<String, Object> reply = client(Duration.ofMillis(200), 4, 3).chat(Map.of("message", "hi")).join();
+
+        assertThat(reply).containsEntry("fallback", true);
+    }
+
+    @Test
+    void opensCircuitAfterConsecutiveFailures() {
+        status = 500;
+        AiServiceClient client = client(Duration.ofSeconds(2), 4, 3);
+
+        for (int i = 0; i < 3; i++) {
+            assertThat(client.chat(Map.of("message", "hi")).join()).containsEntry("fallback", true);
+        }
+        assertThat(client.getBreakerState()).isEqualTo(CircuitBreaker.State.OPEN);
+
+        status = 200;
+        assertThat(client.chat(Map.of("message", "hi")).join()).containsEntry("fallback", true);
+        assertThat(calls).hasValue(3);
+    }
+
+    @Test
+    void clientErrorsDoNotOpenCircuit() {
+        status = 400;
+        AiServiceClient client = client(Duration.ofSeconds(2), 4, 1);
+
+        for (int i = 0; i < 3; i++) {
+            assertThat(client.chat(Map.of("message", "hi")).join()).containsEntry("fallback", true);
+        }
+        assertThat(client.getBreakerState()).isEqualTo(CircuitBreaker.State.CLOSED);
+        assertThat(calls).hasValue(3);
+    }
+
+    @Test
+    void bulkheadRejectsCallsBeyondLimit() {
+        hold = new CountDownLatch(1);
+        AiServiceClient client = client(Duration.ofSeconds(5), 1, 3);
+
+        CompletableFuture<Map<String, Object>> inFlight = client.chat(Map.of("message", "first"));
+        Map<String, Object> rejected = client.chat(Map.of("message", "second")).join();
+        hold.countDown();
+
+        assertThat(rejected).containsEntry("fallback", true);
+        assertThat(inFlight.join()).containsEntry("reply", "hello");
+    }
+
+    @Test
+    void streamsChunksInOrder() {
+        List<String> chunks = new CopyOnWriteArrayList<>();
+
+        client(Duration.ofSeconds(2), 4, 3).chatStream(Map.of("message", "hi"), chunks::add).join();
+
+        assertThat(chunks).containsExactly("Hel", "lo");
+    }
+
+    @Test
+    void streamFailureCompletesExceptionally() {
+        status = 500;
+        AiServiceClient client = client(Duration.ofSeconds(2), 4, 1);
+
+        assertThatThrownBy(() -> client.chatStream(Map.of("message", "hi"), chunk -> {
+        }).join()).isInstanceOf(CompletionException.class);
+        assertThat(client.getBreakerState()).isEqualTo(CircuitBreaker.State.OPEN);
+    }
+
+    @Test
+    void stalledStreamTimesOutAndCountsAsFailure() {
+        hold = new CountDownLatch(1);
+        stallStream = true;
+        List<String> chunks = new CopyOnWriteArrayList<>();
+        AiServiceClient client = client(Duration.ofSeconds(2), Duration.ofMillis(200), 4, 1);
+
+        assertThatThrownBy(() -> client.chatStream(Map.of("message", "hi"), chunks::add).join())
+                .isInstanceOf(CompletionException.class)
+                .hasCauseInstanceOf(TimeoutException.class);
+        assertThat(chunks).containsExactly("Hel");
+        assertThat(client.getBreakerState()).isEqualTo(CircuitBreaker.State.OPEN);
+    }
+}
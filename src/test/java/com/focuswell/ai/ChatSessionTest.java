@@ -0,0 +1,35 @@
+package com.focuswell.ai;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+class ChatSessionTest {
+
+    @Test
+    void keepsOnlyTheMostRecentTurns() {
+        ChatSession session = new ChatSession("s", 4, 10_000, 10_000);
+
+        for (int i = 0; i < 10; i++) {
+            session.append(ChatSession.USER, "message " + i);
+        }
+
+        assertThat(session.getHistory()).extracting(turn -> turn.get("text"))
+                .containsExactly("message 6", "message 7", "message 8", "message 9");
+        assertThat(session.getSummary()).startsWith("User: message 0").endsWith("User: message 5");
+    }
+
+    @Test
+    void staysWithinTokenAndSummaryBudgets() {
+        ChatSession session = new ChatSession("s", 100, 50, 200);
+        String longTurn = "x".repeat(120);
+
+        for (int i = 0; i < 50; i++) {
+            session.append(i % 2 == 0 ? ChatSession.USER : ChatSession.AI, longTurn);
+        }
+
+        assertThat(session.getHistory()).hasSize(1);
+        assertThat(session.getTokenEstimate()).isEqualTo(ChatSession.estimateTokens(longTurn));
+        assertThat(session.getSummary().length()).isLessThanOrEqualTo(200);
+    }
+}
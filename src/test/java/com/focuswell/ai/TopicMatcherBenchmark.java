@@ -0,0 +1,70 @@
+package com.focuswell.ai;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Predicate;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.core.io.ClassPathResource;
+
+/**
+ * Compares the compiled matcher with the naive substring loop on off-topic
+ * messages, the worst case for the loop. Run with
+ * {@code mvn test -Dtest=TopicMatcherBenchmark -Dbenchmark=true}.
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class TopicMatcherBenchmark {
+
+    private static final int ROUNDS = 5;
+    private static final int ITERATIONS = 200_000;
+
+    @Test
+    void compiledMatcherVersusNaiveLoop() {
+        List<String> topics = ChatTopicFilter.readTopics(new ClassPathResource("chat-topics.txt"));
+        TopicMatcher matcher = TopicMatcher.compile(topics);
+        List<String> messages = offTopicMessages(topics, 256);
+
+        for (int round = 0; round < ROUNDS; round++) {
+            long naiveNanos = time(messages, message -> TopicMatcherTest.naive(topics, message));
+            long compiledNanos = time(messages, matcher::containsAny);
+            System.out.printf("round %d: naive %.0f ns/msg, compiled %.0f ns/msg (%.1fx)%n", round,
+                    (double) naiveNanos / ITERATIONS, (double) compiledNanos / ITERATIONS,
+                    (double) naiveNanos / compiledNanos);
+        }
+    }
+
+    private static long time(List<String> messages, Predicate<String> check) {
+        int matches = 0;
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            if (check.test(messages.get(i % messages.size()))) {
+                matches++;
+            }
+        }
+        long elapsed = System.nanoTime() - start;
+        if (matches < 0) {
+            System.out.println(matches);
+        }
+        return elapsed;
+    }
+
+    // Sentence-length messages that match no topic
+    private static List<String> offTopicMessages(List<String> topics, int count) {
+        String[] words = { "what", "is", "the", "capital", "of", "france", "please", "tell", "me", "about",
+                "quantum", "physics", "and", "jazz", "cars", "weather", "tomorrow", "in", "paris" };
+        Random random = new Random(7);
+        List<String> messages = new ArrayList<>();
+        while (messages.size() < count) {
+            StringBuilder message = new StringBuilder();
+            for (int i = 0; i < 12; i++) {
+                message.append(words[random.nextInt(words.length)]).append(' ');
+            }
+            if (!TopicMatcherTest.naive(topics, message.toString())) {
+                messages.add(message.toString());
+            }
+        }
+        return messages;
+    }
+}
@@ -0,0 +1,69 @@
+package com.focuswell.ai;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.ClassPathResource;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class TopicMatcherTest {
+
+    private static final List<String> TOPICS = ChatTopicFilter.readTopics(new ClassPathResource("chat-topics.txt"));
+
+    // The ai_service is_on_topic loop
+    static boolean naive(List<String> topics, String message) {
+        String lower = message.toLowerCase();
+        for (String topic : topics) {
+            if (lower.contains(topic.toLowerCase())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Test
+    void findsOverlappingAndSuffixPatterns() {
+        TopicMatcher matcher = TopicMatcher.compile(List.of("he", "she", "hers", "his"));
+
+        assertThat(matcher.containsAny("USHERS")).isTrue();
+        assertThat(matcher.containsAny("ahishers")).isTrue();
+        assertThat(matcher.containsAny("xyz")).isFalse();
+        assertThat(matcher.containsAny("")).isFalse();
+    }
+
+    @Test
+    void agreesWithNaiveLoopOnTopicList() {
+        TopicMatcher matcher = TopicMatcher.compile(TOPICS);
+        Random random = new Random(42);
+        String alphabet = "abcdeghilmnorstuwy -";
+
+        assertThat(matcher.containsAny("How can I manage my Stress at work?")).isTrue();
+        assertThat(matcher.containsAny("What is the capital of France?")).isFalse();
+        for (int i = 0; i < 2_000; i++) {
+            StringBuilder message = new StringBuilder();
+            int length = 1 + random.nextInt(40);
+            for (int j = 0; j < length; j++) {
+                message.append(alphabet.charAt(random.nextInt(alphabet.length())));
+            }
+            String text = message.toString();
+            assertThat(matcher.containsAny(text)).as(text).isEqualTo(naive(TOPICS, text));
+        }
+    }
+
+    @Test
+    void enabledFilterWithoutTopicsFailsAtStartup() {
+        ByteArrayResource commentsOnly = new ByteArrayResource("# nothing yet\n\n".getBytes(StandardCharsets.UTF_8));
+
+        assertThatThrownBy(() -> new ChatTopicFilter(new SimpleMeterRegistry(), true, commentsOnly))
+                .isInstanceOf(IllegalStateException.class);
+        assertThat(new ChatTopicFilter(new SimpleMeterRegistry(), false, commentsOnly).isOnTopic("anything"))
+                .isTrue();
+    }
+}
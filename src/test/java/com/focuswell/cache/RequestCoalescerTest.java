@@ -0,0 +1,128 @@
+package com.focuswell.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class RequestCoalescerTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final UserDataVersions versions = new UserDataVersions();
+    private final RequestCoalescer coalescer = new RequestCoalescer(versions, registry, Duration.ofSeconds(5));
+    private final ExecutorService pool = Executors.newFixedThreadPool(4);
+
+    @AfterEach
+    void shutdown() {
+        pool.shutdownNow();
+    }
+
+    private double count(String result) {
+        return registry.counter("requests.coalescing", "endpoint", "test", "result", result).count();
+    }
+
+    @Test
+    void concurrentIdenticalCallsShareOneComputation() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger computations = new AtomicInteger();
+
+        List<Future<Integer>> results = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            results.add(pool.submit(() -> coalescer.execute(coalescer.key("test", 1L, 30), () -> {
+                computations.incrementAndGet();
+                await(release);
+                return 42;
+            })));
+        }
+        // Let every caller reach the coalescer before the leader finishes
+        while (count("computed") + count("collapsed") < 4) {
+            Thread.sleep(5);
+        }
+        release.countDown();
+
+        for (Future<Integer> result : results) {
+            assertThat(result.get(5, TimeUnit.SECONDS)).isEqualTo(42);
+        }
+        assertThat(computations).hasValue(1);
+        assertThat(count("collapsed")).isEqualTo(3);
+    }
+
+    @Test
+    void followersSeeTheLeadersException() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        Future<Object> leader = pool.submit(() -> coalescer.execute(coalescer.key("test", 1L), () -> {
+            await(release);
+            throw new IllegalStateException("boom");
+        }));
+        while (count("computed") < 1) {
+            Thread.sleep(5);
+        }
+        Future<Object> follower = pool.submit(() -> coalescer.execute(coalescer.key("test", 1L), () -> "unused"));
+        while (count("collapsed") < 1) {
+            Thread.sleep(5);
+        }
+        release.countDown();
+
+        assertThatThrownBy(() -> leader.get(5, TimeUnit.SECONDS)).hasCauseInstanceOf(IllegalStateException.class);
+        assertThatThrownBy(() -> follower.get(5, TimeUnit.SECONDS)).hasCauseInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void followerStopsWaitingForAHungLeader() throws Exception {
+        RequestCoalescer impatient = new RequestCoalescer(versions, registry, Duration.ofMillis(100));
+        CountDownLatch release = new CountDownLatch(1);
+        Future<Object> leader = pool.submit(() -> impatient.execute(impatient.key("test", 1L), () -> {
+            await(release);
+            return "leader";
+        }));
+        while (count("computed") < 1) {
+            Thread.sleep(5);
+        }
+
+        assertThat(impatient.execute(impatient.key("test", 1L), () -> "follower")).isEqualTo("follower");
+        assertThat(registry.counter("requests.coalescing", "endpoint", "test", "result", "follower-timeout").count())
+                .isEqualTo(1);
+        release.countDown();
+        assertThat(leader.get(5, TimeUnit.SECONDS)).isEqualTo("leader");
+    }
+
+    @Test
+    void keysDifferAfterAWrite() {
+        RequestCoalescer.Key before = coalescer.key("test", 1L, 30);
+        versions.bump(1L);
+
+        assertThat(coalescer.key("test", 1L, 30)).isNotEqualTo(before);
+        assertThat(coalescer.key("test", 2L, 30)).isNotEqualTo(coalescer.key("test", 1L, 30));
+    }
+
+    @Test
+    void nothingIsKeptAfterCompletion() {
+        AtomicInteger computations = new AtomicInteger();
+
+        coalescer.execute(coalescer.key("test", 1L), computations::incrementAndGet);
+        coalescer.execute(coalescer.key("test", 1L), computations::incrementAndGet);
+
+        assertThat(computations).hasValue(2);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
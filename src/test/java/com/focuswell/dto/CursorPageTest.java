@@ -0,0 +1,105 @@
+package com.focuswell.dto;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.focuswell.exception.InvalidCursorException;
+
+class CursorPageTest {
+
+    private record Row(LocalDate date, long id) {
+    }
+
+    private static String encoded(String raw) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void cursorRoundTrips() {
+        CursorPage.Cursor cursor = new CursorPage.Cursor(LocalDate.of(2025, 2, 28), 9_007_199_254_740_993L);
+
+        String value = cursor.encode();
+
+        assertThat(value).doesNotContain("=", "+", "/");
+        assertThat(CursorPage.Cursor.decode(value)).isEqualTo(cursor);
+    }
+
+    @Test
+    void malformedCursorsAreRejected() {
+        for (String value : List.of("", "not base64!", encoded("2025-02-28"), encoded("2025-02-30:5"),
+                encoded("2025-02-28:x"), encoded("2025-02-28:5:"), encoded(":5"), encoded("2025-02-28:"))) {
+            assertThatThrownBy(() -> CursorPage.Cursor.decode(value))
+                    .as(value)
+                    .isInstanceOf(InvalidCursorException.class)
+                    .hasMessage("Invalid page cursor");
+        }
+    }
+
+    @Test
+    void lastPageHasNoCursor() {
+        List<Row> rows = List.of(new Row(LocalDate.of(2025, 1, 2), 2), new Row(LocalDate.of(2025, 1, 1), 1));
+
+        CursorPage<Row> exact = CursorPage.of(rows, 2, r -> new CursorPage.Cursor(r.date(), r.id()));
+        CursorPage<Row> shorter = CursorPage.of(rows.subList(0, 1), 2, r -> new CursorPage.Cursor(r.date(), r.id()));
+        CursorPage<Row> empty = CursorPage.of(List.of(), 2, r -> new CursorPage.Cursor(r.date(), r.id()));
+
+        assertThat(exact.getItems()).isEqualTo(rows);
+        assertThat(exact.getNextCursor()).isNull();
+        assertThat(shorter.getNextCursor()).isNull();
+        assertThat(empty.getItems()).isEmpty();
+        assertThat(empty.getNextCursor()).isNull();
+    }
+
+    @Test
+    void extraRowIsDroppedAndCursorPointsAtTheLastItem() {
+        List<Row> rows = List.of(new Row(LocalDate.of(2025, 1, 3), 3), new Row(LocalDate.of(2025, 1, 2), 2),
+                new Row(LocalDate.of(2025, 1, 1), 1));
+
+        CursorPage<Row> page = CursorPage.of(rows, 2, r -> new CursorPage.Cursor(r.date(), r.id()));
+
+        assertThat(page.getItems()).containsExactly(rows.get(0), rows.get(1));
+        assertThat(CursorPage.Cursor.decode(page.getNextCursor()))
+                .isEqualTo(new CursorPage.Cursor(LocalDate.of(2025, 1, 2), 2));
+    }
+
+    // Pages newest first the way the keyset queries do, with many rows sharing a date
+    @Test
+    void rowsWithEqualDatesAreSplitByIdWithoutGapsOrRepeats() {
+        List<Row> table = new ArrayList<>();
+        long id = 1;
+        for (int day = 1; day <= 4; day++) {
+            for (int i = 0; i < 5; i++) {
+                table.add(new Row(LocalDate.of(2025, 1, day), id++));
+            }
+        }
+        table.sort(Comparator.comparing(Row::date).thenComparingLong(Row::id).reversed());
+
+        List<Row> seen = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            CursorPage.Cursor after = cursor == null ? null : CursorPage.Cursor.decode(cursor);
+            List<Row> rows = table.stream()
+                    .filter(r -> after == null || r.date().isBefore(after.date())
+                            || (r.date().equals(after.date()) && r.id() < after.id()))
+                    .limit(3 + 1)
+                    .toList();
+            CursorPage<Row> page = CursorPage.of(rows, 3, r -> new CursorPage.Cursor(r.date(), r.id()));
+            seen.addAll(page.getItems());
+            cursor = page.getNextCursor();
+            pages++;
+        } while (cursor != null);
+
+        assertThat(seen).isEqualTo(table);
+        assertThat(pages).isEqualTo(7);
+    }
+}
@@ -0,0 +1,108 @@
+package com.focuswell.security;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.awaitility.Awaitility.await;
+
+import java.time.Duration;
+import java.util.Date;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.focuswell.cache.UserSnapshot;
+
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+
+class JwtUtilTest {
+
+    private static final String SECRET = "a2FkbmZqamRzZnh1b2hzaGZkamZzaGprZHNmc2hrZGZqZg==";
+
+    private final JwtUtil jwtUtil = new JwtUtil(new TokenRevocationRegistry(true));
+
+    @BeforeEach
+    void init() {
+        ReflectionTestUtils.setField(jwtUtil, "SECRET", SECRET);
+        ReflectionTestUtils.setField(jwtUtil, "verifiedCacheSize", 3);
+        jwtUtil.init();
+    }
+
+    private String token(String username, long expiresInMillis) {
+        return Jwts.builder()
+                .setSubject(username)
+                .setIssuedAt(new Date())
+                .setExpiration(new Date(System.currentTimeMillis() + expiresInMillis))
+                .claim(JwtUtil.CLAIM_USER_ID, 7L)
+                .signWith(Keys.hmacShaKeyFor(Decoders.BASE64.decode(SECRET)), SignatureAlgorithm.HS256)
+                .compact();
+    }
+
+    @Test
+    void repeatedTokensAreServedFromTheCache() {
+        String token = jwtUtil.generateToken(CustomUserDetails.fromSnapshot(
+                new UserSnapshot(7L, "alice", List.of("ROLE_USER"), true)));
+
+        JwtClaims first = jwtUtil.parse(token);
+
+        assertThat(first.getUsername()).isEqualTo("alice");
+        assertThat(first.getUserId()).isEqualTo(7L);
+        assertThat(jwtUtil.parse(token)).isSameAs(first);
+        assertThat(jwtUtil.cachedTokenCount()).isEqualTo(1);
+    }
+
+    @Test
+    void tokensOfDeactivatedUsersAreNotValid() {
+        UserSnapshot active = new UserSnapshot(7L, "alice", List.of("ROLE_USER"), true);
+        JwtClaims claims = jwtUtil.parse(jwtUtil.generateToken(CustomUserDetails.fromSnapshot(active)));
+
+        assertThat(jwtUtil.isTokenValid(claims, CustomUserDetails.fromSnapshot(active))).isTrue();
+        assertThat(jwtUtil.isTokenValid(claims, CustomUserDetails.fromSnapshot(
+                new UserSnapshot(7L, "alice", List.of("ROLE_USER"), false)))).isFalse();
+    }
+
+    @Test
+    void cachedTokensAreRejectedOnceExpired() {
+        String token = token("alice", 1_500);
+        assertThat(jwtUtil.parse(token).getUsername()).isEqualTo("alice");
+
+        await().atMost(Duration.ofSeconds(5)).untilAsserted(() ->
+                assertThatThrownBy(() -> jwtUtil.parse(token)).isInstanceOf(ExpiredJwtException.class));
+        assertThat(jwtUtil.cachedTokenCount()).isZero();
+        assertThatThrownBy(() -> jwtUtil.parse(token("bob", -1_000))).isInstanceOf(ExpiredJwtException.class);
+    }
+
+    @Test
+    void tamperedTokensAreRejectedEvenWhenTheOriginalIsCached() {
+        String token = token("alice", 60_000);
+        jwtUtil.parse(token);
+        String[] parts = token.split("\\.");
+        String forgedPayload = token("mallory", 60_000).split("\\.")[1];
+        char last = parts[2].charAt(parts[2].length() - 2);
+
+        assertThatThrownBy(() -> jwtUtil.parse(parts[0] + "." + forgedPayload + "." + parts[2]))
+                .isInstanceOf(JwtException.class);
+        assertThatThrownBy(() -> jwtUtil.parse(parts[0] + "." + parts[1] + "."
+                + parts[2].substring(0, parts[2].length() - 2) + (last == 'A' ? 'B' : 'A')
+                + parts[2].charAt(parts[2].length() - 1)))
+                .isInstanceOf(JwtException.class);
+        assertThat(jwtUtil.parse(token).getUsername()).isEqualTo("alice");
+        assertThat(jwtUtil.cachedTokenCount()).isEqualTo(1);
+    }
+
+    @Test
+    void cacheStaysWithinItsSize() {
+        for (int i = 0; i < 10; i++) {
+            String token = token("user" + i, 60_000);
+            assertThat(jwtUtil.parse(token).getUsername()).isEqualTo("user" + i);
+        }
+
+        assertThat(jwtUtil.cachedTokenCount()).isLessThanOrEqualTo(3);
+    }
+}
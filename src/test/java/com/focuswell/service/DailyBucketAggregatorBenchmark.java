@@ -0,0 +1,137 @@
+package com.focuswell.service;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.function.IntSupplier;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import com.focuswell.model.DailyUserRollup;
+import com.focuswell.model.HabitLog;
+import com.focuswell.model.Task;
+import com.focuswell.model.User;
+import com.focuswell.repository.DailyUserRollupRepository;
+import com.focuswell.repository.HabitLogRepository;
+import com.focuswell.repository.TaskRepository;
+
+/**
+ * Compares the in-memory work behind /api/analytics/summary over a year: the old
+ * per-day stream filters over raw habit logs and tasks against the aggregator's one
+ * pass over daily rollups into {@link DailyBuckets}. Database time is left out. Run
+ * with {@code mvn test -Dtest=DailyBucketAggregatorBenchmark -Dbenchmark=true}.
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class DailyBucketAggregatorBenchmark {
+
+    private static final int ROUNDS = 5;
+    private static final int ITERATIONS = 200;
+    private static final int DAYS = 365;
+    private static final int LOGS_PER_DAY = 6;
+    private static final int TASKS_PER_DAY = 4;
+
+    private final LocalDate end = LocalDate.of(2025, 12, 31);
+    private final LocalDate start = end.minusDays(DAYS - 1);
+    private final User user = new User();
+    private final List<HabitLog> habitLogs = new ArrayList<>();
+    private final List<Task> tasks = new ArrayList<>();
+    private final List<DailyUserRollup> rollups = new ArrayList<>();
+
+    @Test
+    void bucketsVersusPerDayFilters() {
+        generate();
+        DailyUserRollupRepository rollupRepository = mock(DailyUserRollupRepository.class);
+        when(rollupRepository.findByUserAndDateBetweenOrderByDateAsc(any(), any(), any())).thenReturn(rollups);
+        DailyBucketAggregator aggregator = new DailyBucketAggregator(mock(HabitLogRepository.class),
+                mock(TaskRepository.class), rollupRepository);
+
+        for (int round = 0; round < ROUNDS; round++) {
+            long legacyNanos = time(() -> legacySummary().hashCode());
+            long bucketNanos = time(() -> bucketSummary(aggregator).hashCode());
+            System.out.printf("round %d: per-day filters %.1f us/request, buckets %.1f us/request (%.0fx)%n", round,
+                    legacyNanos / 1_000.0 / ITERATIONS, bucketNanos / 1_000.0 / ITERATIONS,
+                    (double) legacyNanos / bucketNanos);
+        }
+    }
+
+    private long time(IntSupplier summary) {
+        int sink = 0;
+        long begin = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            sink += summary.getAsInt();
+        }
+        long elapsed = System.nanoTime() - begin;
+        if (sink == 42) {
+            System.out.println(sink);
+        }
+        return elapsed;
+    }
+
+    // What getSummary computed before the rollups: a stream over every row for every day
+    private List<Object> legacySummary() {
+        Map<LocalDate, Long> logsByDay = new HashMap<>();
+        for (HabitLog log : habitLogs) {
+            logsByDay.put(log.getLogDate(), logsByDay.getOrDefault(log.getLogDate(), 0L) + 1);
+        }
+        LocalDate bestDay = null;
+        long max = 0;
+        for (Map.Entry<LocalDate, Long> entry : logsByDay.entrySet()) {
+            if (entry.getValue() > max) {
+                max = entry.getValue();
+                bestDay = entry.getKey();
+            }
+        }
+        List<Integer> tasksPerDay = new ArrayList<>();
+        List<Integer> habitsPerDay = new ArrayList<>();
+        for (int i = DAYS - 1; i >= 0; i--) {
+            LocalDate d = end.minusDays(i);
+            tasksPerDay.add((int) tasks.stream().filter(t -> t.isCompleted() && t.getCompletedAt() != null
+                    && t.getCompletedAt().toLocalDate().equals(d)).count());
+            habitsPerDay.add((int) habitLogs.stream().filter(log -> log.getLogDate().equals(d)).count());
+        }
+        return List.of(logsByDay.size(), String.valueOf(bestDay), tasksPerDay, habitsPerDay);
+    }
+
+    private List<Object> bucketSummary(DailyBucketAggregator aggregator) {
+        DailyBucketAggregator.RollupSeries series = aggregator.rollups(user, start, end);
+        DailyBuckets logsByDay = series.getHabitLogsPerDay();
+        int best = logsByDay.bestIndex();
+        return List.of(logsByDay.daysWithAny(), String.valueOf(best >= 0 ? logsByDay.dateAt(best) : null),
+                series.getCompletionsPerDay().toList(), logsByDay.toList());
+    }
+
+    private void generate() {
+        Random random = new Random(7);
+        for (LocalDate day = start; !day.isAfter(end); day = day.plusDays(1)) {
+            DailyUserRollup rollup = new DailyUserRollup();
+            rollup.setDate(day);
+            int logs = random.nextInt(LOGS_PER_DAY * 2);
+            for (int i = 0; i < logs; i++) {
+                HabitLog log = new HabitLog();
+                log.setLogDate(day);
+                habitLogs.add(log);
+            }
+            int completed = 0;
+            for (int i = 0; i < TASKS_PER_DAY; i++) {
+                Task task = new Task();
+                if (random.nextBoolean()) {
+                    task.setCompleted(true);
+                    task.setCompletedAt(day.atTime(12, 0));
+                    completed++;
+                }
+                tasks.add(task);
+            }
+            rollup.setHabitLogs(logs);
+            rollup.setTasksCompleted(completed);
+            rollups.add(rollup);
+        }
+    }
+}
@@ -0,0 +1,273 @@
+package com.focuswell.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.function.Function;
+import java.util.function.ToDoubleFunction;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.focuswell.cache.UserDataVersions;
+import com.focuswell.dto.TaskRequest;
+import com.focuswell.model.DailyUserRollup;
+import com.focuswell.model.MealLog;
+import com.focuswell.model.Task;
+import com.focuswell.model.User;
+import com.focuswell.model.WellnessData;
+import com.focuswell.repository.DailyRollupLockRepository;
+import com.focuswell.repository.DailyUserRollupRepository;
+import com.focuswell.repository.HabitLogRepository;
+import com.focuswell.repository.MealLogRepository;
+import com.focuswell.repository.TaskRepository;
+import com.focuswell.repository.UserRepository;
+import com.focuswell.repository.WellnessDataRepository;
+
+import jakarta.persistence.EntityManager;
+
+/**
+ * Runs task, habit log, meal and wellness changes through the services against
+ * in-memory repositories, then checks that the rollup rows the deltas produced are
+ * the ones a rebuild computes from the raw rows.
+ */
+class DailyRollupServiceTest {
+
+    private static final LocalDate DAY = LocalDate.of(2025, 3, 10);
+
+    private final User user = new User();
+    private final Map<Long, Task> tasks = new LinkedHashMap<>();
+    private final Map<Long, MealLog> meals = new LinkedHashMap<>();
+    private final List<LocalDate> habitLogs = new ArrayList<>();
+    private final Map<LocalDate, WellnessData> wellness = new TreeMap<>();
+    // Rollup rows as the upserts left them: habit logs, tasks completed, tasks due,
+    // due tasks completed, meal calories, wellness score
+    private final Map<LocalDate, Object[]> deltaRows = new TreeMap<>();
+    private final List<DailyUserRollup> rebuiltRows = new ArrayList<>();
+
+    private DailyRollupService rollups;
+    private TaskService taskService;
+    private MealLogService mealLogService;
+
+    @BeforeEach
+    void setUp() {
+        user.setId(1L);
+        DailyUserRollupRepository rollupRepository = mock(DailyUserRollupRepository.class);
+        when(rollupRepository.addDeltas(anyLong(), any(), anyInt(), anyInt(), anyInt(), anyInt(), anyDouble(), any()))
+                .thenAnswer(call -> {
+                    Object[] row = deltaRow(call.getArgument(1));
+                    for (int i = 0; i < 4; i++) {
+                        row[i] = (int) row[i] + (int) call.getArgument(i + 2);
+                    }
+                    row[4] = (double) row[4] + (double) call.getArgument(6);
+                    return 1;
+                });
+        when(rollupRepository.setWellnessScore(anyLong(), any(), any(), any())).thenAnswer(call -> {
+            deltaRow(call.getArgument(1))[5] = call.getArgument(2);
+            return 1;
+        });
+        when(rollupRepository.saveAll(any())).thenAnswer(call -> {
+            Iterable<DailyUserRollup> rows = call.getArgument(0);
+            rows.forEach(rebuiltRows::add);
+            return rebuiltRows;
+        });
+
+        HabitLogRepository habitLogRepository = mock(HabitLogRepository.class);
+        when(habitLogRepository.countAllLogsPerDay(user)).thenAnswer(call -> group(habitLogs, d -> d, d -> 1));
+        TaskRepository taskRepository = mock(TaskRepository.class);
+        when(taskRepository.save(any())).thenAnswer(call -> {
+            Task task = call.getArgument(0);
+            if (task.getId() == null) {
+                task.setId((long) tasks.size() + 1);
+            }
+            tasks.put(task.getId(), task);
+            return task;
+        });
+        when(taskRepository.findByIdAndUser(anyLong(), any()))
+                .thenAnswer(call -> Optional.ofNullable(tasks.get(call.<Long>getArgument(0))));
+        doAnswer(call -> tasks.remove(call.<Task>getArgument(0).getId()))
+                .when(taskRepository).delete(any(Task.class));
+        when(taskRepository.countTasksPerDueDate(user)).thenAnswer(call -> {
+            List<Task> due = tasks.values().stream().filter(t -> t.getDueDate() != null).toList();
+            Map<LocalDate, Long> completed = new HashMap<>();
+            for (Object[] row : group(due.stream().filter(Task::isCompleted).toList(), Task::getDueDate, t -> 1)) {
+                completed.put((LocalDate) row[0], (long) (double) row[1]);
+            }
+            return group(due, Task::getDueDate, t -> 1).stream()
+                    .map(row -> new Object[] { row[0], (long) (double) row[1], completed.get(row[0]) })
+                    .toList();
+        });
+        when(taskRepository.countCompletionsPerDay(user)).thenAnswer(call -> group(
+                tasks.values().stream().filter(t -> t.isCompleted() && t.getCompletedAt() != null).toList(),
+                t -> t.getCompletedAt().toLocalDate(), t -> 1).stream()
+                .map(row -> new Object[] { row[0], (long) (double) row[1] })
+                .toList());
+        MealLogRepository mealLogRepository = mock(MealLogRepository.class);
+        when(mealLogRepository.save(any())).thenAnswer(call -> {
+            MealLog meal = call.getArgument(0);
+            meal.setId((long) meals.size() + 100);
+            meals.put(meal.getId(), meal);
+            return meal;
+        });
+        when(mealLogRepository.findById(anyLong()))
+                .thenAnswer(call -> Optional.ofNullable(meals.get(call.<Long>getArgument(0))));
+        when(mealLogRepository.removeById(anyLong()))
+                .thenAnswer(call -> meals.remove(call.<Long>getArgument(0)) != null ? 1 : 0);
+        when(mealLogRepository.sumCaloriesPerDay(user))
+                .thenAnswer(call -> group(meals.values(), MealLog::getDate, MealLog::getTotalCalories));
+        WellnessDataRepository wellnessDataRepository = mock(WellnessDataRepository.class);
+        when(wellnessDataRepository.findCompleteWellnessDataByUser(user))
+                .thenAnswer(call -> new ArrayList<>(wellness.values()));
+
+        rollups = new DailyRollupService(rollupRepository, habitLogRepository, taskRepository,
+                wellnessDataRepository, mealLogRepository, mock(UserRepository.class),
+                mock(DailyRollupLockRepository.class), mock(EntityManager.class));
+        taskService = new TaskService(taskRepository, rollups, new UserDataVersions());
+        mealLogService = new MealLogService(mealLogRepository, rollups);
+    }
+
+    @Test
+    void taskCreateCompleteMoveAndDeleteMatchRebuild() {
+        Task kept = taskService.createTask(taskDue(DAY), user);
+        Task moved = taskService.createTask(taskDue(DAY), user);
+        Task deleted = taskService.createTask(taskDue(DAY.plusDays(1)), user);
+
+        taskService.markTaskComplete(kept.getId(), user);
+        taskService.markTaskComplete(moved.getId(), user);
+        // A completed task moved to another due date keeps its completion day
+        taskService.updateTask(moved.getId(), taskDue(DAY.plusDays(5)), user);
+        taskService.markTaskComplete(deleted.getId(), user);
+        taskService.deleteTask(deleted.getId(), user);
+        taskService.markTaskIncomplete(kept.getId(), user);
+        taskService.markTaskComplete(kept.getId(), user);
+
+        assertThat(deltas()).isEqualTo(rebuilt());
+        assertThat(rebuilt()).containsKeys(DAY, DAY.plusDays(5));
+    }
+
+    @Test
+    void habitLogsMatchRebuild() {
+        for (LocalDate date : List.of(DAY, DAY, DAY.plusDays(1), DAY.minusDays(30))) {
+            // What HabitLogService does after saving each log
+            habitLogs.add(date);
+            rollups.recordHabitLog(user, date);
+        }
+
+        assertThat(deltas()).isEqualTo(rebuilt());
+    }
+
+    @Test
+    void mealCreateAndDeleteMatchRebuild() {
+        MealLog breakfast = mealLogService.logMeal(user, meal(DAY, 350, 150));
+        mealLogService.logMeal(user, meal(DAY, 700));
+        MealLog dinner = mealLogService.logMeal(user, meal(DAY.plusDays(1), 900));
+
+        mealLogService.deleteMeal(breakfast.getId());
+        // A second delete of the same meal finds nothing and must not subtract again
+        mealLogService.deleteMeal(breakfast.getId());
+        mealLogService.deleteMeal(dinner.getId());
+
+        assertThat(deltas()).isEqualTo(rebuilt());
+        assertThat(deltas().get(DAY)).containsEntry("mealCalories", 700.0);
+    }
+
+    @Test
+    void wellnessScoreOverwritesMatchRebuild() {
+        recordWellness(DAY, 4);
+        recordWellness(DAY.plusDays(1), 6);
+        recordWellness(DAY, 9);
+
+        assertThat(deltas()).isEqualTo(rebuilt());
+        assertThat(deltas().get(DAY)).containsEntry("wellnessScore", wellness.get(DAY).getWellnessScore());
+    }
+
+    // What WellnessDataService does when a day's entry is saved, new or overwritten
+    private void recordWellness(LocalDate date, int mood) {
+        WellnessData data = new WellnessData();
+        data.setDate(date);
+        data.setMoodScore(mood);
+        data.setStressLevel(3);
+        data.setProductivityScore(6);
+        data.setSleepQuality(4);
+        data.setEnergyLevel(5);
+        wellness.put(date, data);
+        rollups.recordWellnessScore(user, date, data.getWellnessScore());
+    }
+
+    private Map<LocalDate, Map<String, Object>> deltas() {
+        Map<LocalDate, Map<String, Object>> rows = new TreeMap<>();
+        deltaRows.forEach((date, row) -> put(rows, date, (int) row[0], (int) row[1], (int) row[2], (int) row[3],
+                (double) row[4], (Double) row[5]));
+        return rows;
+    }
+
+    private Map<LocalDate, Map<String, Object>> rebuilt() {
+        rebuiltRows.clear();
+        rollups.rebuild(user);
+        Map<LocalDate, Map<String, Object>> rows = new TreeMap<>();
+        for (DailyUserRollup r : rebuiltRows) {
+            put(rows, r.getDate(), r.getHabitLogs(), r.getTasksCompleted(), r.getTasksDue(), r.getTasksDueCompleted(),
+                    r.getMealCalories(), r.getWellnessScore());
+        }
+        return rows;
+    }
+
+    // Deltas leave all-zero rows behind where everything was removed; a rebuild has no row there
+    private static void put(Map<LocalDate, Map<String, Object>> rows, LocalDate date, int habitLogs,
+            int tasksCompleted, int tasksDue, int tasksDueCompleted, double mealCalories, Double wellnessScore) {
+        if (habitLogs == 0 && tasksCompleted == 0 && tasksDue == 0 && tasksDueCompleted == 0 && mealCalories == 0
+                && wellnessScore == null) {
+            return;
+        }
+        Map<String, Object> row = new LinkedHashMap<>();
+        row.put("habitLogs", habitLogs);
+        row.put("tasksCompleted", tasksCompleted);
+        row.put("tasksDue", tasksDue);
+        row.put("tasksDueCompleted", tasksDueCompleted);
+        row.put("mealCalories", mealCalories);
+        row.put("wellnessScore", wellnessScore);
+        rows.put(date, row);
+    }
+
+    private Object[] deltaRow(LocalDate date) {
+        return deltaRows.computeIfAbsent(date, d -> new Object[] { 0, 0, 0, 0, 0.0, null });
+    }
+
+    // (date, sum) rows like the repositories' GROUP BY queries
+    private static <T> List<Object[]> group(Iterable<T> rows, Function<T, LocalDate> date, ToDoubleFunction<T> value) {
+        Map<LocalDate, Double> sums = new TreeMap<>();
+        for (T row : rows) {
+            sums.merge(date.apply(row), value.applyAsDouble(row), Double::sum);
+        }
+        return sums.entrySet().stream().map(e -> new Object[] { e.getKey(), e.getValue() }).toList();
+    }
+
+    private static TaskRequest taskDue(LocalDate dueDate) {
+        TaskRequest request = new TaskRequest();
+        request.setTitle("task");
+        request.setDueDate(dueDate);
+        return request;
+    }
+
+    private static Map<String, Object> meal(LocalDate date, int... calories) {
+        List<Map<String, Object>> items = new ArrayList<>();
+        for (int c : calories) {
+            items.add(Map.of("calories", c));
+        }
+        return Map.of("date", date.toString(), "mealType", "lunch", "items", items);
+    }
+}
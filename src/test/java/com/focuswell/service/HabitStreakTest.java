@@ -0,0 +1,184 @@
+package com.focuswell.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.focuswell.cache.UserDataVersions;
+import com.focuswell.model.Habit;
+import com.focuswell.model.HabitLog;
+import com.focuswell.model.User;
+import com.focuswell.repository.HabitLogRepository;
+import com.focuswell.repository.HabitRepository;
+
+/**
+ * Logs habits through {@link HabitLogService} against an in-memory log table and
+ * checks the stored streak state after each step, and that it matches the state
+ * recomputed from the logs alone.
+ */
+class HabitStreakTest {
+
+    private final LocalDate today = LocalDate.now();
+    private final LocalDate monday = today.with(DayOfWeek.MONDAY);
+    private final User user = new User();
+    private final List<HabitLog> logs = new ArrayList<>();
+
+    private Habit habit;
+    private HabitLogService service;
+
+    @BeforeEach
+    void setUp() {
+        user.setId(1L);
+        habit = new Habit();
+        habit.setId(10L);
+        habit.setUser(user);
+        habit.setCurrentStreak(0);
+        habit.setLongestStreak(0);
+
+        HabitRepository habitRepository = mock(HabitRepository.class);
+        when(habitRepository.findByIdForUpdate(10L)).thenAnswer(call -> Optional.of(habit));
+        HabitLogRepository habitLogRepository = mock(HabitLogRepository.class);
+        when(habitLogRepository.save(any())).thenAnswer(call -> {
+            HabitLog log = call.getArgument(0);
+            logs.add(log);
+            return log;
+        });
+        when(habitLogRepository.findByHabitAndLogDate(any(), any())).thenAnswer(call -> logs.stream()
+                .filter(log -> log.getLogDate().equals(call.getArgument(1)))
+                .toList());
+        when(habitLogRepository.findLogDates(any())).thenAnswer(call -> logs.stream()
+                .map(HabitLog::getLogDate)
+                .distinct()
+                .sorted()
+                .toList());
+        service = new HabitLogService(habitRepository, habitLogRepository, mock(DailyRollupService.class),
+                new UserDataVersions());
+    }
+
+    private void log(String frequency, LocalDate... dates) {
+        habit.setFrequency(frequency);
+        for (LocalDate date : dates) {
+            service.logHabit(10L, user, date);
+        }
+    }
+
+    private void assertStreak(int current, int longest) {
+        assertThat(habit.getCurrentStreak()).as("stored current").isEqualTo(current);
+        assertThat(habit.getLongestStreak()).as("stored longest").isEqualTo(longest);
+        assertThat(service.getCurrentStreak(habit)).as("current").isEqualTo(current);
+
+        // The same habit with no stored state is computed from its logs
+        Habit unstored = new Habit();
+        unstored.setFrequency(habit.getFrequency());
+        assertThat(service.getCurrentStreak(unstored)).as("computed current").isEqualTo(current);
+        assertThat(service.getLongestStreak(unstored)).as("computed longest").isEqualTo(longest);
+    }
+
+    @Test
+    void consecutiveDaysExtendTheStreak() {
+        log("DAILY", today.minusDays(2), today.minusDays(1), today);
+
+        assertStreak(3, 3);
+        assertThat(habit.getLastLoggedPeriod()).isEqualTo(today);
+    }
+
+    @Test
+    void aMissedDayStartsOver() {
+        log("DAILY", today.minusDays(5), today.minusDays(4), today.minusDays(3), today.minusDays(1), today);
+
+        assertStreak(2, 3);
+    }
+
+    @Test
+    void sameDayIsRejectedAndLeavesTheStreak() {
+        log("DAILY", today.minusDays(1), today);
+
+        assertThatThrownBy(() -> service.logHabit(10L, user, today)).hasMessage("Habit already logged today");
+        assertThat(logs).hasSize(2);
+        assertStreak(2, 2);
+    }
+
+    @Test
+    void backdatedDayBridgesTheGap() {
+        log("DAILY", today.minusDays(3), today.minusDays(1), today);
+        assertStreak(2, 2);
+
+        log("DAILY", today.minusDays(2));
+
+        assertStreak(4, 4);
+        assertThat(habit.getLastLoggedPeriod()).isEqualTo(today);
+    }
+
+    @Test
+    void deletedLogBreaksTheStreakOnceRecomputed() {
+        log("DAILY", today.minusDays(2), today.minusDays(1), today);
+        logs.removeIf(log -> log.getLogDate().equals(today.minusDays(1)));
+
+        // No delete path keeps stored state; dropping it makes reads rescan the remaining logs
+        habit.setCurrentStreak(null);
+        habit.setLongestStreak(null);
+        habit.setLastLoggedPeriod(null);
+        assertThat(service.getCurrentStreak(habit)).isEqualTo(1);
+        assertThat(service.getLongestStreak(habit)).isEqualTo(1);
+
+        log("DAILY", today.minusDays(1));
+        assertStreak(3, 3);
+    }
+
+    @Test
+    void consecutiveWeeksExtendTheStreak() {
+        log("WEEKLY", monday.minusWeeks(2).plusDays(4), monday.minusWeeks(1), today);
+
+        assertStreak(3, 3);
+        assertThat(habit.getLastLoggedPeriod()).isEqualTo(monday);
+    }
+
+    @Test
+    void aMissedWeekStartsOver() {
+        log("WEEKLY", monday.minusWeeks(4), monday.minusWeeks(3).plusDays(6), monday.minusWeeks(1), today);
+
+        assertStreak(2, 2);
+    }
+
+    @Test
+    void secondLogInAWeekCountsOnce() {
+        log("WEEKLY", monday.minusWeeks(1).plusDays(1), monday.minusWeeks(1).plusDays(5), today);
+
+        assertThat(logs).hasSize(3);
+        assertStreak(2, 2);
+    }
+
+    @Test
+    void backdatedWeekBridgesTheGap() {
+        log("WEEKLY", monday.minusWeeks(2), today);
+        assertStreak(1, 1);
+
+        log("WEEKLY", monday.minusWeeks(1).plusDays(3));
+
+        assertStreak(3, 3);
+        assertThat(habit.getLastLoggedPeriod()).isEqualTo(monday);
+    }
+
+    @Test
+    void deletedWeekBreaksTheStreakOnceRecomputed() {
+        log("WEEKLY", monday.minusWeeks(2), monday.minusWeeks(1), today);
+        logs.removeIf(log -> log.getLogDate().equals(monday.minusWeeks(1)));
+
+        habit.setCurrentStreak(null);
+        habit.setLongestStreak(null);
+        habit.setLastLoggedPeriod(null);
+        assertThat(service.getCurrentStreak(habit)).isEqualTo(1);
+        assertThat(service.getLongestStreak(habit)).isEqualTo(1);
+    }
+}
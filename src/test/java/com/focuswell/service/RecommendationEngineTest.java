@@ -0,0 +1,48 @@
+package com.focuswell.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Arrays;
+
+import org.junit.jupiter.api.Test;
+
+import com.focuswell.service.RecommendationEngine.Signal;
+
+class RecommendationEngineTest {
+
+    private static double[] signals() {
+        double[] signals = new double[Signal.values().length];
+        Arrays.fill(signals, Double.NaN);
+        return signals;
+    }
+
+    @Test
+    void missingSignalsMatchNothing() {
+        assertThat(RecommendationEngine.matches(signals())).isEmpty();
+    }
+
+    @Test
+    void ruleMatchesOnlyWhenEveryConditionHolds() {
+        double[] signals = signals();
+        signals[Signal.STRESS.ordinal()] = 8.5;
+        int[] stressOnly = RecommendationEngine.matches(signals);
+
+        signals[Signal.SLEEP_HOURS.ordinal()] = 5.5;
+        int[] stressAndShortSleep = RecommendationEngine.matches(signals);
+
+        // Adding short sleep satisfies the combined rule and the sleep rule on top of the stress ones
+        assertThat(stressAndShortSleep.length).isEqualTo(stressOnly.length + 2);
+        assertThat(stressAndShortSleep).contains(stressOnly);
+        assertThat(stressAndShortSleep).isSorted();
+    }
+
+    @Test
+    void rangesAreHalfOpen() {
+        double[] signals = signals();
+        signals[Signal.SLEEP_HOURS.ordinal()] = 6.5;
+        int[] atThreshold = RecommendationEngine.matches(signals);
+
+        signals[Signal.SLEEP_HOURS.ordinal()] = 6.49;
+        assertThat(RecommendationEngine.matches(signals)).hasSize(atThreshold.length + 1);
+    }
+}
@@ -0,0 +1,119 @@
+package com.focuswell.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import com.focuswell.model.RiskAssessment;
+import com.focuswell.model.User;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class RiskRecomputeSchedulerTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final Map<Long, AtomicInteger> assessments = new ConcurrentHashMap<>();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger maxInFlight = new AtomicInteger();
+    private volatile CountDownLatch release = new CountDownLatch(0);
+
+    private final RiskAssessmentService service = new RiskAssessmentService(null, null, null, registry, 3) {
+        @Override
+        public Optional<RiskAssessment> assess(User user) {
+            maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            assessments.computeIfAbsent(user.getId(), id -> new AtomicInteger()).incrementAndGet();
+            inFlight.decrementAndGet();
+            return Optional.empty();
+        }
+    };
+
+    private final UserService users = new UserService() {
+        @Override
+        public User getReference(Long id) {
+            User user = new User();
+            user.setId(id);
+            return user;
+        }
+    };
+
+    private RiskRecomputeScheduler scheduler;
+
+    @AfterEach
+    void shutdown() {
+        scheduler.shutdown();
+    }
+
+    private int assessed(long userId) {
+        AtomicInteger count = assessments.get(userId);
+        return count != null ? count.get() : 0;
+    }
+
+    private double count(String name) {
+        return registry.counter(name).count();
+    }
+
+    @Test
+    void burstOfWritesLeadsToOneAssessmentPerUser() {
+        // The delay is far longer than the burst takes, however slow the machine
+        scheduler = new RiskRecomputeScheduler(service, users, registry,
+                Duration.ofMillis(500), Duration.ofSeconds(5), 2);
+        for (int i = 0; i < 50; i++) {
+            scheduler.requestRecompute(1L);
+            scheduler.requestRecompute(2L);
+        }
+
+        await().atMost(5, TimeUnit.SECONDS).until(() -> count("risk.recompute.runs") == 2
+                && !scheduler.isPending(1L) && !scheduler.isPending(2L));
+        assertThat(assessed(1L)).isEqualTo(1);
+        assertThat(assessed(2L)).isEqualTo(1);
+        assertThat(count("risk.recompute.requests")).isEqualTo(100);
+    }
+
+    @Test
+    void steadyWritesAreStillAssessedByTheMaxDelay() throws Exception {
+        scheduler = new RiskRecomputeScheduler(service, users, registry,
+                Duration.ofMillis(200), Duration.ofMillis(300), 1);
+        // Requests arrive well within the delay, so only the max delay can let a run through
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (assessed(1L) == 0 && System.nanoTime() < deadline) {
+            scheduler.requestRecompute(1L);
+            Thread.sleep(20);
+        }
+
+        assertThat(assessed(1L)).isGreaterThanOrEqualTo(1);
+    }
+
+    @Test
+    void runsForOneUserNeverOverlap() {
+        release = new CountDownLatch(1);
+        scheduler = new RiskRecomputeScheduler(service, users, registry,
+                Duration.ofMillis(10), Duration.ofMillis(10), 4);
+        scheduler.requestRecompute(1L);
+        await().atMost(5, TimeUnit.SECONDS).until(() -> inFlight.get() == 1);
+
+        // The first run is blocked; this one comes due meanwhile and must wait for it
+        scheduler.requestRecompute(1L);
+        await().atMost(5, TimeUnit.SECONDS).until(() -> !scheduler.isPending(1L));
+        assertThat(count("risk.recompute.runs")).isEqualTo(1);
+
+        release.countDown();
+        await().atMost(5, TimeUnit.SECONDS).until(() -> assessed(1L) == 2);
+        assertThat(maxInFlight.get()).isEqualTo(1);
+        assertThat(count("risk.recompute.requests")).isEqualTo(2);
+    }
+}
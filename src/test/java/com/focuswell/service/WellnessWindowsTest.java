@@ -0,0 +1,88 @@
+package com.focuswell.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+import java.util.Random;
+import java.util.TreeMap;
+
+import org.junit.jupiter.api.Test;
+
+class WellnessWindowsTest {
+
+    private static final double ALPHA = 0.25;
+
+    @Test
+    void windowsMatchARecomputationFromScratch() {
+        Random random = new Random(42);
+        WellnessWindows windows = new WellnessWindows(2, ALPHA);
+        TreeMap<Long, double[]> entries = new TreeMap<>();
+        long day = 1_000;
+        long now = day;
+
+        for (int step = 0; step < 2_000; step++) {
+            int action = random.nextInt(10);
+            if (action < 6) {
+                // New entry, sometimes after a gap longer than every window
+                day += random.nextInt(10) == 0 ? 40 : 1 + random.nextInt(3);
+            } else if (action == 9) {
+                now = Math.max(now, day) + random.nextInt(5);
+                windows.advanceTo(now);
+                assertMatches(windows, entries, now);
+                continue;
+            }
+            // action 6-8 edits the newest day again
+            double[] entry = { random.nextInt(10) + 1, random.nextInt(4) == 0 ? Double.NaN : random.nextDouble() * 9 };
+            assertThat(windows.put(day, entry)).isTrue();
+            entries.put(day, entry);
+            now = Math.max(now, day);
+            assertMatches(windows, entries, now);
+        }
+    }
+
+    @Test
+    void entryOlderThanTheNewestIsRejectedUnchanged() {
+        WellnessWindows windows = new WellnessWindows(1, ALPHA);
+        windows.put(10, new double[] { 4 });
+        windows.put(12, new double[] { 8 });
+
+        assertThat(windows.put(11, new double[] { 1 })).isFalse();
+        assertThat(windows.sum(WellnessWindows.WEEK, 0)).isEqualTo(12);
+        assertThat(windows.ewma(0)).isEqualTo(ALPHA * 8 + (1 - ALPHA) * 4);
+    }
+
+    private static void assertMatches(WellnessWindows windows, TreeMap<Long, double[]> entries, long now) {
+        assertThat(windows.head()).isEqualTo(now);
+        for (int m = 0; m < 2; m++) {
+            assertWindow(windows, WellnessWindows.WEEK, 7, entries, now, m);
+            assertWindow(windows, WellnessWindows.TWO_WEEKS, 14, entries, now, m);
+            assertWindow(windows, WellnessWindows.MONTH, 30, entries, now, m);
+
+            double ewma = Double.NaN;
+            for (double[] entry : entries.values()) {
+                if (!Double.isNaN(entry[m])) {
+                    ewma = Double.isNaN(ewma) ? entry[m] : ALPHA * entry[m] + (1 - ALPHA) * ewma;
+                }
+            }
+            if (Double.isNaN(ewma)) {
+                assertThat(windows.ewma(m)).isNaN();
+            } else {
+                assertThat(windows.ewma(m)).isCloseTo(ewma, within(1e-9));
+            }
+        }
+    }
+
+    private static void assertWindow(WellnessWindows windows, int window, int span,
+            TreeMap<Long, double[]> entries, long now, int m) {
+        double sum = 0;
+        int count = 0;
+        for (double[] entry : entries.subMap(now - span, false, now, true).values()) {
+            if (!Double.isNaN(entry[m])) {
+                sum += entry[m];
+                count++;
+            }
+        }
+        assertThat(windows.count(window, m)).isEqualTo(count);
+        assertThat(windows.sum(window, m)).isCloseTo(sum, within(1e-9));
+    }
+}
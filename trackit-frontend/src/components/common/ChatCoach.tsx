@@ -8,7 +8,7 @@ import InputBase from '@mui/material/InputBase';
 import Typography from '@mui/material/Typography';
 import React, { useEffect, useRef, useState } from 'react';
 import ReactMarkdown from 'react-markdown';
-import api from '../../services/api';
+import api, { chatApi } from '../../services/api';
 import Button from './Button';
 
 interface Message {
@@ -26,6 +26,8 @@ const ChatCoach: React.FC = () => {
   ]);
   const [input, setInput] = useState('');
   const [loading, setLoading] = useState(false);
+  // Conversation context lives on the server; only the session id is sent back
+  const [sessionId, setSessionId] = useState<string | undefined>();
   const messagesEndRef = useRef<HTMLDivElement>(null);
 
   useEffect(() => {
@@ -40,17 +42,37 @@ const ChatCoach: React.FC = () => {
     setMessages((msgs) => [...msgs, userMsg]);
     setInput('');
     setLoading(true);
-    try {
-      const res = await api.post('/api/ai/chat', {
-        message: input,
-        history: messages,
+    const payload = { message: input, sessionId };
+    let received = false;
+    // Append streamed text to the last (AI) message as it arrives
+    const appendChunk = (text: string) => {
+      if (!received) {
+        received = true;
+        setMessages((msgs) => [...msgs, { sender: 'ai', text }]);
+        return;
+      }
+      setMessages((msgs) => {
+        const last = msgs[msgs.length - 1];
+        return [...msgs.slice(0, -1), { ...last, text: last.text + text }];
       });
-      setMessages((msgs) => [...msgs, { sender: 'ai', text: res.data.reply }]);
+    };
+    try {
+      const done = await chatApi.stream(payload, appendChunk);
+      if (done.sessionId) setSessionId(done.sessionId);
     } catch {
-      setMessages((msgs) => [
-        ...msgs,
-        { sender: 'ai', text: 'Sorry, I could not process your request.' },
-      ]);
+      if (!received) {
+        // Streaming unavailable: fall back to the blocking endpoint
+        try {
+          const res = await api.post('/api/ai/chat', payload);
+          if (res.data.sessionId) setSessionId(res.data.sessionId);
+          setMessages((msgs) => [...msgs, { sender: 'ai', text: res.data.reply }]);
+        } catch {
+          setMessages((msgs) => [
+            ...msgs,
+            { sender: 'ai', text: 'Sorry, I could not process your request.' },
+          ]);
+        }
+      }
     } finally {
       setLoading(false);
     }
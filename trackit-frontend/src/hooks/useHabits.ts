@@ -23,32 +23,17 @@ export const useHabits = () => {
     setLoading(true);
     setError(null);
     try {
-      const data = await habitService.getAllHabits();
-      // For each habit, fetch log status and streak
-      const habitsWithStatus = await Promise.all(
-        data.map(async (habit) => {
-          let isLoggedToday = false;
-          let currentStreak = 0;
-          try {
-            // Check if logged today
-            const logs = await habitService.getHabitLogs(habit.id);
-            const today = new Date().toISOString().slice(0, 10);
-            isLoggedToday = logs.some(
-              (log) => log.logDate.slice(0, 10) === today
-            );
-          } catch {
-            // Ignore error, treat as not logged
-          }
-          try {
-            // Fetch streak
-            const streakRes = await habitService.getStreak(habit.id);
-            currentStreak = streakRes.currentStreak || 0;
-          } catch {
-            // Ignore error, treat as 0 streak
-          }
-          return { ...habit, isLoggedToday, currentStreak };
-        })
-      );
+      // One request returns streaks and today's status for every habit
+      const overview = await habitService.getOverview();
+      const habitsWithStatus = overview.map((item) => ({
+        id: item.habitId,
+        name: item.name,
+        description: item.description,
+        frequency: item.frequency,
+        longestStreak: item.longestStreak,
+        isLoggedToday: item.loggedToday,
+        currentStreak: item.currentStreak,
+      })) as HabitWithStatus[];
       setHabits(habitsWithStatus);
     } catch (err: unknown) {
       const errorMessage =
@@ -6,6 +6,7 @@ import {
   TOKEN_KEY,
   USER_KEY,
 } from '../utils/constants';
+import type { CursorPage } from '../types';
 // Removed unused import of useAuth
 
 interface ErrorResponse {
@@ -107,6 +108,23 @@ api.interceptors.response.use(
 
 export default api;
 
+// Follows nextCursor through a paginated endpoint and returns every item
+export const fetchAllPages = async <T>(
+  url: string,
+  params: Record<string, string | number> = {}
+): Promise<T[]> => {
+  const items: T[] = [];
+  let cursor: string | null = null;
+  do {
+    const response: AxiosResponse<CursorPage<T>> = await api.get(url, {
+      params: cursor ? { ...params, cursor } : params,
+    });
+    items.push(...response.data.items);
+    cursor = response.data.nextCursor;
+  } while (cursor);
+  return items;
+};
+
 export const nutritionApi = {
   async getNutritionProfile(token: string) {
     const res = await fetch(`${API_BASE_URL}/nutrition/profile`, {
@@ -251,3 +269,48 @@ export const nutritionApi = {
     return res.json();
   },
 };
+
+// Streams a coach reply from /ai/chat/stream (SSE over POST). Resolves with the
+// "done" event's data, which carries the session id to send with the next message;
+// rejects if the stream cannot be read.
+export const chatApi = {
+  async stream(
+    payload: { message: string; sessionId?: string },
+    onChunk: (text: string) => void
+  ): Promise<{ sessionId?: string; fallback?: boolean }> {
+    const token = localStorage.getItem(TOKEN_KEY);
+    const res = await fetch(`${API_BASE_URL}/ai/chat/stream`, {
+      method: 'POST',
+      headers: {
+        'Content-Type': 'application/json',
+        Accept: 'text/event-stream',
+        ...(token ? { Authorization: `Bearer ${token}` } : {}),
+      },
+      body: JSON.stringify(payload),
+    });
+    if (!res.ok || !res.body) throw new Error('Chat stream unavailable');
+
+    const reader = res.body.getReader();
+    const decoder = new TextDecoder();
+    let buffer = '';
+    for (;;) {
+      const { value, done } = await reader.read();
+      if (done) return {};
+      buffer += decoder.decode(value, { stream: true });
+      // Events are separated by a blank line
+      let end;
+      while ((end = buffer.indexOf('\n\n')) !== -1) {
+        const block = buffer.slice(0, end);
+        buffer = buffer.slice(end + 2);
+        let event = 'message';
+        let data = '';
+        for (const line of block.split('\n')) {
+          if (line.startsWith('event:')) event = line.slice(6).trim();
+          else if (line.startsWith('data:')) data += line.slice(5);
+        }
+        if (event === 'chunk') onChunk(JSON.parse(data).text);
+        else if (event === 'done') return JSON.parse(data);
+      }
+    }
+  },
+};
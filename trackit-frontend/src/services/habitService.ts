@@ -1,5 +1,5 @@
-import type { Habit, HabitLog } from '../types';
-import api from './api';
+import type { Habit, HabitLog, HabitOverview } from '../types';
+import api, { fetchAllPages } from './api';
 
 export interface CreateHabitRequest {
   name: string;
@@ -36,8 +36,7 @@ export const habitService = {
   },
 
   async getHabitLogs(id: number): Promise<HabitLog[]> {
-    const response = await api.get(`/api/habits/${id}/logs`);
-    return response.data;
+    return fetchAllPages<HabitLog>(`/api/habits/${id}/logs`);
   },
 
   async getWeeklyProgress(id: number): Promise<number[]> {
@@ -45,6 +44,11 @@ export const habitService = {
     return response.data;
   },
 
+  async getOverview(): Promise<HabitOverview[]> {
+    const response = await api.get('/api/habits/overview');
+    return response.data;
+  },
+
   async getStreak(id: number): Promise<{ currentStreak: number }> {
     const response = await api.get(`/api/habits/${id}/streak`);
     return response.data;
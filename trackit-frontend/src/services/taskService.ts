@@ -1,11 +1,10 @@
 import type { Task, TaskAnalytics, TaskRequest } from '../types';
-import api from './api';
+import api, { fetchAllPages } from './api';
 
 class TaskService {
   // Get all tasks
   async getAllTasks(): Promise<Task[]> {
-    const response = await api.get('/api/tasks');
-    return response.data;
+    return fetchAllPages<Task>('/api/tasks');
   }
 
   // Get today's tasks
@@ -42,10 +41,10 @@ class TaskService {
 
   // Get task history
   async getTaskHistory(startDate: string, endDate: string): Promise<Task[]> {
-    const response = await api.get('/api/tasks/history', {
-      params: { start: startDate, end: endDate },
+    return fetchAllPages<Task>('/api/tasks/history', {
+      start: startDate,
+      end: endDate,
     });
-    return response.data;
   }
 
   // Get task by ID
@@ -1,5 +1,5 @@
 import { WellnessData, WellnessDataRequest, WellnessStats } from '../types';
-import api from './api';
+import api, { fetchAllPages } from './api';
 
 class WellnessService {
   private baseUrl = '/api/wellness';
@@ -19,8 +19,7 @@ class WellnessService {
   }
 
   async getAllWellnessData(): Promise<WellnessData[]> {
-    const response = await api.get(`${this.baseUrl}/data/all`);
-    return response.data;
+    return fetchAllPages<WellnessData>(`${this.baseUrl}/data/all`);
   }
 
   async getWellnessDataByDateRange(
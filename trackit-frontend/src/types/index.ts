@@ -67,6 +67,17 @@ export interface HabitWithStatus extends Habit {
   currentStreak: number;
 }
 
+export interface HabitOverview {
+  habitId: number;
+  name: string;
+  description?: string;
+  frequency: string;
+  currentStreak: number;
+  longestStreak: number;
+  loggedToday: boolean;
+  weeklyProgress: Record<string, number>;
+}
+
 export interface HabitLog {
   id: number;
   habit: Habit;
@@ -96,6 +107,12 @@ export interface Analytics {
   period?: string;
 }
 
+// One page of a cursor-paginated list; nextCursor is null on the last page
+export interface CursorPage<T> {
+  items: T[];
+  nextCursor: string | null;
+}
+
 export interface ApiResponse<T> {
   data: T;
   message?: string;